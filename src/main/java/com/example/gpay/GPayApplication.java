@@ -2,9 +2,14 @@ package com.example.gpay;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.data.mongo.MongoReactiveDataAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.mongo.MongoReactiveRepositoriesAutoConfiguration;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.mongo.MongoReactiveAutoConfiguration;
 
-@SpringBootApplication(exclude = {DataSourceAutoConfiguration.class})
+// Reactive Mongo is set up by ReactiveMongoConfig, only in the reactive profile
+@SpringBootApplication(exclude = {DataSourceAutoConfiguration.class, MongoReactiveAutoConfiguration.class,
+        MongoReactiveDataAutoConfiguration.class, MongoReactiveRepositoriesAutoConfiguration.class})
 public class GPayApplication {
 
     public static void main(String[] args) {
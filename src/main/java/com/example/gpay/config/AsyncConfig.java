@@ -3,6 +3,7 @@ package com.example.gpay.config;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
@@ -24,8 +25,24 @@ public class AsyncConfig {
     @Value("${async.thread-name-prefix:gpay-async-}")
     private String threadNamePrefix;
 
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Value("${async.virtual.concurrency-limit:200}")
+    private int virtualConcurrencyLimit;
+
     @Bean(name = "taskExecutor")
     public Executor taskExecutor() {
+        if (virtualThreads) {
+            // One virtual thread per task; the limit replaces the pool size as the bound
+            // on how many async tasks hit Mongo and the gateways at once
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(virtualConcurrencyLimit);
+            executor.setTaskTerminationTimeout(5000);
+            return executor;
+        }
+
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(corePoolSize);
         executor.setMaxPoolSize(maxPoolSize);
@@ -34,4 +51,4 @@ public class AsyncConfig {
         executor.initialize();
         return executor;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,191 @@
+package com.example.gpay.config;
+
+import com.example.gpay.services.AuditLogService;
+import com.example.gpay.utils.JsonMasker;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.lang.NonNull;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingRequestWrapper;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sampled access audit for money endpoints.
+ * Failed requests are always recorded and successful ones at {@code audit.sample-rate}; the
+ * record is handed to {@link AuditLogService} without formatting on the request thread. Bodies
+ * are only captured in the opt-in {@code audit.capture-bodies} debug mode, and then with
+ * sensitive fields masked and a size cap.
+ * Registered in the security filter chains directly after SecurityContextHolderFilter, ahead of
+ * authentication, authorization and rate limiting, so their 401, 403 and 429 answers are audited
+ * while the principal is still readable. A request that ends in an exception is recorded as 500.
+ * Asynchronous requests are recorded when their async dispatch completes, with the status and
+ * duration of the whole exchange.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class AuditLogFilter extends OncePerRequestFilter {
+
+    private static final String STATE_ATTRIBUTE = AuditLogFilter.class.getName() + ".STATE";
+
+    @Autowired
+    private AuditLogService auditLogService;
+
+    @Value("${audit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${audit.paths:/api/transactions/}")
+    private List<String> paths;
+
+    @Value("${audit.exclude-paths:/api/transactions/stream}")
+    private List<String> excludePaths;
+
+    @Value("${audit.sample-rate:1.0}")
+    private double sampleRate;
+
+    @Value("${audit.capture-bodies:false}")
+    private boolean captureBodies;
+
+    @Value("${audit.max-body-bytes:2048}")
+    private int maxBodyBytes;
+
+    @Value("${audit.masked-fields:pin,password}")
+    private List<String> maskedFieldList;
+
+    private Set<String> maskedFields;
+
+    @PostConstruct
+    public void init() {
+        maskedFields = new HashSet<>(maskedFieldList);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        if (!enabled) {
+            return true;
+        }
+        String uri = request.getRequestURI();
+        // The event stream must not be buffered
+        for (String excluded : excludePaths) {
+            if (uri.endsWith(excluded)) {
+                return true;
+            }
+        }
+        for (String path : paths) {
+            if (uri.contains(path)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        // Mono and other async results are written on the async dispatch, which is recorded instead
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        AuditState state = (AuditState) request.getAttribute(STATE_ATTRIBUTE);
+        HttpServletRequest auditedRequest = request;
+        HttpServletResponse auditedResponse = response;
+        if (state == null) {
+            boolean sampled = sampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+            state = new AuditState(System.nanoTime(), sampled, captureBodies && sampled);
+            if (state.capture) {
+                auditedRequest = new ContentCachingRequestWrapper(request, maxBodyBytes);
+                auditedResponse = new ContentCachingResponseWrapper(response);
+            }
+        }
+        // On an async dispatch the wrappers from the initial dispatch come back in
+
+        Throwable failure = null;
+        try {
+            filterChain.doFilter(auditedRequest, auditedResponse);
+        } catch (IOException | ServletException | RuntimeException | Error e) {
+            failure = e;
+            throw e;
+        } finally {
+            if (failure == null && request.isAsyncStarted()) {
+                // Nothing is written yet; keep the state for the async dispatch
+                if (state.principal == null) {
+                    state.principal = principal();
+                }
+                request.setAttribute(STATE_ATTRIBUTE, state);
+            } else {
+                request.removeAttribute(STATE_ATTRIBUTE);
+                record(request, auditedRequest, auditedResponse, state, failure != null);
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, HttpServletRequest auditedRequest,
+                        HttpServletResponse auditedResponse, AuditState state, boolean failed) throws IOException {
+        // The container maps an escaping exception to 500 only after this filter returns
+        int status = failed && auditedResponse.getStatus() < 400
+                ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : auditedResponse.getStatus();
+        ContentCachingRequestWrapper cachedRequest = state.capture
+                ? WebUtils.getNativeRequest(auditedRequest, ContentCachingRequestWrapper.class) : null;
+        ContentCachingResponseWrapper cachedResponse = state.capture
+                ? WebUtils.getNativeResponse(auditedResponse, ContentCachingResponseWrapper.class) : null;
+        if (state.sampled || status >= 400) {
+            String requestBody = null;
+            String responseBody = null;
+            if (cachedRequest != null && cachedResponse != null) {
+                requestBody = JsonMasker.mask(cachedRequest.getContentAsByteArray(), maskedFields, maxBodyBytes);
+                responseBody = JsonMasker.mask(cachedResponse.getContentAsByteArray(), maskedFields, maxBodyBytes);
+            }
+            String principal = state.principal != null ? state.principal : principal();
+            auditLogService.record(request.getMethod(), request.getRequestURI(), status,
+                    System.nanoTime() - state.startedAt, principal, request.getRemoteAddr(), requestBody, responseBody);
+        }
+        if (cachedResponse != null) {
+            cachedResponse.copyBodyToResponse();
+        }
+    }
+
+    private static String principal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken) ? authentication.getName() : null;
+    }
+
+    /**
+     * What the initial dispatch decided, carried over to the async dispatch
+     */
+    private static final class AuditState {
+
+        private final long startedAt;
+        private final boolean sampled;
+        private final boolean capture;
+        private String principal;
+
+        private AuditState(long startedAt, boolean sampled, boolean capture) {
+            this.startedAt = startedAt;
+            this.sampled = sampled;
+            this.capture = capture;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.gpay.config;
+
+import com.example.gpay.model.RevokedToken;
+import com.example.gpay.model.Transaction;
+import com.example.gpay.model.User;
+import com.example.gpay.security.TokenRevocationService;
+import com.example.gpay.services.EventStreamService;
+import com.mongodb.client.model.changestream.FullDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.messaging.ChangeStreamRequest;
+import org.springframework.data.mongodb.core.messaging.DefaultMessageListenerContainer;
+import org.springframework.data.mongodb.core.messaging.MessageListenerContainer;
+
+/**
+ * Cross-node event feed: every node tails the transactions and users collections
+ * and republishes changes to its locally connected streams, and tails revoked tokens
+ * to keep its revocation filter current.
+ * Requires MongoDB to run as a replica set.
+ */
+@Configuration
+@ConditionalOnProperty(name = "events.change-streams.enabled", havingValue = "true")
+public class ChangeStreamConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChangeStreamConfig.class);
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public MessageListenerContainer changeStreamListenerContainer(MongoTemplate mongoTemplate,
+                                                                  EventStreamService eventStreamService,
+                                                                  TokenRevocationService tokenRevocationService) {
+        MessageListenerContainer container = new DefaultMessageListenerContainer(mongoTemplate);
+
+        ChangeStreamRequest<Transaction> transactionRequest = ChangeStreamRequest.<Transaction>builder()
+                .collection("transactions")
+                .fullDocumentLookup(FullDocument.UPDATE_LOOKUP)
+                .publishTo(message -> {
+                    Transaction transaction = message.getBody();
+                    if (transaction != null) {
+                        eventStreamService.publishTransaction(transaction);
+                    }
+                })
+                .build();
+
+        ChangeStreamRequest<User> userRequest = ChangeStreamRequest.<User>builder()
+                .collection("users")
+                .fullDocumentLookup(FullDocument.UPDATE_LOOKUP)
+                .publishTo(message -> {
+                    User user = message.getBody();
+                    if (user != null) {
+                        eventStreamService.publishBalance(user);
+                    }
+                })
+                .build();
+
+        ChangeStreamRequest<RevokedToken> revocationRequest = ChangeStreamRequest.<RevokedToken>builder()
+                .collection("revoked_tokens")
+                .publishTo(message -> {
+                    RevokedToken revoked = message.getBody();
+                    if (revoked != null) {
+                        tokenRevocationService.onRevoked(revoked.getId());
+                    }
+                })
+                .build();
+
+        container.register(transactionRequest, Transaction.class,
+                error -> logger.error("Transaction change stream error: {}", error.getMessage()));
+        container.register(userRequest, User.class,
+                error -> logger.error("User change stream error: {}", error.getMessage()));
+        container.register(revocationRequest, RevokedToken.class,
+                error -> logger.error("Revoked token change stream error: {}", error.getMessage()));
+
+        logger.info("Registered change stream listeners for transactions, users and revoked tokens");
+        return container;
+    }
+}
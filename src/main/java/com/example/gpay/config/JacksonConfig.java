@@ -1,23 +1,102 @@
-//package com.example.gpay.config;
-//
-//import com.fasterxml.jackson.databind.ObjectMapper;
-//import com.fasterxml.jackson.core.JsonGenerator;
-//import org.springframework.context.annotation.Bean;
-//import org.springframework.context.annotation.Configuration;
-//import org.springframework.context.annotation.Primary;
-//
-//@Configuration
-//public class JacksonConfig {
-//
-//    @Bean
-//    @Primary
-//    public ObjectMapper objectMapper() {
-//        ObjectMapper mapper = new ObjectMapper();
-//
-//        // Enable escaping of non-ASCII characters
-//        mapper.getFactory().configure(JsonGenerator.Feature.ESCAPE_NON_ASCII, true);
-//
-//        // You can also add a custom serializer for strings
-//        return mapper;
-//    }
-//}
\ No newline at end of file
+package com.example.gpay.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * CBOR content negotiation for mobile clients.
+ * A client that sends {@code Accept: application/cbor} (and {@code Content-Type: application/cbor}
+ * on writes) gets the same DTOs in binary form; the CBOR mapper comes from the same builder as
+ * the JSON one, so modules and date handling match. JSON stays first in the converter order, so
+ * clients sending no Accept header or {@code *}{@code /*} keep getting JSON. Since one URL
+ * now has two representations, every API response carries {@code Vary: Accept}.
+ */
+@Configuration
+public class JacksonConfig {
+
+    private static final String API_PATH = "/api/";
+
+    static ObjectMapper cborMapper(Jackson2ObjectMapperBuilder builder) {
+        return builder.factory(new CBORFactory()).build();
+    }
+
+    @Configuration
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    static class MvcCbor implements WebMvcConfigurer {
+
+        @Autowired
+        private Jackson2ObjectMapperBuilder objectMapperBuilder;
+
+        @Override
+        public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+            // Replace the classpath-detected default with one sharing the application's Jackson settings
+            converters.removeIf(converter -> converter instanceof MappingJackson2CborHttpMessageConverter);
+            int position = converters.size();
+            for (int i = 0; i < converters.size(); i++) {
+                if (converters.get(i) instanceof MappingJackson2HttpMessageConverter) {
+                    position = i + 1;
+                }
+            }
+            converters.add(position, new MappingJackson2CborHttpMessageConverter(cborMapper(objectMapperBuilder)));
+        }
+
+        @Override
+        public void addInterceptors(InterceptorRegistry registry) {
+            // Set before the handler runs, so 304 answers carry it too
+            registry.addInterceptor(new HandlerInterceptor() {
+                @Override
+                public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                    response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+                    return true;
+                }
+            }).addPathPatterns(API_PATH + "**");
+        }
+    }
+
+    @Configuration
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    static class WebFluxCbor implements WebFluxConfigurer {
+
+        @Autowired
+        private Jackson2ObjectMapperBuilder objectMapperBuilder;
+
+        @Override
+        public void configureHttpMessageCodecs(ServerCodecConfigurer configurer) {
+            // Custom object codecs are consulted after the default JSON ones
+            ObjectMapper mapper = cborMapper(objectMapperBuilder);
+            configurer.customCodecs().register(new Jackson2CborEncoder(mapper));
+            configurer.customCodecs().register(new Jackson2CborDecoder(mapper));
+        }
+
+        @Bean
+        public WebFilter varyAcceptFilter() {
+            return (exchange, chain) -> {
+                if (exchange.getRequest().getPath().value().startsWith(API_PATH)) {
+                    exchange.getResponse().getHeaders().add(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+                }
+                return chain.filter(exchange);
+            };
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.example.gpay.config;
+
+import com.example.gpay.model.NotificationPriority;
+import com.example.gpay.services.EmbeddedSmsGateway;
+import com.example.gpay.services.NotificationDispatcher;
+import com.example.gpay.services.NotificationService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Notification throughput benchmark against the embedded SMS sink.
+ * Replays the notifications a transfer produces (sent, received and two balance updates)
+ * mixed with OTP requests, then reports end-to-end latency for transfer notifications and
+ * OTPs separately, dispatcher lag percentiles per lane and the deepest queue seen per lane. Enable with the sms-sink profile and
+ * {@code sms-sink.benchmark.enabled=true}.
+ */
+@Component
+@Profile("sms-sink")
+@ConditionalOnProperty(name = "sms-sink.benchmark.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class NotificationBenchmarkRunner implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationBenchmarkRunner.class);
+
+    private final NotificationService notificationService;
+    private final NotificationDispatcher notificationDispatcher;
+    private final EmbeddedSmsGateway smsSink;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${sms-sink.benchmark.users:1000}")
+    private int users;
+
+    @Value("${sms-sink.benchmark.transfers:5000}")
+    private int transfers;
+
+    @Value("${sms-sink.benchmark.otp-requests:1000}")
+    private int otpRequests;
+
+    @Value("${sms-sink.benchmark.threads:16}")
+    private int threads;
+
+    @Value("${sms-sink.benchmark.rate-per-second:0}")
+    private int ratePerSecond;
+
+    @Value("${sms-sink.benchmark.timeout-seconds:300}")
+    private long timeoutSeconds;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        List<Boolean> workload = new ArrayList<>(transfers + otpRequests);
+        for (int i = 0; i < transfers; i++) {
+            workload.add(Boolean.TRUE);
+        }
+        for (int i = 0; i < otpRequests; i++) {
+            workload.add(Boolean.FALSE);
+        }
+        Collections.shuffle(workload);
+
+        long[] latencies = new long[transfers * 4];
+        AtomicInteger latencyIndex = new AtomicInteger();
+        long[] otpLatencies = new long[otpRequests];
+        AtomicInteger otpLatencyIndex = new AtomicInteger();
+        List<CompletableFuture<?>> completions = Collections.synchronizedList(new ArrayList<>());
+        Map<NotificationPriority, Integer> maxDepths = new EnumMap<>(NotificationPriority.class);
+        int[] maxDeferred = new int[1];
+
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(() -> {
+            notificationDispatcher.getQueueDepths().forEach((lane, depth) -> maxDepths.merge(lane, depth, Math::max));
+            maxDeferred[0] = Math.max(maxDeferred[0], notificationDispatcher.getDeferredCount());
+        }, 0, 100, TimeUnit.MILLISECONDS);
+
+        logger.info("Notification benchmark: {} transfers, {} OTP requests, {} users, {} threads, rate {}/s",
+                transfers, otpRequests, users, threads, ratePerSecond > 0 ? ratePerSecond : "unlimited");
+
+        ExecutorService drivers = Executors.newFixedThreadPool(threads);
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < workload.size(); i++) {
+            if (ratePerSecond > 0) {
+                long due = startedAt + TimeUnit.SECONDS.toNanos(i) / ratePerSecond;
+                long wait = due - System.nanoTime();
+                if (wait > 0) {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                }
+            }
+            boolean transfer = workload.get(i);
+            drivers.execute(() -> {
+                try {
+                    if (transfer) {
+                        driveTransfer(latencies, latencyIndex, completions);
+                    } else {
+                        long submitted = System.nanoTime();
+                        track(notificationService.dispatchOTP(phone(ThreadLocalRandom.current().nextInt(users)))
+                                .delivery(), submitted, otpLatencies, otpLatencyIndex, completions);
+                    }
+                } catch (Exception e) {
+                    logger.debug("Benchmark request failed: {}", e.getMessage());
+                }
+            });
+        }
+        drivers.shutdown();
+        drivers.awaitTermination(timeoutSeconds, TimeUnit.SECONDS);
+        long submittedAt = System.nanoTime();
+
+        try {
+            CompletableFuture.allOf(completions.toArray(new CompletableFuture[0]))
+                    .get(timeoutSeconds, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            logger.warn("Benchmark timed out with notifications still pending");
+        } catch (Exception e) {
+            // Individual failures are expected with a non-zero sink error rate
+        }
+        long finishedAt = System.nanoTime();
+        sampler.shutdownNow();
+        sampler.awaitTermination(1, TimeUnit.SECONDS);
+
+        report(Arrays.copyOf(latencies, Math.min(latencyIndex.get(), latencies.length)),
+                Arrays.copyOf(otpLatencies, Math.min(otpLatencyIndex.get(), otpLatencies.length)),
+                submittedAt - startedAt, finishedAt - startedAt, maxDepths, maxDeferred[0]);
+    }
+
+    /**
+     * The notifications TransactionService sends for one transfer
+     */
+    private void driveTransfer(long[] latencies, AtomicInteger latencyIndex, List<CompletableFuture<?>> completions) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int senderIndex = random.nextInt(users);
+        int recipientIndex = (senderIndex + 1 + random.nextInt(Math.max(users - 1, 1))) % users;
+        String sender = phone(senderIndex);
+        String recipient = phone(recipientIndex);
+        double amount = 100 + random.nextInt(50000);
+        String reference = "BENCH" + System.nanoTime();
+
+        long submitted = System.nanoTime();
+        track(notificationService.sendTransferSentNotification(sender, amount, recipient, reference),
+                submitted, latencies, latencyIndex, completions);
+        track(notificationService.sendTransferReceivedNotification(recipient, amount, sender, reference),
+                submitted, latencies, latencyIndex, completions);
+        track(notificationService.sendBalanceUpdateNotification(sender, random.nextDouble(1_000_000)),
+                submitted, latencies, latencyIndex, completions);
+        track(notificationService.sendBalanceUpdateNotification(recipient, random.nextDouble(1_000_000)),
+                submitted, latencies, latencyIndex, completions);
+    }
+
+    private void track(CompletableFuture<?> delivery, long submitted, long[] latencies,
+                       AtomicInteger latencyIndex, List<CompletableFuture<?>> completions) {
+        completions.add(delivery.whenComplete((ignored, error) -> {
+            int index = latencyIndex.getAndIncrement();
+            if (index < latencies.length) {
+                latencies[index] = System.nanoTime() - submitted;
+            }
+        }));
+    }
+
+    private void report(long[] latencies, long[] otpLatencies, long submitNanos, long totalNanos,
+                        Map<NotificationPriority, Integer> maxDepths, int maxDeferred) {
+        double seconds = totalNanos / 1e9;
+
+        logger.info("Notification benchmark finished in {} s (submission took {} s)",
+                String.format("%.2f", seconds), String.format("%.2f", submitNanos / 1e9));
+        logger.info("SMS sink: delivered {}, failed {}, throttled {} ({} SMS/s)",
+                smsSink.getDeliveredCount(), smsSink.getFailedCount(), smsSink.getThrottledCount(),
+                String.format("%.1f", smsSink.getDeliveredCount() / seconds));
+        reportLatency("Transfer notification", latencies);
+        reportLatency("OTP", otpLatencies);
+
+        for (NotificationPriority lane : NotificationPriority.values()) {
+            Timer lag = meterRegistry.find("gpay.notifications.lag").tag("lane", lane.name()).timer();
+            if (lag == null || lag.count() == 0) {
+                continue;
+            }
+            StringBuilder percentiles = new StringBuilder();
+            for (ValueAtPercentile value : lag.takeSnapshot().percentileValues()) {
+                percentiles.append(String.format(" p%.0f %.0f ms", value.percentile() * 100,
+                        value.value(TimeUnit.MILLISECONDS)));
+            }
+            logger.info("Dispatcher lag for {} lane (queue to provider accept):{}", lane, percentiles);
+        }
+        logger.info("Max queue depth per lane: {}, max deferred: {}", maxDepths, maxDeferred);
+    }
+
+    private static void reportLatency(String label, long[] latencies) {
+        if (latencies.length == 0) {
+            return;
+        }
+        Arrays.sort(latencies);
+        logger.info("{} end-to-end latency: p50 {} ms, p95 {} ms, p99 {} ms, max {} ms", label,
+                millis(percentile(latencies, 0.50)), millis(percentile(latencies, 0.95)),
+                millis(percentile(latencies, 0.99)), millis(latencies[latencies.length - 1]));
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.1f", nanos / 1e6);
+    }
+
+    private static String phone(int index) {
+        return "+2376" + (50000000 + index);
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.gpay.config;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.SimpleReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+/**
+ * Non-blocking Mongo access for the reactive profile.
+ * Boot's reactive Mongo auto-configuration is excluded so servlet deployments do not open a
+ * second connection pool; here the reactive client shares the URI, mapping context and
+ * conversions of the blocking one.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveMongoConfig {
+
+    @Value("${spring.data.mongodb.uri}")
+    private String mongoUri;
+
+    @Bean(destroyMethod = "close")
+    public MongoClient reactiveMongoClient() {
+        return MongoClients.create(mongoUri);
+    }
+
+    @Bean
+    public ReactiveMongoTemplate reactiveMongoTemplate(MongoClient reactiveMongoClient,
+                                                       MongoMappingContext mappingContext,
+                                                       MongoCustomConversions conversions) {
+        SimpleReactiveMongoDatabaseFactory factory = new SimpleReactiveMongoDatabaseFactory(reactiveMongoClient,
+                new ConnectionString(mongoUri).getDatabase());
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        return new ReactiveMongoTemplate(factory, converter);
+    }
+}
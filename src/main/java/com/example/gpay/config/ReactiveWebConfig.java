@@ -0,0 +1,69 @@
+package com.example.gpay.config;
+
+import com.example.gpay.controller.ReactiveAccountHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.web.reactive.config.BlockingExecutionConfigurer;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * WebFlux settings for the reactive profile.
+ * Endpoints that still call blocking services (annotated controllers with plain return types,
+ * and the bridged handlers in {@code ReactiveAccountHandler}) run on one bounded worker pool so
+ * the event loop never blocks; when its queue is full requests fail fast instead of piling up.
+ * The MVC-only endpoints (the SSE event stream, the change feed export and the merchant API)
+ * are not served in this mode.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveWebConfig implements WebFluxConfigurer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveWebConfig.class);
+
+    @Value("${reactive.blocking.threads:64}")
+    private int blockingThreads;
+
+    @Value("${reactive.blocking.queue-capacity:10000}")
+    private int blockingQueueCapacity;
+
+    @Bean(destroyMethod = "dispose")
+    public Scheduler blockingScheduler() {
+        logger.info("Reactive mode: {} worker threads for blocking calls, queue capacity {}",
+                blockingThreads, blockingQueueCapacity);
+        return Schedulers.newBoundedElastic(blockingThreads, blockingQueueCapacity, "gpay-blocking");
+    }
+
+    /**
+     * Functional routes take precedence over annotated controllers mapped to the same paths
+     */
+    @Bean
+    public RouterFunction<ServerResponse> reactiveApiRoutes(ReactiveAccountHandler handler) {
+        return RouterFunctions.route()
+                .GET("/api/user/profile", handler::getUserProfile)
+                .GET("/api/user/balance", handler::getUserBalance)
+                .path("/api/transactions", builder -> builder
+                        .POST("/deposit", handler::deposit)
+                        .POST("/withdraw", handler::withdraw)
+                        .POST("/transfer", handler::transfer)
+                        .GET("/history", handler::getTransactionHistory)
+                        .GET("/status/{reference}", handler::getTransactionStatus))
+                .POST("/api/webhook/twilio/status", handler::handleTwilioStatus)
+                .build();
+    }
+
+    @Override
+    public void configureBlockingExecution(BlockingExecutionConfigurer configurer) {
+        Scheduler scheduler = blockingScheduler();
+        configurer.setExecutor(new TaskExecutorAdapter(scheduler::schedule));
+    }
+}
@@ -1,7 +1,5 @@
 package com.example.gpay.config;
 
-import com.example.gpay.services.NotificationService;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -14,22 +12,7 @@ public class ScheduledTasksConfig {
 
     private static final Logger logger = LoggerFactory.getLogger(ScheduledTasksConfig.class);
 
-    @Autowired
-    private NotificationService notificationService;
-
-    /**
-     * Clean up expired OTPs every 5 minutes
-     */
-    @Scheduled(fixedRate = 300000) // 5 minutes in milliseconds
-    public void cleanupExpiredOTPs() {
-        try {
-            logger.debug("Starting OTP cleanup task");
-            notificationService.cleanupExpiredOTPs();
-            logger.debug("OTP cleanup task completed");
-        } catch (Exception e) {
-            logger.error("Error during OTP cleanup: {}", e.getMessage());
-        }
-    }
+    // Expired OTPs are removed by the OtpStore itself (timing wheel or TTL index)
 
     /**
      * Log system health every hour
@@ -38,4 +21,4 @@ public class ScheduledTasksConfig {
     public void systemHealthCheck() {
         logger.info("System health check - Services are running normally");
     }
-}
\ No newline at end of file
+}
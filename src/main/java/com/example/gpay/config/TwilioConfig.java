@@ -5,9 +5,13 @@ import com.twilio.Twilio;
 import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 
 
+// The sms-sink profile replaces Twilio with an in-process gateway, and the reactive
+// profile calls the Twilio REST API through WebClientTwilioSmsGateway instead of the SDK
 @Configuration
+@Profile("!sms-sink & !reactive")
 public class TwilioConfig {
 
     @Value("${twilio.account-sid}")
@@ -0,0 +1,21 @@
+package com.example.gpay.config;
+
+import com.example.gpay.model.User;
+import com.example.gpay.utils.PhoneNumberUtils;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertCallback;
+import org.springframework.stereotype.Component;
+
+/**
+ * Derives User.phoneKey from the phone number on every save, so a document loaded before the
+ * key was backfilled cannot write it back without one
+ */
+@Component
+public class UserPhoneKeyCallback implements BeforeConvertCallback<User> {
+
+    @Override
+    public User onBeforeConvert(User user, String collection) {
+        long key = PhoneNumberUtils.parseKey(user.getPhoneNumber());
+        user.setPhoneKey(key >= 0 ? key : null);
+        return user;
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.gpay.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reports virtual threads that stay pinned to their carrier, which happens when they block
+ * inside a {@code synchronized} block or a native frame. Listens to the JFR
+ * {@code jdk.VirtualThreadPinned} event in-process, counts every occurrence and logs the stack
+ * of each distinct pinning site once, so hot spots show up without a full JFR recording.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = {"spring.threads.virtual.enabled", "virtual-threads.pinning-monitor.enabled"},
+        havingValue = "true")
+public class VirtualThreadPinningMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${virtual-threads.pinning-monitor.threshold-ms:20}")
+    private long thresholdMs;
+
+    @Value("${virtual-threads.pinning-monitor.stack-depth:12}")
+    private int stackDepth;
+
+    @Value("${virtual-threads.pinning-monitor.max-sites:100}")
+    private int maxSites;
+
+    private final Map<String, Boolean> reportedSites = new ConcurrentHashMap<>();
+    private RecordingStream stream;
+    private Counter pinnedCounter;
+    private Timer pinnedDuration;
+
+    @PostConstruct
+    public void start() {
+        pinnedCounter = Counter.builder("gpay.virtual-threads.pinned").register(meterRegistry);
+        pinnedDuration = Timer.builder("gpay.virtual-threads.pinned.duration")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+
+        try {
+            stream = new RecordingStream();
+            stream.enable(PINNED_EVENT).withThreshold(Duration.ofMillis(thresholdMs)).withStackTrace();
+            stream.onEvent(PINNED_EVENT, this::onPinned);
+            stream.startAsync();
+            logger.info("Virtual thread pinning monitor started, threshold {} ms", thresholdMs);
+        } catch (Exception e) {
+            // JFR can be unavailable in stripped-down runtimes; serving must not depend on it
+            logger.warn("Virtual thread pinning monitor unavailable: {}", e.getMessage());
+            stream = null;
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinnedCounter.increment();
+        pinnedDuration.record(event.getDuration());
+
+        String site = describe(event.getStackTrace());
+        if (reportedSites.size() < maxSites && reportedSites.putIfAbsent(site, Boolean.TRUE) == null) {
+            logger.warn("Virtual thread pinned for {} ms at:{}", event.getDuration().toMillis(), site);
+        }
+    }
+
+    private String describe(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return " <no stack trace>";
+        }
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        StringBuilder site = new StringBuilder();
+        for (int i = 0; i < Math.min(frames.size(), stackDepth); i++) {
+            RecordedFrame frame = frames.get(i);
+            site.append("\n\tat ").append(frame.getMethod().getType().getName())
+                    .append('.').append(frame.getMethod().getName())
+                    .append(':').append(frame.getLineNumber());
+        }
+        return site.toString();
+    }
+}
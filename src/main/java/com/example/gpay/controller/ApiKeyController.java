@@ -0,0 +1,77 @@
+package com.example.gpay.controller;
+
+import com.example.gpay.dto.ApiKeyCreateRequest;
+import com.example.gpay.dto.ApiResponse;
+import com.example.gpay.model.MerchantApiKey;
+import com.example.gpay.model.User;
+import com.example.gpay.security.MerchantApiKeyService;
+import com.example.gpay.services.UserService;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Management of a user's merchant API keys
+ */
+@RestController
+@RequestMapping("/api/api-keys")
+@CrossOrigin(origins = "*")
+@SecurityRequirement(name = "bearerAuth")
+@RequiredArgsConstructor
+public class ApiKeyController {
+
+    private final MerchantApiKeyService merchantApiKeyService;
+    private final UserService userService;
+
+    /**
+     * Create a key; the response is the only time the secret is shown.
+     * A bearer token alone is not enough, the user confirms with their PIN.
+     */
+    @PostMapping
+    public ResponseEntity<ApiResponse<Map<String, Object>>> create(@Valid @RequestBody ApiKeyCreateRequest request,
+                                                                   Authentication authentication) {
+        try {
+            User user = currentUser(authentication);
+            if (!userService.validatePin(user, request.getPin())) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body(ApiResponse.error("Invalid PIN provided"));
+            }
+            MerchantApiKeyService.IssuedKey issued = merchantApiKeyService.create(user, request.getName());
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("keyId", issued.key().getKeyId());
+            body.put("secret", issued.secret());
+            body.put("name", issued.key().getName());
+            body.put("createdAt", issued.key().getCreatedAt());
+            return ResponseEntity.status(HttpStatus.CREATED).body(ApiResponse.success("API key created", body));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<MerchantApiKey>>> list(Authentication authentication) {
+        return ResponseEntity.ok(ApiResponse.success(merchantApiKeyService.list(currentUser(authentication).getId())));
+    }
+
+    @DeleteMapping("/{keyId}")
+    public ResponseEntity<ApiResponse<String>> revoke(@PathVariable String keyId, Authentication authentication) {
+        try {
+            merchantApiKeyService.revoke(currentUser(authentication).getId(), keyId);
+            return ResponseEntity.ok(ApiResponse.success("API key revoked", keyId));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    private User currentUser(Authentication authentication) {
+        return userService.findByPhoneNumber(authentication.getName())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+}
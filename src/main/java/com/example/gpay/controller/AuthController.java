@@ -91,9 +91,12 @@ package com.example.gpay.controller;
 
 import com.example.gpay.dto.*;
 import com.example.gpay.security.AuthService;
+import com.example.gpay.services.SmsRateLimitException;
 import lombok.RequiredArgsConstructor;
 import lombok.Data;
 import lombok.AllArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.slf4j.Logger;
@@ -148,6 +151,42 @@ public class AuthController {
         }
     }
 
+    /**
+     * Exchange a refresh token for a new token pair
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@Valid @RequestBody RefreshTokenRequest request) {
+        try {
+            return ResponseEntity.ok(authService.refresh(request.getRefreshToken()));
+        } catch (RuntimeException e) {
+            logger.warn("Token refresh failed: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new ErrorResponse(e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Token refresh error: {}", e.getMessage(), e);
+            return ResponseEntity.internalServerError().body(new ErrorResponse("Token refresh failed"));
+        }
+    }
+
+    /**
+     * Revoke the presented access token and, if given, the refresh token's session
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestHeader(value = "Authorization", required = false) String authHeader,
+                                    @RequestBody(required = false) RefreshTokenRequest request) {
+        String accessToken = authHeader != null && authHeader.startsWith("Bearer ") ? authHeader.substring(7) : null;
+        String refreshToken = request != null ? request.getRefreshToken() : null;
+        if (accessToken == null && refreshToken == null) {
+            return ResponseEntity.badRequest().body(new ErrorResponse("No token to revoke"));
+        }
+        try {
+            authService.logout(accessToken, refreshToken);
+            return ResponseEntity.ok(new SuccessResponse("Logged out"));
+        } catch (Exception e) {
+            logger.error("Logout error: {}", e.getMessage(), e);
+            return ResponseEntity.internalServerError().body(new ErrorResponse("Logout failed"));
+        }
+    }
+
     /**
      * Step 1: Request OTP for login
      */
@@ -157,6 +196,11 @@ public class AuthController {
             String message = authService.requestLoginOTP(request);
             logger.info("OTP requested for: {}", request.getPhoneNumber());
             return ResponseEntity.ok(OTPResponse.success(message, 5L));
+        } catch (SmsRateLimitException e) {
+            logger.warn("OTP request rate limited: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(OTPResponse.failure("Too many OTP requests, please try again later"));
         } catch (RuntimeException e) {
             logger.error("OTP request failed: {}", e.getMessage());
             return ResponseEntity.badRequest().body(OTPResponse.failure(e.getMessage()));
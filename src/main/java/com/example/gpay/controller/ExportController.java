@@ -0,0 +1,56 @@
+package com.example.gpay.controller;
+
+import com.example.gpay.services.ChangeFeedExportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
+
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/api/export")
+@RequiredArgsConstructor
+@SecurityRequirement(name = "bearerAuth")
+@Tag(name = "Export", description = "Incremental change feed for analytics consumers")
+public class ExportController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportController.class);
+
+    private final ChangeFeedExportService changeFeedExportService;
+
+    /**
+     * Resumable NDJSON change feed
+     * GET /api/export/changes?resumeAfter={token}&collections=transactions,users&batchSize=500
+     */
+    @GetMapping(value = "/changes", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Export changes",
+            description = "Stream inserts, updates and deletes since the given resume token as NDJSON")
+    public ResponseEntity<StreamingResponseBody> exportChanges(
+            @RequestParam(required = false) String resumeAfter,
+            @RequestParam(defaultValue = "transactions,users") List<String> collections,
+            @RequestParam(defaultValue = "500") int batchSize) {
+
+        if (collections.isEmpty() || !ChangeFeedExportService.EXPORTABLE_COLLECTIONS.containsAll(collections)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        logger.info("Change feed export requested for {} (resuming: {})", collections, resumeAfter != null);
+
+        StreamingResponseBody body = outputStream ->
+                changeFeedExportService.exportChanges(collections, resumeAfter, batchSize, outputStream);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header("Cache-Control", "no-store")
+                .body(body);
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.gpay.controller;
+
+import com.example.gpay.dto.ApiResponse;
+import com.example.gpay.dto.MerchantPayoutRequest;
+import com.example.gpay.model.MerchantApiKey;
+import com.example.gpay.model.Transaction;
+import com.example.gpay.repository.TransactionRepository;
+import com.example.gpay.services.TransferService;
+import com.example.gpay.services.UserService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Server-to-server API for merchants, authenticated with signed API key requests
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/api/merchant")
+@RequiredArgsConstructor
+public class MerchantController {
+
+    private static final Logger logger = LoggerFactory.getLogger(MerchantController.class);
+
+    private final UserService userService;
+    private final TransferService transferService;
+    private final TransactionRepository transactionRepository;
+
+    @GetMapping("/balance")
+    public ResponseEntity<ApiResponse<Double>> getBalance(Authentication authentication) {
+        return userService.findById(merchantKey(authentication).getUserId())
+                .map(user -> ResponseEntity.ok(ApiResponse.success(user.getBalance())))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.error("Merchant not found")));
+    }
+
+    @GetMapping("/transactions")
+    public ResponseEntity<ApiResponse<List<Transaction>>> getTransactions(Authentication authentication) {
+        return ResponseEntity.ok(ApiResponse.success(
+                transactionRepository.findByUserIdOrderByCreatedAtDesc(merchantKey(authentication).getUserId())));
+    }
+
+    @GetMapping("/transactions/{reference}")
+    public ResponseEntity<ApiResponse<Transaction>> getTransaction(@PathVariable String reference,
+                                                                   Authentication authentication) {
+        String userId = merchantKey(authentication).getUserId();
+        return transactionRepository.findByReference(reference)
+                .filter(transaction -> userId.equals(transaction.getUserId()) || userId.equals(transaction.getRecipientId()))
+                .map(transaction -> ResponseEntity.ok(ApiResponse.success(transaction)))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.error("Transaction not found")));
+    }
+
+    /**
+     * Pay a customer from the merchant's balance
+     */
+    @PostMapping("/payouts")
+    public ResponseEntity<ApiResponse<Transaction>> payout(@Valid @RequestBody MerchantPayoutRequest request,
+                                                           Authentication authentication) {
+        MerchantApiKey key = merchantKey(authentication);
+        try {
+            Transaction transaction = transferService.processTransfer(key.getPhoneNumber(), request.toTransferRequest(), false);
+            logger.info("Merchant payout {} via key {}", transaction.getReference(), key.getKeyId());
+            return ResponseEntity.ok(ApiResponse.success("Payout completed successfully", transaction));
+        } catch (RuntimeException e) {
+            logger.error("Merchant payout via key {} failed: {}", key.getKeyId(), e.getMessage());
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    private static MerchantApiKey merchantKey(Authentication authentication) {
+        return (MerchantApiKey) authentication.getDetails();
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.gpay.controller;
+
+import com.example.gpay.dto.ApiResponse;
+import com.example.gpay.model.InboxMessage;
+import com.example.gpay.model.NotificationChannel;
+import com.example.gpay.model.User;
+import com.example.gpay.services.InboxService;
+import com.example.gpay.services.NotificationRecipientResolver;
+import com.example.gpay.services.UserService;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/notifications")
+@CrossOrigin(origins = "*")
+@SecurityRequirement(name = "bearerAuth")
+@RequiredArgsConstructor
+public class NotificationController {
+
+    private final InboxService inboxService;
+    private final UserService userService;
+    private final NotificationRecipientResolver recipientResolver;
+
+    @GetMapping("/inbox")
+    public ResponseEntity<ApiResponse<List<InboxMessage>>> getInbox(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            Authentication authentication) {
+        User user = currentUser(authentication);
+        return ResponseEntity.ok(ApiResponse.success(inboxService.getInbox(user.getId(), page, size)));
+    }
+
+    @GetMapping("/inbox/unread-count")
+    public ResponseEntity<ApiResponse<Long>> getUnreadCount(Authentication authentication) {
+        User user = currentUser(authentication);
+        return ResponseEntity.ok(ApiResponse.success(inboxService.countUnread(user.getId())));
+    }
+
+    @PostMapping("/inbox/{messageId}/read")
+    public ResponseEntity<ApiResponse<Boolean>> markRead(@PathVariable String messageId,
+                                                         Authentication authentication) {
+        User user = currentUser(authentication);
+        return ResponseEntity.ok(ApiResponse.success(inboxService.markRead(user.getId(), messageId)));
+    }
+
+    @PostMapping("/inbox/read-all")
+    public ResponseEntity<ApiResponse<Long>> markAllRead(Authentication authentication) {
+        User user = currentUser(authentication);
+        return ResponseEntity.ok(ApiResponse.success(inboxService.markAllRead(user.getId())));
+    }
+
+    /**
+     * Effective delivery channel for every notification event type
+     */
+    @GetMapping("/preferences")
+    public ResponseEntity<ApiResponse<Map<String, NotificationChannel>>> getPreferences(Authentication authentication) {
+        User user = currentUser(authentication);
+        return ResponseEntity.ok(ApiResponse.success(
+                recipientResolver.resolve(user.getPhoneNumber()).effectiveChannels(NotificationChannel.EVENT_TYPES)));
+    }
+
+    @PutMapping("/preferences")
+    public ResponseEntity<ApiResponse<Map<String, NotificationChannel>>> updatePreferences(
+            @RequestBody Map<String, NotificationChannel> channels,
+            Authentication authentication) {
+        try {
+            User user = currentUser(authentication);
+            User updated = userService.updateNotificationChannels(user.getId(), channels);
+            return ResponseEntity.ok(ApiResponse.success("Notification preferences updated",
+                    recipientResolver.resolve(updated.getPhoneNumber()).effectiveChannels(NotificationChannel.EVENT_TYPES)));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    private User currentUser(Authentication authentication) {
+        return userService.findByPhoneNumber(authentication.getName())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.gpay.controller;
+
+import com.example.gpay.dto.ApiResponse;
+import com.example.gpay.dto.PaymentRequestCreateRequest;
+import com.example.gpay.dto.PaymentRequestResponse;
+import com.example.gpay.services.PaymentRequestService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Merchant payment requests, paid by scanning their QR code with POST /api/qr/pay
+ */
+@RestController
+@RequestMapping("/api/qr/requests")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class PaymentRequestController {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentRequestController.class);
+
+    private final PaymentRequestService paymentRequestService;
+
+    /**
+     * Create a payment request and its one-time QR code
+     * POST /api/qr/requests
+     */
+    @PostMapping
+    public ResponseEntity<ApiResponse<PaymentRequestResponse>> createPaymentRequest(
+            @Valid @RequestBody PaymentRequestCreateRequest request,
+            Authentication authentication) {
+        try {
+            PaymentRequestResponse response = paymentRequestService.create(authentication.getName(), request);
+            return ResponseEntity.ok(ApiResponse.success("Payment request created successfully", response));
+        } catch (Exception e) {
+            logger.error("Failed to create payment request for {}: {}", authentication.getName(), e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error("Failed to create payment request: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Current state of one of the merchant's payment requests
+     * GET /api/qr/requests/{id}
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<ApiResponse<PaymentRequestResponse>> getPaymentRequest(
+            @PathVariable String id,
+            Authentication authentication) {
+        try {
+            PaymentRequestResponse response = paymentRequestService.get(authentication.getName(), id);
+            return ResponseEntity.ok(ApiResponse.success("Payment request retrieved successfully", response));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.gpay.controller;
+
+import com.example.gpay.dto.QRBulkRequest;
+import com.example.gpay.services.QRBulkService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/api/qr")
+@RequiredArgsConstructor
+@SecurityRequirement(name = "bearerAuth")
+@Tag(name = "QR", description = "QR code generation and payments")
+public class QRBulkController {
+
+    private static final Logger logger = LoggerFactory.getLogger(QRBulkController.class);
+
+    private static final MediaType ZIP = MediaType.valueOf("application/zip");
+
+    private final QRBulkService qrBulkService;
+
+    /**
+     * QR stickers for many users as one ZIP of PNG files
+     * POST /api/qr/bulk
+     */
+    @PostMapping("/bulk")
+    @Operation(summary = "Bulk QR generation",
+            description = "Render sticker QR codes for the given phone numbers and user ids and stream them as a ZIP; "
+                    + "the codes never expire unless validityDays is set")
+    public ResponseEntity<?> generateBulk(@RequestBody QRBulkRequest request) {
+        try {
+            qrBulkService.validate(request);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+
+        logger.info("Bulk QR generation requested for {} phone numbers and {} user ids",
+                request.getPhoneNumbers().size(), request.getUserIds().size());
+
+        StreamingResponseBody body = outputStream -> qrBulkService.writeZip(request, outputStream);
+
+        return ResponseEntity.ok()
+                .contentType(ZIP)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"qr-codes.zip\"")
+                .header("Cache-Control", "no-store")
+                .body(body);
+    }
+}
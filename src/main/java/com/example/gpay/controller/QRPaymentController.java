@@ -1,17 +1,25 @@
 package com.example.gpay.controller;
 
 import com.example.gpay.dto.*;
+import com.example.gpay.model.PaymentRequest;
 import com.example.gpay.model.Transaction;
+import com.example.gpay.services.PaymentRequestService;
 import com.example.gpay.services.QRCodeService;
 import com.example.gpay.services.TransferService;
+import com.example.gpay.utils.ETags;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
@@ -23,36 +31,46 @@ public class QRPaymentController {
 
     private static final Logger logger = LoggerFactory.getLogger(QRPaymentController.class);
 
+    private static final MediaType SVG = MediaType.valueOf("image/svg+xml");
+
     private final QRCodeService qrCodeService;
     private final TransferService transferService;
+    private final PaymentRequestService paymentRequestService;
+
+    @Value("${qr.image.max-age-seconds:300}")
+    private long imageMaxAgeSeconds;
 
     /**
      * Generate QR code for user
      * GET /api/qr/generate/{phoneNumber}
+     * Conditional on If-None-Match: an unchanged code is answered with 304 before the image is rendered
      */
     @GetMapping("/generate/{phoneNumber}")
-    public ResponseEntity<QRGenerationResponse> generateQRCode(@PathVariable String phoneNumber) {
+    public ResponseEntity<QRGenerationResponse> generateQRCode(
+            @PathVariable String phoneNumber,
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
         try {
             logger.info("Generating QR code for user: {}", phoneNumber);
 
-            String qrCodeImage = qrCodeService.generateUserQRCode(phoneNumber);
             var user = qrCodeService.getUserForQRDisplay(phoneNumber);
+            String etag = qrCodeService.getQRCodeETag(user);
+            if (ETags.matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
 
-            QRCodeData qrData = QRCodeData.builder()
-                    .type("gpay_transfer")
-                    .phone(user.getPhoneNumber())
-                    .name(user.getFirstName() + " " + user.getLastName())
-                    .version("1.0")
-                    .build();
+            QRCodeService.RenderedQRCode qrCode = qrCodeService.getUserQRCode(user);
 
             QRGenerationResponse response = QRGenerationResponse.builder()
-                    .qrCodeImage(qrCodeImage)
-                    .qrData(qrData)
+                    .qrCodeImage(qrCode.toDataUrl())
+                    .qrData(qrCode.getData())
                     .message("QR code generated successfully")
                     .success(true)
                     .build();
 
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok()
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache())
+                    .body(response);
 
         } catch (Exception e) {
             logger.error("Error generating QR code for user {}: {}", phoneNumber, e.getMessage());
@@ -66,13 +84,48 @@ public class QRPaymentController {
         }
     }
 
+    /**
+     * QR code as a binary image, PNG by default or SVG with format=svg
+     * GET /api/qr/image/{phoneNumber}
+     */
+    @GetMapping("/image/{phoneNumber}")
+    public ResponseEntity<byte[]> getQRCodeImage(
+            @PathVariable String phoneNumber,
+            @RequestParam(defaultValue = "png") String format,
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        boolean svg = "svg".equalsIgnoreCase(format);
+        if (!svg && !"png".equalsIgnoreCase(format)) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            var user = qrCodeService.getUserForQRDisplay(phoneNumber);
+            // Both formats encode the same content, the tag only has to tell them apart
+            String etag = ETags.of(qrCodeService.getQRCodeETag(user), svg ? "svg" : "png");
+            CacheControl cacheControl = CacheControl.maxAge(Duration.ofSeconds(imageMaxAgeSeconds)).cachePrivate();
+            if (ETags.matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+            }
+
+            QRCodeService.RenderedQRCode qrCode = qrCodeService.getUserQRCode(user);
+            return ResponseEntity.ok()
+                    .eTag(etag)
+                    .cacheControl(cacheControl)
+                    .contentType(svg ? SVG : MediaType.IMAGE_PNG)
+                    .body(svg ? qrCode.getSvg().getBytes(StandardCharsets.UTF_8) : qrCode.getPng());
+
+        } catch (Exception e) {
+            logger.error("Error generating QR image for user {}: {}", phoneNumber, e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+    }
+
     /**
      * Generate QR code using request body
      * POST /api/qr/generate
      */
     @PostMapping("/generate")
     public ResponseEntity<QRGenerationResponse> generateQRCode(@Valid @RequestBody QRGenerationRequest request) {
-        return generateQRCode(request.getPhoneNumber());
+        return generateQRCode(request.getPhoneNumber(), null);
     }
 
     /**
@@ -127,28 +180,61 @@ public class QRPaymentController {
             // Step 1: Parse QR code to get recipient information
             QRCodeData recipientInfo = qrCodeService.parseQRCode(request.getQrContent());
 
-            // Step 2: Validate recipient exists
+            // Step 2: Validate recipient exists (no lookup for signed codes)
             if (!qrCodeService.validateQRRecipient(recipientInfo)) {
                 throw new RuntimeException("Recipient not found in system: " + recipientInfo.getPhone());
             }
+            Double amount = request.getAmount() != null ? request.getAmount() : recipientInfo.getAmount();
+            if (amount == null) {
+                throw new RuntimeException("Amount is required");
+            }
+            if (recipientInfo.getAmount() != null && Math.abs(recipientInfo.getAmount() - amount) >= 0.005) {
+                throw new RuntimeException("Amount does not match the QR code: " + recipientInfo.getAmount());
+            }
 
             // Step 3: Create transfer request
             TransferRequest transferRequest = new TransferRequest();
+            transferRequest.setRecipientId(recipientInfo.getRecipientId());
             transferRequest.setRecipientPhoneNumber(recipientInfo.getPhone());
-            transferRequest.setAmount(request.getAmount());
+            transferRequest.setAmount(amount);
             transferRequest.setPin(request.getPin());
             transferRequest.setDescription(request.getDescription() != null ?
                     request.getDescription() :
-                    "QR Payment to " + recipientInfo.getName());
-
-            // Step 4: Process transfer using existing TransferService
-            Transaction transaction = transferService.processTransfer(senderPhoneNumber, transferRequest);
+                    recipientInfo.getName() != null ? "QR Payment to " + recipientInfo.getName() : "QR Payment");
+
+            // Step 4: Process transfer using existing TransferService; a payment request is
+            // claimed first so that it can only be paid once
+            PaymentRequest paymentRequest = recipientInfo.getPaymentToken() != null
+                    ? paymentRequestService.claim(recipientInfo.getPaymentToken(), recipientInfo.getRecipientId(),
+                            senderPhoneNumber)
+                    : null;
+            if (paymentRequest != null) {
+                transferRequest.setPaymentRequestId(paymentRequest.getId());
+            }
+            Transaction transaction;
+            try {
+                transaction = transferService.processTransfer(senderPhoneNumber, transferRequest);
+            } catch (RuntimeException e) {
+                if (paymentRequest != null) {
+                    paymentRequestService.release(paymentRequest);
+                }
+                throw e;
+            }
+            if (paymentRequest != null) {
+                try {
+                    paymentRequestService.complete(paymentRequest, transaction);
+                } catch (RuntimeException e) {
+                    // The money has moved; the sweeper finds the transaction by request id and completes it
+                    logger.warn("Payment request {} paid by {} but not yet marked paid, left for reconciliation: {}",
+                            paymentRequest.getId(), transaction.getReference(), e.getMessage());
+                }
+            }
 
             // Step 5: Build success response
             QRPaymentResponse response = QRPaymentResponse.builder()
                     .transactionReference(transaction.getReference())
                     .recipientInfo(recipientInfo)
-                    .amount(request.getAmount())
+                    .amount(amount)
                     .status(transaction.getStatus().toString())
                     .message("Payment processed successfully via QR code")
                     .success(true)
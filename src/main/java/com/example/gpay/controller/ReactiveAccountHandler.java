@@ -0,0 +1,226 @@
+package com.example.gpay.controller;
+
+import com.example.gpay.dto.ApiResponse;
+import com.example.gpay.dto.DepositRequest;
+import com.example.gpay.dto.TransferRequest;
+import com.example.gpay.dto.WithdrawalRequest;
+import com.example.gpay.model.Transaction;
+import com.example.gpay.security.TwilioSignatureVerifier;
+import com.example.gpay.services.NotificationLogWriter;
+import com.example.gpay.services.ReactiveAccountService;
+import com.example.gpay.services.TransactionService;
+import com.example.gpay.services.UserService;
+import com.example.gpay.utils.ETags;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.security.Principal;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Functional endpoints of the reactive profile, at the same paths and with the same response
+ * bodies as the MVC controllers they replace. Reads and status checks run end to end on
+ * reactive Mongo and WebClient; deposits, withdrawals and transfers still go through the
+ * blocking TransactionService and are moved to the blocking scheduler.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveAccountHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveAccountHandler.class);
+
+    private final ReactiveAccountService reactiveAccountService;
+    private final TransactionService transactionService;
+    private final NotificationLogWriter notificationLogWriter;
+    private final TwilioSignatureVerifier twilioSignatureVerifier;
+    private final Validator validator;
+    private final Scheduler blockingScheduler;
+
+    /**
+     * GET /api/user/profile, conditional on If-None-Match
+     */
+    public Mono<ServerResponse> getUserProfile(ServerRequest request) {
+        return authenticated(request, phoneNumber -> reactiveAccountService.findUser(phoneNumber)
+                .flatMap(user -> {
+                    String etag = UserService.profileETag(user);
+                    if (ETags.matches(request.headers().firstHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+                        return ServerResponse.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+                    }
+                    return ServerResponse.ok().eTag(etag).cacheControl(CacheControl.noCache().cachePrivate())
+                            .bodyValue(user);
+                })
+                .onErrorResume(e -> ServerResponse.badRequest().build()));
+    }
+
+    /**
+     * GET /api/user/balance
+     */
+    public Mono<ServerResponse> getUserBalance(ServerRequest request) {
+        return authenticated(request, phoneNumber -> reactiveAccountService.findUser(phoneNumber)
+                .flatMap(user -> ServerResponse.ok().bodyValue(user.getBalance()))
+                .onErrorResume(e -> ServerResponse.badRequest().build()));
+    }
+
+    /**
+     * GET /api/transactions/history, streamed as NDJSON when the client accepts it and
+     * conditional on If-None-Match
+     */
+    public Mono<ServerResponse> getTransactionHistory(ServerRequest request) {
+        return authenticated(request, phoneNumber -> {
+            logger.info("Transaction history request from user: {}", phoneNumber);
+            String ifNoneMatch = request.headers().firstHeader(HttpHeaders.IF_NONE_MATCH);
+            boolean ndjson = request.headers().accept().contains(MediaType.APPLICATION_NDJSON);
+            return reactiveAccountService.getHistoryETag(phoneNumber)
+                    .flatMap(etag -> {
+                        if (ETags.matches(ifNoneMatch, etag)) {
+                            return ServerResponse.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+                        }
+                        ServerResponse.BodyBuilder ok = ServerResponse.ok().eTag(etag)
+                                .cacheControl(CacheControl.noCache().cachePrivate());
+                        if (ndjson) {
+                            return ok.contentType(MediaType.APPLICATION_NDJSON)
+                                    .body(reactiveAccountService.getUserTransactions(phoneNumber), Transaction.class);
+                        }
+                        return reactiveAccountService.getUserTransactions(phoneNumber).collectList()
+                                .flatMap(transactions -> ok.bodyValue(
+                                        ApiResponse.success("Transaction history retrieved successfully", transactions)));
+                    })
+                    .onErrorResume(e -> {
+                        logger.error("Failed to get transaction history for user {}: {}", phoneNumber, e.getMessage());
+                        return error(HttpStatus.BAD_REQUEST, "Failed to get transaction history: " + e.getMessage());
+                    });
+        });
+    }
+
+    /**
+     * GET /api/transactions/status/{reference}
+     */
+    public Mono<ServerResponse> getTransactionStatus(ServerRequest request) {
+        String reference = request.pathVariable("reference");
+        logger.info("Transaction status request for reference: {}", reference);
+
+        return reactiveAccountService.updateTransactionStatus(reference)
+                .flatMap(transaction -> ServerResponse.ok().bodyValue(
+                        ApiResponse.success("Transaction status retrieved successfully", transaction)))
+                .onErrorResume(e -> {
+                    logger.error("Failed to get transaction status for reference {}: {}", reference, e.getMessage());
+                    if (e.getMessage() != null && e.getMessage().contains("not found")) {
+                        return error(HttpStatus.NOT_FOUND, "Transaction not found");
+                    }
+                    return error(HttpStatus.BAD_REQUEST, "Failed to get transaction status: " + e.getMessage());
+                });
+    }
+
+    /**
+     * POST /api/transactions/deposit
+     */
+    public Mono<ServerResponse> deposit(ServerRequest request) {
+        return authenticated(request, phoneNumber -> validBody(request, DepositRequest.class)
+                .flatMap(body -> Mono.defer(() -> transactionService.deposit(phoneNumber, body))
+                        .subscribeOn(blockingScheduler))
+                .flatMap(transaction -> ServerResponse.ok().bodyValue(
+                        ApiResponse.success("Deposit initiated successfully", transaction)))
+                .onErrorResume(e -> {
+                    logger.error("Deposit failed for user {}: {}", phoneNumber, e.getMessage());
+                    return error(HttpStatus.BAD_REQUEST, "Deposit failed: " + e.getMessage());
+                }));
+    }
+
+    /**
+     * POST /api/transactions/withdraw
+     */
+    public Mono<ServerResponse> withdraw(ServerRequest request) {
+        return authenticated(request, phoneNumber -> validBody(request, WithdrawalRequest.class)
+                .flatMap(body -> Mono.defer(() -> transactionService.withdraw(phoneNumber, body))
+                        .subscribeOn(blockingScheduler))
+                .flatMap(transaction -> ServerResponse.ok().bodyValue(
+                        ApiResponse.success("Withdrawal initiated successfully", transaction)))
+                .onErrorResume(e -> {
+                    logger.error("Withdrawal failed for user {}: {}", phoneNumber, e.getMessage());
+                    return error(HttpStatus.BAD_REQUEST, "Withdrawal failed: " + e.getMessage());
+                }));
+    }
+
+    /**
+     * POST /api/transactions/transfer
+     */
+    public Mono<ServerResponse> transfer(ServerRequest request) {
+        return authenticated(request, phoneNumber -> validBody(request, TransferRequest.class)
+                .flatMap(body -> Mono.fromCallable(() -> transactionService.transfer(phoneNumber, body))
+                        .subscribeOn(blockingScheduler))
+                .flatMap(transaction -> ServerResponse.ok().bodyValue(
+                        ApiResponse.success("Transfer completed successfully", transaction)))
+                .onErrorResume(e -> {
+                    logger.error("Transfer failed for user {}: {}", phoneNumber, e.getMessage());
+                    return error(HttpStatus.BAD_REQUEST, "Transfer failed: " + e.getMessage());
+                }));
+    }
+
+    /**
+     * POST /api/webhook/twilio/status; Twilio posts a form, which annotated WebFlux
+     * controllers do not bind to request parameters. Unsigned callbacks get 403.
+     */
+    public Mono<ServerResponse> handleTwilioStatus(ServerRequest request) {
+        String signature = request.headers().firstHeader(TwilioSignatureVerifier.SIGNATURE_HEADER);
+        return request.formData()
+                .flatMap(form -> {
+                    if (!twilioSignatureVerifier.isValid(request.uri().toString(), form.toSingleValueMap(), signature)) {
+                        logger.warn("Rejected Twilio status callback with missing or invalid signature");
+                        return ServerResponse.status(HttpStatus.FORBIDDEN).bodyValue("Invalid signature");
+                    }
+                    String messageSid = form.getFirst("MessageSid");
+                    String messageStatus = form.getFirst("MessageStatus");
+                    if (messageSid == null || messageStatus == null) {
+                        return ServerResponse.badRequest().bodyValue("Error processing status callback");
+                    }
+                    String errorCode = form.getFirst("ErrorCode");
+                    return Mono.fromCallable(() -> notificationLogWriter.updateDeliveryStatus(messageSid,
+                                    messageStatus.toUpperCase(), errorCode != null ? "Twilio error " + errorCode : null))
+                            .subscribeOn(blockingScheduler)
+                            .flatMap(updated -> ServerResponse.ok().bodyValue("Status processed successfully"));
+                })
+                .onErrorResume(e -> {
+                    logger.error("Error processing Twilio status callback", e);
+                    return ServerResponse.badRequest().bodyValue("Error processing status callback");
+                });
+    }
+
+    private Mono<ServerResponse> authenticated(ServerRequest request, Function<String, Mono<ServerResponse>> handler) {
+        return request.principal()
+                .map(Principal::getName)
+                .flatMap(handler)
+                .switchIfEmpty(Mono.defer(() -> ServerResponse.status(HttpStatus.UNAUTHORIZED).build()));
+    }
+
+    private <T> Mono<T> validBody(ServerRequest request, Class<T> type) {
+        return request.bodyToMono(type)
+                .switchIfEmpty(Mono.error(new RuntimeException("Request body is required")))
+                .flatMap(body -> {
+                    Set<ConstraintViolation<T>> violations = validator.validate(body);
+                    if (!violations.isEmpty()) {
+                        ConstraintViolation<T> violation = violations.iterator().next();
+                        return Mono.error(new RuntimeException(violation.getPropertyPath() + " " + violation.getMessage()));
+                    }
+                    return Mono.just(body);
+                });
+    }
+
+    private static Mono<ServerResponse> error(HttpStatus status, String message) {
+        return ServerResponse.status(status).bodyValue(ApiResponse.error(message));
+    }
+}
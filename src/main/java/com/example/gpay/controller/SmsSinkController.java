@@ -0,0 +1,51 @@
+package com.example.gpay.controller;
+
+import com.example.gpay.dto.ApiResponse;
+import com.example.gpay.model.NotificationPriority;
+import com.example.gpay.services.EmbeddedSmsGateway;
+import com.example.gpay.services.NotificationDispatcher;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Inspection endpoints for the embedded SMS sink, only present with the sms-sink profile
+ */
+@RestController
+@RequestMapping("/api/dev/sms-sink")
+@Profile("sms-sink")
+@RequiredArgsConstructor
+public class SmsSinkController {
+
+    private final EmbeddedSmsGateway smsSink;
+    private final NotificationDispatcher notificationDispatcher;
+
+    @GetMapping("/messages")
+    public ResponseEntity<ApiResponse<List<EmbeddedSmsGateway.SinkMessage>>> getMessages(
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(ApiResponse.success(smsSink.getDelivered(limit)));
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("delivered", smsSink.getDeliveredCount());
+        stats.put("failed", smsSink.getFailedCount());
+        stats.put("throttled", smsSink.getThrottledCount());
+        Map<NotificationPriority, Integer> depths = notificationDispatcher.getQueueDepths();
+        stats.put("queueDepths", depths);
+        stats.put("deferred", notificationDispatcher.getDeferredCount());
+        return ResponseEntity.ok(ApiResponse.success(stats));
+    }
+
+    @DeleteMapping("/messages")
+    public ResponseEntity<ApiResponse<String>> reset() {
+        smsSink.reset();
+        return ResponseEntity.ok(ApiResponse.success("SMS sink cleared", null));
+    }
+}
@@ -5,13 +5,21 @@ import com.example.gpay.dto.DepositRequest;
 import com.example.gpay.dto.TransferRequest;
 import com.example.gpay.dto.WithdrawalRequest;
 import com.example.gpay.model.Transaction;
+import com.example.gpay.model.User;
+import com.example.gpay.services.EventStreamService;
 import com.example.gpay.services.TransactionService;
+import com.example.gpay.services.UserService;
+import com.example.gpay.utils.ETags;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import reactor.core.publisher.Mono;
 import jakarta.validation.Valid;
 import java.util.List;
@@ -19,6 +27,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/transactions")
 @CrossOrigin(origins = "*")
 @SecurityRequirement(name = "bearerAuth")
@@ -29,6 +38,12 @@ public class TransactionController {
     @Autowired
     private TransactionService transactionService;
 
+    @Autowired
+    private EventStreamService eventStreamService;
+
+    @Autowired
+    private UserService userService;
+
     @PostMapping("/deposit")
     public Mono<ResponseEntity<ApiResponse<Transaction>>> deposit(
             @Valid @RequestBody DepositRequest request,
@@ -94,14 +109,23 @@ public class TransactionController {
 
     @GetMapping("/history")
     public ResponseEntity<ApiResponse<List<Transaction>>> getTransactionHistory(
-            Authentication authentication) {
+            Authentication authentication,
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
 
         String phoneNumber = authentication.getName();
         logger.info("Transaction history request from user: {}", phoneNumber);
 
         try {
+            // Checked before the list is loaded, so a revalidation costs one grouped query
+            String etag = transactionService.getHistoryETag(phoneNumber);
+            if (ETags.matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
             List<Transaction> transactions = transactionService.getUserTransactions(phoneNumber);
-            return ResponseEntity.ok(ApiResponse.success("Transaction history retrieved successfully", transactions));
+            return ResponseEntity.ok()
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .body(ApiResponse.success("Transaction history retrieved successfully", transactions));
         } catch (Exception e) {
             logger.error("Failed to get transaction history for user {}: {}", phoneNumber, e.getMessage());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
@@ -128,4 +152,25 @@ public class TransactionController {
                     .body(ApiResponse.error("Failed to get transaction status: " + e.getMessage()));
         }
     }
+
+    /**
+     * Live stream of the authenticated user's transaction status changes and balance updates
+     * GET /api/transactions/stream
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamEvents(Authentication authentication) {
+        String phoneNumber = authentication.getName();
+        logger.info("Event stream request from user: {}", phoneNumber);
+
+        User user = userService.findByPhoneNumber(phoneNumber).orElse(null);
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+
+        SseEmitter emitter = eventStreamService.subscribe(user.getId());
+        eventStreamService.publishBalance(user);
+        return ResponseEntity.ok()
+                .header("X-Accel-Buffering", "no")
+                .body(emitter);
+    }
 }
\ No newline at end of file
@@ -2,7 +2,10 @@ package com.example.gpay.controller;
 
 import com.example.gpay.model.User;
 import com.example.gpay.services.UserService;
+import com.example.gpay.utils.ETags;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
@@ -15,13 +18,24 @@ public class UserController {
 
     private final UserService userService;
 
+    /**
+     * Conditional on If-None-Match: an unchanged profile is answered with 304 and no body
+     */
     @GetMapping("/profile")
-    public ResponseEntity<User> getUserProfile(Authentication authentication) {
+    public ResponseEntity<User> getUserProfile(Authentication authentication,
+                                               @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
         try {
             String phoneNumber = authentication.getName();
             User user = userService.findByPhoneNumber(phoneNumber)
                     .orElseThrow(() -> new RuntimeException("User not found"));
-            return ResponseEntity.ok(user);
+            String etag = UserService.profileETag(user);
+            if (ETags.matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+            return ResponseEntity.ok()
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .body(user);
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
@@ -38,4 +52,16 @@ public class UserController {
             return ResponseEntity.badRequest().build();
         }
     }
+
+    @PutMapping("/language")
+    public ResponseEntity<User> updateLanguage(@RequestParam String language, Authentication authentication) {
+        try {
+            String phoneNumber = authentication.getName();
+            User user = userService.findByPhoneNumber(phoneNumber)
+                    .orElseThrow(() -> new RuntimeException("User not found"));
+            return ResponseEntity.ok(userService.updateLanguage(user.getId(), language));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
 }
@@ -1,12 +1,17 @@
 package com.example.gpay.controller;
 
+import com.example.gpay.security.TwilioSignatureVerifier;
+import com.example.gpay.services.NotificationLogWriter;
 import com.example.gpay.services.TransactionService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import java.util.HashMap;
 import java.util.Map;
 
 @RestController
@@ -19,6 +24,10 @@ public class WebhookController {
 
     private final TransactionService transactionService;
 
+    private final NotificationLogWriter notificationLogWriter;
+
+    private final TwilioSignatureVerifier twilioSignatureVerifier;
+
     @PostMapping("/campay")
     public ResponseEntity<String> handleCampayWebhook(@RequestBody Map<String, Object> payload) {
         try {
@@ -37,4 +46,43 @@ public class WebhookController {
             return ResponseEntity.badRequest().body("Error processing webhook");
         }
     }
+
+    /**
+     * Twilio SMS delivery status callback
+     * POST /api/webhook/twilio/status
+     */
+    @PostMapping("/twilio/status")
+    public ResponseEntity<String> handleTwilioStatus(@RequestParam("MessageSid") String messageSid,
+                                                     @RequestParam("MessageStatus") String messageStatus,
+                                                     @RequestParam(value = "ErrorCode", required = false) String errorCode,
+                                                     @RequestHeader(value = TwilioSignatureVerifier.SIGNATURE_HEADER, required = false) String signature,
+                                                     HttpServletRequest request) {
+        Map<String, String> params = new HashMap<>();
+        request.getParameterMap().forEach((name, values) -> params.put(name, values[0]));
+        String url = request.getQueryString() == null
+                ? request.getRequestURL().toString()
+                : request.getRequestURL() + "?" + request.getQueryString();
+        if (!twilioSignatureVerifier.isValid(url, params, signature)) {
+            logger.warn("Rejected Twilio status callback with missing or invalid signature for message {}", messageSid);
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Invalid signature");
+        }
+
+        try {
+            logger.debug("Received Twilio status {} for message {}", messageStatus, messageSid);
+
+            boolean updated = notificationLogWriter.updateDeliveryStatus(
+                    messageSid,
+                    messageStatus.toUpperCase(),
+                    errorCode != null ? "Twilio error " + errorCode : null);
+
+            if (!updated) {
+                logger.debug("Status of message {} stored ahead of its notification record", messageSid);
+            }
+
+            return ResponseEntity.ok("Status processed successfully");
+        } catch (Exception e) {
+            logger.error("Error processing Twilio status callback", e);
+            return ResponseEntity.badRequest().body("Error processing status callback");
+        }
+    }
 }
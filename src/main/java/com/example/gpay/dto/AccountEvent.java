@@ -0,0 +1,57 @@
+package com.example.gpay.dto;
+
+import com.example.gpay.model.Transaction;
+import com.example.gpay.model.TransactionStatus;
+import com.example.gpay.model.TransactionType;
+import com.example.gpay.model.User;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Event pushed to a user's live stream when a transaction or balance changes
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AccountEvent {
+
+    public static final String TRANSACTION_UPDATED = "TRANSACTION_UPDATED";
+    public static final String BALANCE_UPDATED = "BALANCE_UPDATED";
+
+    private String type;
+    private String userId;
+    private String reference;
+    private TransactionType transactionType;
+    private TransactionStatus status;
+    private Double amount;
+    private Double balance;
+    private LocalDateTime timestamp;
+
+    public static AccountEvent transactionUpdated(String userId, Transaction transaction) {
+        return AccountEvent.builder()
+                .type(TRANSACTION_UPDATED)
+                .userId(userId)
+                .reference(transaction.getReference())
+                .transactionType(transaction.getType())
+                .status(transaction.getStatus())
+                .amount(transaction.getAmount())
+                .timestamp(transaction.getUpdatedAt() != null ? transaction.getUpdatedAt() : LocalDateTime.now())
+                .build();
+    }
+
+    public static AccountEvent balanceUpdated(User user) {
+        return AccountEvent.builder()
+                .type(BALANCE_UPDATED)
+                .userId(user.getId())
+                .balance(user.getBalance())
+                .timestamp(user.getUpdatedAt() != null ? user.getUpdatedAt() : LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.gpay.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A new merchant API key; the PIN is asked again because the key can move money without it
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ApiKeyCreateRequest {
+
+    @Size(max = 100, message = "Name must be at most 100 characters")
+    private String name;
+
+    @NotBlank(message = "PIN is required")
+    @Size(min = 4, max = 6, message = "PIN must be between 4 and 6 digits")
+    private String pin;
+}
@@ -5,6 +5,7 @@ import com.example.gpay.model.User;
 
 public class AuthResponse {
     private String token;
+    private String refreshToken;
     private User user;
 
     public AuthResponse(String token, User user) {
@@ -12,9 +13,18 @@ public class AuthResponse {
         this.user = user;
     }
 
+    public AuthResponse(String token, String refreshToken, User user) {
+        this.token = token;
+        this.refreshToken = refreshToken;
+        this.user = user;
+    }
+
     public String getToken() { return token; }
     public void setToken(String token) { this.token = token; }
 
+    public String getRefreshToken() { return refreshToken; }
+    public void setRefreshToken(String refreshToken) { this.refreshToken = refreshToken; }
+
     public User getUser() { return user; }
     public void setUser(User user) { this.user = user; }
 }
\ No newline at end of file
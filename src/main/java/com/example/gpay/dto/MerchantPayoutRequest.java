@@ -0,0 +1,40 @@
+package com.example.gpay.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+
+/**
+ * Transfer from a merchant to a customer; the signed request replaces the PIN
+ */
+public class MerchantPayoutRequest {
+    @NotNull(message = "Amount is required")
+    @DecimalMin(value = "1.0", message = "Minimum transfer amount is 100 XAF")
+    private Double amount;
+
+    @NotBlank(message = "Recipient phone number is required")
+    @Pattern(regexp = "^\\+237[0-9]{9}$", message = "Phone number must be in format +237XXXXXXXXX")
+    private String recipientPhoneNumber;
+
+    private String description;
+
+    public MerchantPayoutRequest() {}
+
+    public Double getAmount() { return amount; }
+    public void setAmount(Double amount) { this.amount = amount; }
+
+    public String getRecipientPhoneNumber() { return recipientPhoneNumber; }
+    public void setRecipientPhoneNumber(String recipientPhoneNumber) { this.recipientPhoneNumber = recipientPhoneNumber; }
+
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+
+    public TransferRequest toTransferRequest() {
+        TransferRequest request = new TransferRequest();
+        request.setAmount(amount);
+        request.setRecipientPhoneNumber(recipientPhoneNumber);
+        request.setDescription(description);
+        return request;
+    }
+}
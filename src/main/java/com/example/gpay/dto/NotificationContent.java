@@ -0,0 +1,94 @@
+package com.example.gpay.dto;
+
+/**
+ * Unrendered notification: a template key plus its arguments, or a literal message.
+ * Rendering is deferred until the recipient's language is known and the notification
+ * leaves the coalescing window, keeping formatting off the request thread.
+ */
+public class NotificationContent {
+
+    private final String type;
+    private final String templateKey;
+    private final String compactTemplateKey;
+    private final Object[] args;
+    private final String literal;
+    private final int[] secretArgs;
+
+    private NotificationContent(String type, String templateKey, String compactTemplateKey,
+                                Object[] args, String literal, int[] secretArgs) {
+        this.type = type;
+        this.templateKey = templateKey;
+        this.compactTemplateKey = compactTemplateKey;
+        this.args = args;
+        this.literal = literal;
+        this.secretArgs = secretArgs;
+    }
+
+    public static NotificationContent template(String type, String templateKey, Object... args) {
+        return new NotificationContent(type, templateKey, null, args, null, null);
+    }
+
+    /**
+     * Template carrying secrets (codes, PINs) at the given argument positions.
+     * The rendered text is sent but never persisted, see {@link #toLogString()}.
+     */
+    public static NotificationContent secretTemplate(String type, String templateKey, int[] secretArgs,
+                                                     Object... args) {
+        return new NotificationContent(type, templateKey, null, args, null, secretArgs);
+    }
+
+    /**
+     * Template with a shorter variant used when merged with other notifications
+     */
+    public static NotificationContent template(String type, String templateKey, String compactTemplateKey,
+                                               Object... args) {
+        return new NotificationContent(type, templateKey, compactTemplateKey, args, null, null);
+    }
+
+    public static NotificationContent literal(String type, String message) {
+        return new NotificationContent(type, null, null, new Object[0], message, null);
+    }
+
+    public String getType() { return type; }
+
+    public String getTemplateKey() { return templateKey; }
+
+    public String getCompactTemplateKey() { return compactTemplateKey; }
+
+    public Object[] getArgs() { return args; }
+
+    public String getLiteral() { return literal; }
+
+    public boolean isLiteral() { return literal != null; }
+
+    public boolean isSecret() { return secretArgs != null; }
+
+    /**
+     * Form stored in the notification log: the template key and its arguments with the
+     * secret ones masked, e.g. {@code otp(***, 5)}
+     */
+    public String toLogString() {
+        if (isLiteral()) {
+            return literal;
+        }
+        StringBuilder log = new StringBuilder(templateKey).append('(');
+        for (int i = 0; i < args.length; i++) {
+            if (i > 0) {
+                log.append(", ");
+            }
+            log.append(isSecretArg(i) ? "***" : String.valueOf(args[i]));
+        }
+        return log.append(')').toString();
+    }
+
+    private boolean isSecretArg(int index) {
+        if (secretArgs != null) {
+            for (int secret : secretArgs) {
+                if (secret == index) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.gpay.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentRequestCreateRequest {
+
+    @NotNull(message = "Amount is required")
+    @Positive(message = "Amount must be positive")
+    private Double amount;
+
+    @Size(max = 140, message = "Description must be at most 140 characters")
+    private String description;
+
+    // Defaults to payment-requests.default-ttl-seconds
+    @Positive(message = "Expiry must be positive")
+    private Long expiresInSeconds;
+}
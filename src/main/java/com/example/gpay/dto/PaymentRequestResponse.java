@@ -0,0 +1,46 @@
+package com.example.gpay.dto;
+
+import com.example.gpay.model.PaymentRequest;
+import com.example.gpay.model.PaymentRequestStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A payment request as shown to the merchant; the QR fields are only set when it is created
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PaymentRequestResponse {
+
+    private String id;
+    private Double amount;
+    private String description;
+    private PaymentRequestStatus status;
+    private LocalDateTime expiresAt;
+    private LocalDateTime paidAt;
+    private String payerPhoneNumber;
+    private String transactionReference;
+    private String qrContent;
+    private String qrCodeImage; // Base64 encoded image
+
+    public static PaymentRequestResponse from(PaymentRequest request) {
+        return PaymentRequestResponse.builder()
+                .id(request.getId())
+                .amount(request.getAmount())
+                .description(request.getDescription())
+                .status(request.getStatus())
+                .expiresAt(request.getExpiresAt())
+                .paidAt(request.getPaidAt())
+                .payerPhoneNumber(request.getPayerPhoneNumber())
+                .transactionReference(request.getTransactionReference())
+                .build();
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.gpay.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Users to print QR stickers for, by phone number, by user id or both
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QRBulkRequest {
+
+    private List<String> phoneNumbers = new ArrayList<>();
+
+    private List<String> userIds = new ArrayList<>();
+
+    // Days the printed codes stay valid, null or 0 for static codes that never expire
+    private Integer validityDays;
+}
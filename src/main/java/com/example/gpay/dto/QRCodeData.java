@@ -6,6 +6,8 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 
@@ -33,4 +35,19 @@ public class QRCodeData {
 
     @JsonProperty("version")
     private String version;
+
+    // Set only for signed codes, whose phone and name are not part of the payload
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String recipientId;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double amount;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long expiresAt;
+
+    // One-time payment request token, only read back from the signed payload
+    @JsonIgnore
+    private String paymentToken;
 }
\ No newline at end of file
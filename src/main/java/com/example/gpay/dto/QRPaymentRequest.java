@@ -1,7 +1,6 @@
 package com.example.gpay.dto;
 
 import jakarta.validation.constraints.NotBlank;
-import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
@@ -16,7 +15,7 @@ public class QRPaymentRequest {
     @NotBlank(message = "QR content is required")
     private String qrContent;
 
-    @NotNull(message = "Amount is required")
+    // Optional when the QR code is a payment request, which carries its amount
     @Positive(message = "Amount must be positive")
     private Double amount;
 
@@ -0,0 +1,13 @@
+package com.example.gpay.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+public class RefreshTokenRequest {
+    @NotBlank(message = "Refresh token is required")
+    private String refreshToken;
+
+    public RefreshTokenRequest() {}
+
+    public String getRefreshToken() { return refreshToken; }
+    public void setRefreshToken(String refreshToken) { this.refreshToken = refreshToken; }
+}
@@ -23,6 +23,9 @@ public class RegisterRequest {
     @NotBlank(message = "PIN is required")
     private String pin;
 
+    @Pattern(regexp = "^[a-z]{2}$", message = "Language must be a two-letter code")
+    private String language;
+
     public RegisterRequest() {}
 
     // Getters and Setters
@@ -43,4 +46,7 @@ public class RegisterRequest {
 
     public String getPin() { return pin; }
     public void setPin(String pin) { this.pin = pin; }
+
+    public String getLanguage() { return language; }
+    public void setLanguage(String language) { this.language = language; }
 }
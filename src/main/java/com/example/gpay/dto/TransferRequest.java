@@ -1,5 +1,6 @@
 package com.example.gpay.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -20,6 +21,14 @@ public class TransferRequest {
 
     private String description;
 
+    // Set internally from a verified signed QR code, which identifies the recipient by id
+    @JsonIgnore
+    private String recipientId;
+
+    // Set internally for a claimed payment request, recorded on the transaction it creates
+    @JsonIgnore
+    private String paymentRequestId;
+
     // Constructors
     public TransferRequest() {}
 
@@ -35,4 +44,10 @@ public class TransferRequest {
 
     public String getDescription() { return description; }
     public void setDescription(String description) { this.description = description; }
+
+    public String getRecipientId() { return recipientId; }
+    public void setRecipientId(String recipientId) { this.recipientId = recipientId; }
+
+    public String getPaymentRequestId() { return paymentRequestId; }
+    public void setPaymentRequestId(String paymentRequestId) { this.paymentRequestId = paymentRequestId; }
 }
\ No newline at end of file
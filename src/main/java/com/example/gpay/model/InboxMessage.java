@@ -0,0 +1,36 @@
+package com.example.gpay.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Notification delivered to the in-app inbox
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "inbox")
+public class InboxMessage {
+
+    @Id
+    private String id;
+
+    private String userId;
+
+    private String type;
+
+    private String message;
+
+    private boolean read;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime readAt;
+}
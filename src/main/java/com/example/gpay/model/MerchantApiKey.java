@@ -0,0 +1,45 @@
+package com.example.gpay.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * API key a merchant's servers use to sign requests.
+ * The signing secret itself is never stored, only its SHA-256 fingerprint.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "merchant_api_keys")
+public class MerchantApiKey {
+
+    public static final String STATUS_ACTIVE = "ACTIVE";
+    public static final String STATUS_REVOKED = "REVOKED";
+
+    // Public key id sent in the X-Api-Key header
+    @Id
+    private String keyId;
+
+    private String userId;
+
+    private String phoneNumber;
+
+    private String name;
+
+    @JsonIgnore
+    private String secretHash;
+
+    private String status;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime revokedAt;
+}
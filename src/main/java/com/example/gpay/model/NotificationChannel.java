@@ -0,0 +1,30 @@
+package com.example.gpay.model;
+
+import java.util.List;
+
+/**
+ * Where a notification is delivered
+ */
+public enum NotificationChannel {
+    SMS,
+    // Stored in the in-app inbox only
+    INBOX,
+    // Stored in the inbox and pushed to open event streams
+    PUSH;
+
+    /**
+     * Event types a user can choose a channel for
+     */
+    public static final List<String> EVENT_TYPES = List.of(
+            "DEPOSIT_COMPLETED", "DEPOSIT_PENDING", "DEPOSIT_FAILED",
+            "WITHDRAWAL_COMPLETED", "WITHDRAWAL_PENDING", "WITHDRAWAL_FAILED",
+            "TRANSFER_SENT", "TRANSFER_RECEIVED", "BALANCE_UPDATE",
+            "LOW_BALANCE", "TRANSACTION_FAILED");
+
+    /**
+     * OTPs and critical alerts always go by SMS, whatever the user prefers
+     */
+    public static boolean isSmsOnly(NotificationPriority priority) {
+        return priority == NotificationPriority.OTP || priority == NotificationPriority.CRITICAL;
+    }
+}
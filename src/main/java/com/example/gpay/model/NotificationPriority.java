@@ -0,0 +1,27 @@
+package com.example.gpay.model;
+
+/**
+ * Dispatch lanes for outgoing notifications, highest priority first
+ */
+public enum NotificationPriority {
+    OTP,
+    CRITICAL,
+    TRANSACTION,
+    BALANCE;
+
+    public static NotificationPriority forType(String type) {
+        if (type == null) {
+            return TRANSACTION;
+        }
+        if ("OTP".equals(type)) {
+            return OTP;
+        }
+        if ("BALANCE_UPDATE".equals(type)) {
+            return BALANCE;
+        }
+        if (type.endsWith("FAILED") || "LOW_BALANCE".equals(type)) {
+            return CRITICAL;
+        }
+        return TRANSACTION;
+    }
+}
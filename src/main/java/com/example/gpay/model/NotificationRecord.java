@@ -0,0 +1,47 @@
+package com.example.gpay.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Delivery history of a single outgoing notification
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "notifications")
+public class NotificationRecord {
+
+    public static final String STATUS_SENT = "SENT";
+    public static final String STATUS_FAILED = "FAILED";
+    public static final String STATUS_NOT_SENT = "NOT_SENT";
+
+    // Assigned up front so records can be written in batches without a round trip per insert
+    @Id
+    @Builder.Default
+    private String id = new ObjectId().toHexString();
+
+    private String phoneNumber;
+
+    private String message;
+
+    private String type;
+
+    private String status;
+
+    private String providerMessageId;
+
+    private String errorMessage;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+}
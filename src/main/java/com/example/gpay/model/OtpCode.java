@@ -0,0 +1,34 @@
+package com.example.gpay.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Pending one-time password shared by all application nodes.
+ * Only a hash of the code is stored; MongoDB removes the document once expiresAt passes.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "otps")
+public class OtpCode {
+
+    // One pending code per phone number
+    @Id
+    private String phoneNumber;
+
+    private String codeHash;
+
+    private int attempts;
+
+    private LocalDateTime expiresAt;
+
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,50 @@
+package com.example.gpay.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Amount a merchant asks to be paid through a one-time QR code.
+ * Only a hash of the token in the code is stored. MongoDB removes the document at purgeAt,
+ * which is a retention period after it was paid or after it expired unpaid.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "payment_requests")
+public class PaymentRequest {
+
+    @Id
+    private String id;
+
+    private String merchantId;
+
+    private Double amount;
+
+    private String description;
+
+    private String tokenHash;
+
+    private PaymentRequestStatus status;
+
+    private String payerPhoneNumber;
+
+    private String transactionReference;
+
+    private LocalDateTime claimedAt;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime expiresAt;
+
+    private LocalDateTime paidAt;
+
+    private LocalDateTime purgeAt;
+}
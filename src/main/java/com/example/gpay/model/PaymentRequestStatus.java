@@ -0,0 +1,7 @@
+package com.example.gpay.model;
+
+public enum PaymentRequestStatus {
+    PENDING,
+    PROCESSING,
+    PAID
+}
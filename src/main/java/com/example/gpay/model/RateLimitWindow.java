@@ -0,0 +1,30 @@
+package com.example.gpay.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Request count for one caller in one fixed window, shared by all application nodes.
+ * MongoDB removes the document once expiresAt passes.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "rate_limits")
+public class RateLimitWindow {
+
+    // bucket|key|window index
+    @Id
+    private String id;
+
+    private long count;
+
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,47 @@
+package com.example.gpay.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Refresh token, stored by the SHA-256 hash of its value.
+ * Every rotation issues a new token in the same family; rotated tokens are kept until they
+ * expire so that replaying one can be detected and the whole family revoked.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "refresh_tokens")
+public class RefreshToken {
+
+    public static final String STATUS_ACTIVE = "ACTIVE";
+    public static final String STATUS_ROTATED = "ROTATED";
+    public static final String STATUS_REVOKED = "REVOKED";
+
+    @Id
+    private String tokenHash;
+
+    private String familyId;
+
+    private String userId;
+
+    private String phoneNumber;
+
+    private String status;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime rotatedAt;
+
+    private LocalDateTime expiresAt;
+
+    // Absolute end of the login session, rotations never extend past it
+    private LocalDateTime familyExpiresAt;
+}
@@ -0,0 +1,37 @@
+package com.example.gpay.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Revoked access token (keyed by its jti) or, with a notBefore, every token of a subject
+ * issued before that instant. Entries disappear once the tokens they cover have expired.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "revoked_tokens")
+public class RevokedToken {
+
+    public static final String SUBJECT_PREFIX = "sub:";
+
+    @Id
+    private String id;
+
+    private String subject;
+
+    private String reason;
+
+    private LocalDateTime notBefore;
+
+    private LocalDateTime revokedAt;
+
+    private LocalDateTime expiresAt;
+}
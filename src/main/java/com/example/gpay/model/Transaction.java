@@ -51,6 +51,9 @@ public class Transaction {
     @Field("provider")
     private MobileMoneyProvider provider;
 
+    @Field("payment_request_id")
+    private String paymentRequestId;  // Merchant payment request this transfer pays, if any
+
     @Field("created_at")
     private LocalDateTime createdAt;
 
@@ -97,6 +100,7 @@ public class Transaction {
                 ", reference='" + reference + '\'' +
                 ", externalReference='" + externalReference + '\'' +
                 ", provider=" + provider +
+                ", paymentRequestId='" + paymentRequestId + '\'' +
                 ", recipientPhoneNumber='" + recipientPhoneNumber + '\'' +
                 ", createdAt=" + createdAt +
                 ", updatedAt=" + updatedAt +
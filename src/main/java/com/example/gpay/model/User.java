@@ -10,6 +10,8 @@ import jakarta.validation.constraints.Pattern;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
 
 @Document(collection = "users")
 public class User {
@@ -27,6 +29,11 @@ public class User {
     @Indexed(unique = true)
     private String phoneNumber;
 
+    // E.164 digits of phoneNumber as a number (PhoneNumberUtils.parseKey), kept in sync on every save
+    @JsonIgnore
+    @Indexed(unique = true, sparse = true)
+    private Long phoneKey;
+
     @JsonIgnore
     private String password;
 
@@ -44,6 +51,11 @@ public class User {
 
     private List<String> roles = new ArrayList<>();
 
+    private String language = "en";
+
+    // Event type (e.g. TRANSFER_RECEIVED) to delivery channel; missing types use the configured default
+    private Map<String, NotificationChannel> notificationChannels = new HashMap<>();
+
 
     // Constructors
     public User() {}
@@ -73,6 +85,9 @@ public class User {
     public String getPhoneNumber() { return phoneNumber; }
     public void setPhoneNumber(String phoneNumber) { this.phoneNumber = phoneNumber; }
 
+    public Long getPhoneKey() { return phoneKey; }
+    public void setPhoneKey(Long phoneKey) { this.phoneKey = phoneKey; }
+
     public String getPassword() { return password; }
     public void setPassword(String password) { this.password = password; }
 
@@ -96,6 +111,12 @@ public class User {
 
     public List<String> getRoles() { return roles; }
     public void setRoles(List<String> roles) { this.roles = roles; }
+
+    public String getLanguage() { return language; }
+    public void setLanguage(String language) { this.language = language; }
+
+    public Map<String, NotificationChannel> getNotificationChannels() { return notificationChannels; }
+    public void setNotificationChannels(Map<String, NotificationChannel> notificationChannels) { this.notificationChannels = notificationChannels; }
 }
 
 
@@ -0,0 +1,14 @@
+package com.example.gpay.repository;
+
+import com.example.gpay.model.InboxMessage;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface InboxRepository extends MongoRepository<InboxMessage, String> {
+    List<InboxMessage> findByUserIdOrderByCreatedAtDesc(String userId, Pageable pageable);
+    long countByUserIdAndReadFalse(String userId);
+}
@@ -0,0 +1,15 @@
+package com.example.gpay.repository;
+
+import com.example.gpay.model.NotificationRecord;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface NotificationRepository extends MongoRepository<NotificationRecord, String> {
+    List<NotificationRecord> findByPhoneNumberOrderByCreatedAtDesc(String phoneNumber);
+    List<NotificationRecord> findByStatusOrderByCreatedAtAsc(String status);
+    Optional<NotificationRecord> findByProviderMessageId(String providerMessageId);
+}
@@ -87,6 +87,7 @@ import com.example.gpay.model.User;
 import com.example.gpay.services.UserService;
 import com.example.gpay.services.NotificationService;
 import com.example.gpay.utils.PhoneNumberUtils;
+import io.jsonwebtoken.JwtException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -111,6 +112,8 @@ public class AuthService {
     private final UserDetailsService userDetailsService;
     private final PhoneNumberUtils phoneNumberUtils;
     private final NotificationService notificationService;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationService tokenRevocationService;
 
     public AuthResponse register(RegisterRequest request) {
         try {
@@ -120,7 +123,7 @@ public class AuthService {
             UserDetails userDetails = userDetailsService.loadUserByUsername(user.getPhoneNumber());
             String token = jwtService.generateToken(userDetails);
 
-            return new AuthResponse(token, user);
+            return new AuthResponse(token, refreshTokenService.issue(user), user);
         } catch (RuntimeException e) {
             // Re-throw runtime exceptions (like duplicate phone/email)
             throw e;
@@ -153,7 +156,7 @@ public class AuthService {
             UserDetails userDetails = userDetailsService.loadUserByUsername(user.getPhoneNumber());
             String token = jwtService.generateToken(userDetails);
 
-            return new AuthResponse(token, user);
+            return new AuthResponse(token, refreshTokenService.issue(user), user);
         } catch (BadCredentialsException e) {
             throw new RuntimeException("Invalid phone number or password");
         } catch (AuthenticationException e) {
@@ -163,6 +166,43 @@ public class AuthService {
         }
     }
 
+    /**
+     * Exchange a refresh token for a new access token and a rotated refresh token
+     */
+    public AuthResponse refresh(String refreshToken) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(refreshToken);
+
+        User user = userService.findById(rotation.userId())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        if (!Boolean.TRUE.equals(user.getIsActive())) {
+            refreshTokenService.revokeAll(user.getId());
+            throw new RuntimeException("Account is disabled");
+        }
+
+        // No password check: possession of the single-use refresh token is the proof
+        UserDetails userDetails = userDetailsService.loadUserByUsername(user.getPhoneNumber());
+        String token = jwtService.generateToken(userDetails);
+
+        return new AuthResponse(token, rotation.refreshToken(), user);
+    }
+
+    /**
+     * Revoke the access token until it expires and end the refresh token's session
+     */
+    public void logout(String accessToken, String refreshToken) {
+        if (accessToken != null) {
+            try {
+                tokenRevocationService.revokeToken(jwtService.parseToken(accessToken), "logout");
+            } catch (JwtException | IllegalArgumentException e) {
+                // Already expired or invalid, nothing left to revoke
+                logger.debug("Logout with unusable access token: {}", e.getMessage());
+            }
+        }
+        if (refreshToken != null) {
+            refreshTokenService.revoke(refreshToken);
+        }
+    }
+
     /**
      * Step 1: Request OTP for login
      */
@@ -221,7 +261,7 @@ public class AuthService {
 
             logger.info("User {} logged in successfully with OTP", user.getPhoneNumber());
 
-            return new AuthResponse(token, user);
+            return new AuthResponse(token, refreshTokenService.issue(user), user);
 
         } catch (RuntimeException e) {
             throw e;
@@ -261,7 +301,7 @@ public class AuthService {
 
             logger.info("User {} authenticated successfully with password and OTP", user.getPhoneNumber());
 
-            return new AuthResponse(token, user);
+            return new AuthResponse(token, refreshTokenService.issue(user), user);
 
         } catch (RuntimeException e) {
             throw e;
@@ -0,0 +1,124 @@
+package com.example.gpay.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Password hashing and password login, shared by the servlet and reactive security setups
+ */
+@Configuration
+public class AuthenticationConfig {
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Value("${security.password.algorithm:bcrypt}")
+    private String passwordAlgorithm;
+
+    @Value("${security.password.bcrypt.strength:10}")
+    private int bcryptStrength;
+
+    @Value("${security.password.pbkdf2.iterations:310000}")
+    private int pbkdf2Iterations;
+
+    @Value("${security.password.pbkdf2.previous-iterations:}")
+    private List<Integer> previousPbkdf2Iterations;
+
+    @Bean
+    public AuthenticationProvider authenticationProvider() {
+        DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
+        authProvider.setUserDetailsService(userDetailsService);
+        authProvider.setPasswordEncoder(passwordEncoder());
+        // Hashes made with another algorithm or cost are replaced after a successful login
+        authProvider.setUserDetailsPasswordService(userDetailsService);
+        return authProvider;
+    }
+
+    /**
+     * Password login manager used by AuthService, independent of the web stack
+     */
+    @Bean
+    public AuthenticationManager authenticationManager(AuthenticationProvider authenticationProvider) {
+        return new ProviderManager(authenticationProvider);
+    }
+
+    @Bean
+    public PasswordEncoder passwordEncoder() {
+        return createPasswordEncoder(passwordAlgorithm, bcryptStrength, pbkdf2Iterations, previousPbkdf2Iterations);
+    }
+
+    /**
+     * Password and PIN encoder that hashes with the configured algorithm and cost.
+     * Hashes are stored with an {id} prefix; unprefixed hashes are the original default-strength
+     * bcrypt ones. Any hash not matching the current setting reports upgradeEncoding, which
+     * callers use to rehash on the next successful check, so lowering the cost works too.
+     */
+    public static PasswordEncoder createPasswordEncoder(String algorithm, int bcryptStrength, int pbkdf2Iterations,
+                                                        List<Integer> previousPbkdf2Iterations) {
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put("bcrypt", new BCryptCostEncoder(bcryptStrength));
+        // PBKDF2 hashes do not record their iteration count, so it is part of the id
+        encoders.put(pbkdf2Id(pbkdf2Iterations), pbkdf2(pbkdf2Iterations));
+        if (previousPbkdf2Iterations != null) {
+            previousPbkdf2Iterations.forEach(iterations -> encoders.putIfAbsent(pbkdf2Id(iterations), pbkdf2(iterations)));
+        }
+
+        String idForEncode = switch (algorithm) {
+            case "bcrypt" -> "bcrypt";
+            case "pbkdf2" -> pbkdf2Id(pbkdf2Iterations);
+            default -> throw new IllegalArgumentException("Unsupported password algorithm: " + algorithm);
+        };
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(idForEncode, encoders);
+        encoder.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder());
+        return encoder;
+    }
+
+    private static String pbkdf2Id(int iterations) {
+        return "pbkdf2-" + iterations;
+    }
+
+    private static PasswordEncoder pbkdf2(int iterations) {
+        return new Pbkdf2PasswordEncoder("", 16, iterations,
+                Pbkdf2PasswordEncoder.SecretKeyFactoryAlgorithm.PBKDF2WithHmacSHA256);
+    }
+
+    /**
+     * BCrypt only upgrades weaker hashes by default; this also flags stronger ones
+     */
+    private static class BCryptCostEncoder extends BCryptPasswordEncoder {
+
+        private final int strength;
+
+        BCryptCostEncoder(int strength) {
+            super(strength);
+            this.strength = strength;
+        }
+
+        @Override
+        public boolean upgradeEncoding(String encodedPassword) {
+            // $2a$10$... carries the cost in the third segment
+            if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(3) != '$') {
+                return false;
+            }
+            try {
+                return Integer.parseInt(encodedPassword.substring(4, 6)) != strength;
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.gpay.security;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Replays a body whose first bytes were read by a security filter.
+ * Only up to the given limit is buffered; anything beyond is streamed from the original request.
+ */
+final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+    private final byte[] head;
+    private final boolean complete;
+    private final ServletInputStream original;
+
+    private CachedBodyRequest(HttpServletRequest request, byte[] head, boolean complete,
+                              ServletInputStream original) {
+        super(request);
+        this.head = head;
+        this.complete = complete;
+        this.original = original;
+    }
+
+    static CachedBodyRequest wrap(HttpServletRequest request, int maxBytes) throws IOException {
+        ServletInputStream original = request.getInputStream();
+        byte[] head = original.readNBytes(maxBytes);
+        boolean complete = head.length < maxBytes || original.isFinished();
+        return new CachedBodyRequest(request, head, complete, original);
+    }
+
+    byte[] getHead() {
+        return head;
+    }
+
+    boolean isComplete() {
+        return complete;
+    }
+
+    @Override
+    public BufferedReader getReader() {
+        String encoding = getCharacterEncoding();
+        return new BufferedReader(new InputStreamReader(getInputStream(),
+                encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public ServletInputStream getInputStream() {
+        return new ServletInputStream() {
+            private int position;
+
+            @Override
+            public int read() throws IOException {
+                if (position < head.length) {
+                    return head[position++] & 0xff;
+                }
+                return complete ? -1 : original.read();
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                if (length == 0) {
+                    return 0;
+                }
+                if (position < head.length) {
+                    int count = Math.min(length, head.length - position);
+                    System.arraycopy(head, position, buffer, offset, count);
+                    position += count;
+                    return count;
+                }
+                return complete ? -1 : original.read(buffer, offset, length);
+            }
+
+            @Override
+            public boolean isFinished() {
+                return position >= head.length && (complete || original.isFinished());
+            }
+
+            @Override
+            public boolean isReady() {
+                return position < head.length || complete || original.isReady();
+            }
+
+            @Override
+            public void setReadListener(ReadListener readListener) {
+                if (!complete) {
+                    // The rest of the body still comes from the container, which calls back as it arrives
+                    original.setReadListener(readListener);
+                    return;
+                }
+                // The whole body is buffered, so it can all be read right away
+                try {
+                    readListener.onDataAvailable();
+                    readListener.onAllDataRead();
+                } catch (IOException e) {
+                    readListener.onError(e);
+                }
+            }
+        };
+    }
+}
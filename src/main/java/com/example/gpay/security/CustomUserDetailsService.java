@@ -3,19 +3,26 @@ package com.example.gpay.security;
 import com.example.gpay.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.stereotype.Service;
+import java.time.LocalDateTime;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
+    private final MongoTemplate mongoTemplate;
 
     @Override
     public UserDetails loadUserByUsername(String phoneNumber) throws UsernameNotFoundException {
@@ -30,4 +37,18 @@ public class CustomUserDetailsService implements UserDetailsService {
                         .collect(Collectors.toList()))
                 .build();
     }
+
+    /**
+     * Store a rehashed password after login; only the hash is touched so concurrent
+     * balance updates are not overwritten, and a password changed meanwhile is kept
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        mongoTemplate.updateFirst(
+                Query.query(Criteria.where("phoneNumber").is(user.getUsername())
+                        .and("password").is(user.getPassword())),
+                new Update().set("password", newPassword).set("updatedAt", LocalDateTime.now()),
+                com.example.gpay.model.User.class);
+        return User.withUserDetails(user).password(newPassword).build();
+    }
 }
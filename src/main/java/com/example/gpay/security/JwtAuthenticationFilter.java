@@ -1,29 +1,46 @@
 package com.example.gpay.security;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 import java.io.IOException;
+import java.util.List;
 
 @Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
+
+    private final WebAuthenticationDetailsSource detailsSource = new WebAuthenticationDetailsSource();
+
     @Autowired
     private JwtService jwtService;
 
     @Autowired
     private UserDetailsService userDetailsService;
 
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
     @Override
     protected void doFilterInternal(
             @NonNull HttpServletRequest request,
@@ -32,32 +49,54 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     ) throws ServletException, IOException {
 
         final String authHeader = request.getHeader("Authorization");
-        final String jwt;
-        final String userPhoneNumber;
 
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+        if (authHeader == null || !authHeader.startsWith("Bearer ")
+                || SecurityContextHolder.getContext().getAuthentication() != null) {
             filterChain.doFilter(request, response);
             return;
         }
 
-        jwt = authHeader.substring(7);
-        userPhoneNumber = jwtService.extractUsername(jwt);
+        try {
+            // One parse checks signature and expiry and yields everything needed for the principal
+            Claims claims = jwtService.parseToken(authHeader.substring(7));
+            UserDetails userDetails = tokenRevocationService.isRevoked(claims) ? null : toUserDetails(claims);
 
-        if (userPhoneNumber != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(userPhoneNumber);
-
-            if (jwtService.isTokenValid(jwt, userDetails)) {
+            if (userDetails != null) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails,
                         null,
                         userDetails.getAuthorities()
                 );
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                authToken.setDetails(detailsSource.buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authToken);
             }
+        } catch (JwtException | IllegalArgumentException e) {
+            // Left unauthenticated; protected endpoints answer 401 through the entry point
+            logger.debug("Rejected JWT: {}", e.getMessage());
         }
 
         filterChain.doFilter(request, response);
     }
-}
 
+    private UserDetails toUserDetails(Claims claims) {
+        String userPhoneNumber = claims.getSubject();
+        if (userPhoneNumber == null) {
+            return null;
+        }
+
+        List<String> roles = jwtService.extractRoles(claims);
+        if (roles != null) {
+            return User.withUsername(userPhoneNumber)
+                    .password("")
+                    .authorities(roles.stream().map(SimpleGrantedAuthority::new).toList())
+                    .build();
+        }
+
+        // Tokens issued before roles were embedded still need the database
+        try {
+            return userDetailsService.loadUserByUsername(userPhoneNumber);
+        } catch (UsernameNotFoundException e) {
+            return null;
+        }
+    }
+}
@@ -2,26 +2,42 @@ package com.example.gpay.security;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 
 @Service
 public class JwtService {
 
+    // Roles travel in the token so requests can be authenticated without a database lookup
+    public static final String ROLES_CLAIM = "roles";
+
     @Value("${jwt.secret}")
     private String jwtSecret;
 
     @Value("${jwt.expiration}")
     private int jwtExpiration;
 
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+    // Both are immutable and thread-safe, so they are built once instead of per parse
+    private Key signingKey;
+    private JwtParser parser;
+
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
     }
 
     public String extractUsername(String token) {
@@ -38,49 +54,63 @@ public class JwtService {
     }
 
     public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
-        return buildToken(extraClaims, userDetails, jwtExpiration);
+        Map<String, Object> claims = new HashMap<>(extraClaims);
+        claims.putIfAbsent(ROLES_CLAIM, userDetails.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList());
+        return buildToken(claims, userDetails, jwtExpiration);
     }
 
     private String buildToken(Map<String, Object> extraClaims, UserDetails userDetails, long expiration) {
         return Jwts.builder()
                 .setClaims(extraClaims)
+                // Unique id so a single token can be revoked
+                .setId(new ObjectId().toHexString())
                 .setSubject(userDetails.getUsername())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+    /**
+     * Verify signature and expiry in a single parse
+     * @throws JwtException if the token is invalid or expired
+     */
+    public Claims parseToken(String token) {
+        return parser.parseClaimsJws(token).getBody();
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    /**
+     * Roles embedded in the token, or null for tokens issued before roles were added
+     */
+    public List<String> extractRoles(Claims claims) {
+        Object roles = claims.get(ROLES_CLAIM);
+        if (!(roles instanceof List<?> list)) {
+            return null;
+        }
+        return list.stream().map(String::valueOf).toList();
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    public boolean isTokenValid(String token, UserDetails userDetails) {
+        try {
+            // The parser already rejects expired tokens
+            return userDetails.getUsername().equals(parseToken(token).getSubject());
+        } catch (JwtException | IllegalArgumentException e) {
+            return false;
+        }
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parseToken(token);
     }
 
     public boolean validateToken(String token) {
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token);
+            parseToken(token);
             return true;
         } catch (JwtException | IllegalArgumentException e) {
             return false;
         }
     }
-}
\ No newline at end of file
+}
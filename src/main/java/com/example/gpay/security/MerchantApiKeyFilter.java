@@ -0,0 +1,103 @@
+package com.example.gpay.security;
+
+import com.example.gpay.model.MerchantApiKey;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.lang.NonNull;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Authenticates server-to-server calls under /api/merchant with a signed API key.
+ * Expects X-Api-Key, X-Timestamp (epoch seconds), X-Nonce and X-Signature headers; see
+ * {@link MerchantApiKeyService#verify} for what is signed. The principal is the key owner's
+ * phone number with the MERCHANT authority, built without a database lookup.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class MerchantApiKeyFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(MerchantApiKeyFilter.class);
+
+    public static final String MERCHANT_PATH = "/api/merchant/";
+    public static final String MERCHANT_AUTHORITY = "MERCHANT";
+
+    @Autowired
+    private MerchantApiKeyService merchantApiKeyService;
+
+    @Value("${merchant.api-keys.max-body-bytes:65536}")
+    private int maxBodyBytes;
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(request.getContextPath() + MERCHANT_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        String keyId = request.getHeader("X-Api-Key");
+        if (keyId == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        CachedBodyRequest cached = CachedBodyRequest.wrap(request, maxBodyBytes + 1);
+        if (!cached.isComplete() || cached.getHead().length > maxBodyBytes) {
+            reject(response, HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE, "Request body too large");
+            return;
+        }
+
+        String pathWithQuery = request.getQueryString() != null
+                ? request.getRequestURI() + "?" + request.getQueryString()
+                : request.getRequestURI();
+        MerchantApiKeyService.Verification result = merchantApiKeyService.verify(keyId, request.getMethod(),
+                pathWithQuery, request.getHeader("X-Timestamp"), request.getHeader("X-Nonce"),
+                cached.getHead(), request.getHeader("X-Signature"));
+        MerchantApiKey key = result == MerchantApiKeyService.Verification.VALID
+                ? merchantApiKeyService.resolve(keyId) : null;
+        if (key == null) {
+            logger.warn("Rejected merchant request with key {}: {}", keyId, result);
+            reject(response, HttpServletResponse.SC_UNAUTHORIZED, "Invalid request signature (" + result + ")");
+            return;
+        }
+
+        UserDetails principal = User.withUsername(key.getPhoneNumber())
+                .password("")
+                .authorities(new SimpleGrantedAuthority(MERCHANT_AUTHORITY))
+                .build();
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                principal, null, principal.getAuthorities());
+        // Controllers read the owner from the key instead of loading the user
+        authentication.setDetails(key);
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+
+        filterChain.doFilter(cached, response);
+    }
+
+    private void reject(HttpServletResponse response, int status, String message) throws IOException {
+        response.setStatus(status);
+        response.setContentType("application/json");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write("{\"success\":false,\"message\":\"" + message + "\"}");
+    }
+}
@@ -0,0 +1,282 @@
+package com.example.gpay.security;
+
+import com.example.gpay.model.MerchantApiKey;
+import com.example.gpay.model.User;
+import com.example.gpay.utils.HashUtils;
+import com.example.gpay.utils.ReplayWindow;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Merchant API keys and HMAC request verification.
+ * A key's signing secret is derived from the server master secret and the key id, so the
+ * database only holds a fingerprint of it, and a signature can be checked before the key is
+ * looked up: only correctly signed requests reach the database. Resolved keys are cached in
+ * memory, which lets a signed request authenticate without any database round trip; revocations
+ * on other nodes take effect within the cache TTL. Nonces are recorded in a shared collection
+ * for twice the allowed clock skew, so a captured request cannot be replayed to any node; a
+ * per-node window in front of it turns away repeats without a database write.
+ */
+@Service
+@RequiredArgsConstructor
+public class MerchantApiKeyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MerchantApiKeyService.class);
+
+    private static final String KEY_PREFIX = "mk_";
+    private static final String SECRET_PREFIX = "sk_";
+    private static final String NONCE_COLLECTION = "merchant_api_nonces";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${merchant.api-keys.master-secret}")
+    private String masterSecret;
+
+    @Value("${merchant.api-keys.max-per-user:5}")
+    private int maxKeysPerUser;
+
+    @Value("${merchant.api-keys.cache-ttl-ms:60000}")
+    private long cacheTtlMs;
+
+    @Value("${merchant.api-keys.cache-size:10000}")
+    private int cacheSize;
+
+    @Value("${merchant.api-keys.max-skew-seconds:300}")
+    private long maxSkewSeconds;
+
+    @Value("${merchant.api-keys.max-nonces:200000}")
+    private int maxNonces;
+
+    private final Map<String, CachedKey> cache = new ConcurrentHashMap<>();
+    private ReplayWindow replayWindow;
+
+    @PostConstruct
+    public void init() {
+        // Every merchant key is derived from it, so a published default would let anyone sign requests
+        HashUtils.requireSecret("merchant.api-keys.master-secret", masterSecret);
+        replayWindow = new ReplayWindow(Duration.ofSeconds(2 * maxSkewSeconds), maxNonces);
+        try {
+            mongoTemplate.indexOps(MerchantApiKey.class).ensureIndex(new Index().on("userId", Sort.Direction.ASC));
+            mongoTemplate.indexOps(NONCE_COLLECTION)
+                    .ensureIndex(new Index().on("expiresAt", Sort.Direction.ASC).expire(Duration.ZERO));
+        } catch (Exception e) {
+            logger.error("Failed to ensure merchant API key indexes: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Create a key for the user; the secret is only returned here and cannot be recovered later
+     */
+    public IssuedKey create(User user, String name) {
+        long active = mongoTemplate.count(Query.query(Criteria.where("userId").is(user.getId())
+                .and("status").is(MerchantApiKey.STATUS_ACTIVE)), MerchantApiKey.class);
+        if (active >= maxKeysPerUser) {
+            throw new RuntimeException("Maximum of " + maxKeysPerUser + " active API keys reached");
+        }
+
+        String keyId = KEY_PREFIX + HashUtils.randomToken(16);
+        String secret = deriveSecret(keyId);
+        MerchantApiKey key = mongoTemplate.insert(MerchantApiKey.builder()
+                .keyId(keyId)
+                .userId(user.getId())
+                .phoneNumber(user.getPhoneNumber())
+                .name(name)
+                .secretHash(HashUtils.sha256Hex(secret))
+                .status(MerchantApiKey.STATUS_ACTIVE)
+                .createdAt(LocalDateTime.now())
+                .build());
+        // Drop a cached "unknown key" entry left by a request made before creation
+        cache.remove(keyId);
+        logger.info("Created API key {} for {}", keyId, user.getPhoneNumber());
+        return new IssuedKey(key, secret);
+    }
+
+    public List<MerchantApiKey> list(String userId) {
+        Query query = Query.query(Criteria.where("userId").is(userId))
+                .with(Sort.by(Sort.Direction.DESC, "createdAt"));
+        return mongoTemplate.find(query, MerchantApiKey.class);
+    }
+
+    public void revoke(String userId, String keyId) {
+        long updated = mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(keyId).and("userId").is(userId)
+                        .and("status").is(MerchantApiKey.STATUS_ACTIVE)),
+                new Update().set("status", MerchantApiKey.STATUS_REVOKED).set("revokedAt", LocalDateTime.now()),
+                MerchantApiKey.class).getModifiedCount();
+        if (updated == 0) {
+            throw new RuntimeException("API key not found: " + keyId);
+        }
+        cache.remove(keyId);
+        logger.info("Revoked API key {}", keyId);
+    }
+
+    /**
+     * Revoke every active key of the user, when their sessions are ended or their PIN changes.
+     * Other nodes stop accepting the keys within the cache TTL.
+     */
+    public long revokeAll(String userId, String reason) {
+        long revoked = mongoTemplate.updateMulti(
+                Query.query(Criteria.where("userId").is(userId).and("status").is(MerchantApiKey.STATUS_ACTIVE)),
+                new Update().set("status", MerchantApiKey.STATUS_REVOKED).set("revokedAt", LocalDateTime.now()),
+                MerchantApiKey.class).getModifiedCount();
+        cache.values().removeIf(entry -> entry.key != null && userId.equals(entry.key.getUserId()));
+        if (revoked > 0) {
+            logger.info("Revoked {} API keys of user {} ({})", revoked, userId, reason);
+        }
+        return revoked;
+    }
+
+    /**
+     * Active key for the id, from the cache when possible; only for ids of verified requests
+     */
+    public MerchantApiKey resolve(String keyId) {
+        CachedKey cached = lookup(keyId);
+        return cached != null ? cached.key : null;
+    }
+
+    /**
+     * Check a request signature.
+     * The signed string is method, path with query, timestamp, nonce and the hex SHA-256 of the
+     * body, separated by newlines; the signature is the hex HMAC-SHA256 of it under the key secret.
+     */
+    public Verification verify(String keyId, String method, String pathWithQuery, String timestamp,
+                               String nonce, byte[] body, String signature) {
+        if (timestamp == null || nonce == null || signature == null || nonce.isBlank() || nonce.length() > 128) {
+            return Verification.MALFORMED;
+        }
+        long sentAt;
+        try {
+            sentAt = Long.parseLong(timestamp);
+        } catch (NumberFormatException e) {
+            return Verification.MALFORMED;
+        }
+        if (Math.abs(System.currentTimeMillis() / 1000 - sentAt) > maxSkewSeconds) {
+            return Verification.STALE;
+        }
+
+        if (keyId == null || !keyId.startsWith(KEY_PREFIX)) {
+            return Verification.UNKNOWN_KEY;
+        }
+
+        // The secret is derived, so random key ids are turned away without touching the cache or database
+        String payload = method + "\n" + pathWithQuery + "\n" + timestamp + "\n" + nonce + "\n"
+                + HashUtils.sha256Hex(body);
+        String expected = HexFormat.of().formatHex(HashUtils.hmacSha256(
+                deriveSecret(keyId).getBytes(StandardCharsets.UTF_8), payload.getBytes(StandardCharsets.UTF_8)));
+        if (!HashUtils.digestsEqual(expected, signature.toLowerCase())) {
+            return Verification.BAD_SIGNATURE;
+        }
+
+        CachedKey cached = lookup(keyId);
+        if (cached == null || cached.key == null) {
+            return Verification.UNKNOWN_KEY;
+        }
+        // Only nonces of correctly signed requests are recorded, so forgeries cannot fill the window
+        String nonceId = keyId + ":" + nonce;
+        if (!replayWindow.tryRecord(nonceId) || !recordSharedNonce(nonceId)) {
+            return Verification.REPLAYED;
+        }
+        return Verification.VALID;
+    }
+
+    /**
+     * Record the nonce for every node; the unique _id makes a second insert fail.
+     * Fails closed, since a signed request may be a payout.
+     */
+    private boolean recordSharedNonce(String nonceId) {
+        try {
+            mongoTemplate.insert(new Document("_id", nonceId)
+                    .append("expiresAt", Date.from(Instant.now().plusSeconds(2 * maxSkewSeconds))), NONCE_COLLECTION);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        } catch (Exception e) {
+            logger.error("Could not record merchant request nonce, refusing the request: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    @Scheduled(fixedDelay = 1000)
+    public void expireNonces() {
+        replayWindow.expire();
+    }
+
+    private CachedKey lookup(String keyId) {
+        if (keyId == null || !keyId.startsWith(KEY_PREFIX)) {
+            return null;
+        }
+        long now = System.nanoTime();
+        CachedKey cached = cache.get(keyId);
+        if (cached != null && cached.validUntil - now > 0) {
+            return cached;
+        }
+
+        String secret = deriveSecret(keyId);
+        MerchantApiKey key = mongoTemplate.findById(keyId, MerchantApiKey.class);
+        if (key != null && !MerchantApiKey.STATUS_ACTIVE.equals(key.getStatus())) {
+            key = null;
+        } else if (key != null && !HashUtils.digestsEqual(key.getSecretHash(), HashUtils.sha256Hex(secret))) {
+            logger.error("API key {} does not match the configured master secret", keyId);
+            key = null;
+        }
+
+        if (cache.size() >= cacheSize) {
+            cache.values().removeIf(entry -> entry.validUntil - now <= 0);
+            if (cache.size() >= cacheSize) {
+                cache.clear();
+            }
+        }
+        cached = new CachedKey(key, now + TimeUnit.MILLISECONDS.toNanos(cacheTtlMs));
+        cache.put(keyId, cached);
+        return cached;
+    }
+
+    private String deriveSecret(String keyId) {
+        byte[] mac = HashUtils.hmacSha256(masterSecret.getBytes(StandardCharsets.UTF_8),
+                keyId.getBytes(StandardCharsets.UTF_8));
+        return SECRET_PREFIX + Base64.getUrlEncoder().withoutPadding().encodeToString(mac);
+    }
+
+    private record CachedKey(MerchantApiKey key, long validUntil) {
+    }
+
+    /**
+     * A newly created key with its secret
+     */
+    public record IssuedKey(MerchantApiKey key, String secret) {
+    }
+
+    public enum Verification {
+        VALID,
+        MALFORMED,
+        STALE,
+        UNKNOWN_KEY,
+        BAD_SIGNATURE,
+        REPLAYED
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.gpay.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.lang.NonNull;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Rejects abusive traffic on auth, OTP and money endpoints with 429 before it reaches a controller.
+ * Route groups from {@code security.rate-limiting.groups} set sliding window limits per IP address,
+ * per phone number and globally. The phone number is the authenticated user, or for the
+ * unauthenticated auth endpoints the {@code phoneNumber} field of the JSON body, which is
+ * buffered once and replayed to the controller; bodies over {@code max-body-bytes} are refused
+ * with 413 on those routes, as in the reactive filter. Runs right after JWT authentication.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private RateLimitRoutes routes;
+
+    @Value("${security.rate-limiting.max-body-bytes:4096}")
+    private int maxBodyBytes;
+
+    @Value("${security.rate-limiting.trust-forwarded-for:false}")
+    private boolean trustForwardedFor;
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !routes.isEnabled();
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        RateLimitRoutes.RouteGroup group = routes.match(path, request.getMethod());
+        if (group == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        HttpServletRequest forwarded = request;
+
+        // Cheapest key first, and the body is only read for callers that pass the IP limit
+        long waitMs = 0;
+        if (group.getIp() != null) {
+            waitMs = routes.acquireIp(group, clientIp(request));
+        }
+        if (waitMs == 0 && group.getPhone() != null) {
+            String phoneNumber = authenticatedUser();
+            if (phoneNumber == null && RateLimitRoutes.isDocument(request.getContentType())) {
+                CachedBodyRequest cached = CachedBodyRequest.wrap(request, maxBodyBytes);
+                if (!cached.isComplete()) {
+                    // Limited routes take small documents; padding one must not skip the phone limit
+                    response.setStatus(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+                    return;
+                }
+                forwarded = cached;
+                phoneNumber = routes.phoneFromBody(cached.getHead(), request.getContentType());
+            }
+            if (phoneNumber != null) {
+                waitMs = routes.acquirePhone(group, phoneNumber);
+            }
+        }
+        // Per caller limits go first so one abusive caller cannot use up the shared budget
+        if (waitMs == 0 && group.getGlobal() != null) {
+            waitMs = routes.acquireGlobal(group);
+        }
+
+        if (waitMs > 0) {
+            reject(response, group, waitMs);
+            return;
+        }
+        filterChain.doFilter(forwarded, response);
+    }
+
+    private void reject(HttpServletResponse response, RateLimitRoutes.RouteGroup group, long waitMs) throws IOException {
+        long retryAfterSeconds = routes.rejected(group, waitMs);
+        response.setStatus(429);
+        response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+        response.setContentType("application/json");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write(RateLimitRoutes.rejectionBody(retryAfterSeconds));
+    }
+
+    private String authenticatedUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken
+                || !authentication.isAuthenticated()) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
+    private String clientIp(HttpServletRequest request) {
+        if (trustForwardedFor) {
+            String forwardedFor = request.getHeader("X-Forwarded-For");
+            if (forwardedFor != null && !forwardedFor.isBlank()) {
+                int comma = forwardedFor.indexOf(',');
+                return (comma < 0 ? forwardedFor : forwardedFor.substring(0, comma)).trim();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+}
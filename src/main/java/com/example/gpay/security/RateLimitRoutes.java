@@ -0,0 +1,186 @@
+package com.example.gpay.security;
+
+import com.example.gpay.services.RateLimitStore;
+import com.example.gpay.utils.PhoneNumberUtils;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.Data;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Route groups from {@code security.rate-limiting.groups} and the checks shared by the servlet
+ * and reactive rate limiting filters
+ */
+@Component
+class RateLimitRoutes {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitRoutes.class);
+
+    private static final String PHONE_FIELD = "phoneNumber";
+
+    @Autowired
+    private RateLimitStore rateLimitStore;
+
+    @Autowired
+    private PhoneNumberUtils phoneNumberUtils;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${security.rate-limiting.enabled:true}")
+    private boolean enabled;
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final CBORFactory cborFactory = new CBORFactory();
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final Map<String, RouteGroup> exactRoutes = new HashMap<>();
+    private final List<RouteGroup> patternRoutes = new ArrayList<>();
+
+    @PostConstruct
+    public void init() {
+        Map<String, RouteGroup> groups = Binder.get(environment)
+                .bind("security.rate-limiting.groups", Bindable.mapOf(String.class, RouteGroup.class))
+                .orElse(Collections.emptyMap());
+        groups.forEach((name, group) -> {
+            group.setName(name);
+            for (String path : group.getPaths()) {
+                if (pathMatcher.isPattern(path)) {
+                    if (!patternRoutes.contains(group)) {
+                        patternRoutes.add(group);
+                    }
+                } else {
+                    exactRoutes.put(path, group);
+                }
+            }
+        });
+        logger.info("Rate limiting {} for route groups {}", enabled ? "enabled" : "disabled", groups.keySet());
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    RouteGroup match(String path, String method) {
+        RouteGroup group = exactRoutes.get(path);
+        if (group == null) {
+            for (RouteGroup candidate : patternRoutes) {
+                for (String pattern : candidate.getPaths()) {
+                    if (pathMatcher.match(pattern, path)) {
+                        group = candidate;
+                        break;
+                    }
+                }
+                if (group != null) {
+                    break;
+                }
+            }
+        }
+        if (group == null || !group.getMethods().contains(method)) {
+            return null;
+        }
+        return group;
+    }
+
+    long acquireIp(RouteGroup group, String clientIp) {
+        return rateLimitStore.tryAcquire(group.getName() + ":ip", clientIp, group.getIp(), group.getWindow());
+    }
+
+    long acquirePhone(RouteGroup group, String phoneNumber) {
+        return rateLimitStore.tryAcquire(group.getName() + ":phone", phoneNumber, group.getPhone(), group.getWindow());
+    }
+
+    long acquireGlobal(RouteGroup group) {
+        return rateLimitStore.tryAcquire(group.getName() + ":global", "*", group.getGlobal(), group.getWindow());
+    }
+
+    /**
+     * Count a rejection and build the 429 body
+     * @return seconds to put in Retry-After
+     */
+    long rejected(RouteGroup group, long waitMs) {
+        long retryAfterSeconds = Math.max(1, (waitMs + 999) / 1000);
+        meterRegistry.counter("gpay.ratelimit.rejected", "group", group.getName()).increment();
+        logger.debug("Rate limit hit for group {}, retry in {} s", group.getName(), retryAfterSeconds);
+        return retryAfterSeconds;
+    }
+
+    static String rejectionBody(long retryAfterSeconds) {
+        return "{\"success\":false,\"message\":\"Too many requests, try again in "
+                + retryAfterSeconds + " seconds\"}";
+    }
+
+    /**
+     * Whether the body is a JSON or CBOR document the phone number can be read from
+     */
+    static boolean isDocument(String contentType) {
+        return contentType != null && (contentType.toLowerCase().contains("json") || isCbor(contentType));
+    }
+
+    private static boolean isCbor(String contentType) {
+        return contentType.toLowerCase().contains("cbor");
+    }
+
+    /**
+     * Stream the top level of the body for the phone number without binding the whole document
+     */
+    String phoneFromBody(byte[] body, String contentType) {
+        if (body.length == 0) {
+            return null;
+        }
+        JsonFactory factory = contentType != null && isCbor(contentType) ? cborFactory : jsonFactory;
+        try (JsonParser parser = factory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if (PHONE_FIELD.equals(field) && value == JsonToken.VALUE_STRING) {
+                    String phoneNumber = parser.getText();
+                    return phoneNumber.isBlank() ? null : phoneNumberUtils.getPhoneNumberForLookup(phoneNumber);
+                }
+                parser.skipChildren();
+            }
+        } catch (IOException e) {
+            // Malformed bodies are left for the controller to reject
+        }
+        return null;
+    }
+
+    /**
+     * A limited route group
+     */
+    @Data
+    public static class RouteGroup {
+        private String name;
+        private List<String> paths = new ArrayList<>();
+        private List<String> methods = new ArrayList<>(List.of("POST"));
+        private Duration window = Duration.ofHours(1);
+        private Integer ip;
+        private Integer phone;
+        private Integer global;
+    }
+}
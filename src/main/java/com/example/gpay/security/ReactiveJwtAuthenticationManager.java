@@ -0,0 +1,95 @@
+package com.example.gpay.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.List;
+
+/**
+ * Reactive counterpart of {@link JwtAuthenticationFilter}.
+ * Signature, expiry and roles come from the token itself and the revocation Bloom filter is in
+ * memory, so a normal request is authenticated without leaving the event loop; only possible
+ * revocations and tokens issued before roles were embedded go to the database, on the
+ * blocking scheduler.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveJwtAuthenticationManager implements ReactiveAuthenticationManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveJwtAuthenticationManager.class);
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final JwtService jwtService;
+    private final TokenRevocationService tokenRevocationService;
+    private final UserDetailsService userDetailsService;
+    private final Scheduler blockingScheduler;
+
+    /**
+     * Bearer token of the request as an unauthenticated token, or empty without one
+     */
+    public static Mono<Authentication> bearerToken(ServerWebExchange exchange) {
+        String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (authHeader == null || !authHeader.startsWith(BEARER_PREFIX)) {
+            return Mono.empty();
+        }
+        String token = authHeader.substring(BEARER_PREFIX.length());
+        return Mono.just(new UsernamePasswordAuthenticationToken(token, token));
+    }
+
+    @Override
+    public Mono<Authentication> authenticate(Authentication authentication) {
+        Claims claims;
+        try {
+            claims = jwtService.parseToken((String) authentication.getCredentials());
+        } catch (JwtException | IllegalArgumentException e) {
+            logger.debug("Rejected JWT: {}", e.getMessage());
+            return Mono.error(new BadCredentialsException("Invalid token"));
+        }
+        if (claims.getSubject() == null) {
+            return Mono.error(new BadCredentialsException("Invalid token"));
+        }
+
+        Mono<Boolean> revoked = tokenRevocationService.mightBeRevoked(claims)
+                ? Mono.fromCallable(() -> tokenRevocationService.isRevoked(claims)).subscribeOn(blockingScheduler)
+                : Mono.just(false);
+        return revoked.flatMap(isRevoked -> isRevoked
+                        ? Mono.<UserDetails>error(new BadCredentialsException("Token revoked"))
+                        : toUserDetails(claims))
+                .map(userDetails -> UsernamePasswordAuthenticationToken.authenticated(
+                        userDetails, null, userDetails.getAuthorities()));
+    }
+
+    private Mono<UserDetails> toUserDetails(Claims claims) {
+        List<String> roles = jwtService.extractRoles(claims);
+        if (roles != null) {
+            return Mono.just(User.withUsername(claims.getSubject())
+                    .password("")
+                    .authorities(roles.stream().map(SimpleGrantedAuthority::new).toList())
+                    .build());
+        }
+
+        // Tokens issued before roles were embedded still need the database
+        return Mono.fromCallable(() -> userDetailsService.loadUserByUsername(claims.getSubject()))
+                .subscribeOn(blockingScheduler)
+                .onErrorMap(e -> new BadCredentialsException("Unknown user"));
+    }
+}
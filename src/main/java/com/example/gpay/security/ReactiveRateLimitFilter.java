@@ -0,0 +1,148 @@
+package com.example.gpay.security;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reactive counterpart of {@link RateLimitFilter} with the same route groups and keys.
+ * The JSON body of unauthenticated requests is aggregated up to the size cap to find the
+ * phone number and then replayed downstream. Counters are updated on the blocking scheduler,
+ * since the Mongo store does a database round trip. Not a bean, so that WebFlux does not also
+ * add it to the global filter chain.
+ */
+class ReactiveRateLimitFilter implements WebFilter {
+
+    private final RateLimitRoutes routes;
+    private final Scheduler blockingScheduler;
+    private final int maxBodyBytes;
+    private final boolean trustForwardedFor;
+
+    ReactiveRateLimitFilter(RateLimitRoutes routes, Scheduler blockingScheduler, int maxBodyBytes,
+                            boolean trustForwardedFor) {
+        this.routes = routes;
+        this.blockingScheduler = blockingScheduler;
+        this.maxBodyBytes = maxBodyBytes;
+        this.trustForwardedFor = trustForwardedFor;
+    }
+
+    @Override
+    @NonNull
+    public Mono<Void> filter(@NonNull ServerWebExchange exchange, @NonNull WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        RateLimitRoutes.RouteGroup group = routes.isEnabled()
+                ? routes.match(request.getPath().pathWithinApplication().value(), request.getMethod().name())
+                : null;
+        if (group == null) {
+            return chain.filter(exchange);
+        }
+
+        String contentType = request.getHeaders().getFirst(HttpHeaders.CONTENT_TYPE);
+        return authenticatedUser().defaultIfEmpty("").flatMap(user -> {
+            if (!user.isEmpty() || group.getPhone() == null || !RateLimitRoutes.isDocument(contentType)) {
+                return check(group, clientIp(request), user.isEmpty() ? null : user)
+                        .flatMap(waitMs -> waitMs > 0 ? reject(exchange, group, waitMs) : chain.filter(exchange));
+            }
+            // Unauthenticated: the phone number comes from the body, which is then replayed.
+            // Limited routes take small documents, so a larger body is refused outright.
+            return DataBufferUtils.join(request.getBody(), maxBodyBytes)
+                    .map(ReactiveRateLimitFilter::drain)
+                    .defaultIfEmpty(new byte[0])
+                    .flatMap(body -> check(group, clientIp(request), routes.phoneFromBody(body, contentType))
+                            .flatMap(waitMs -> waitMs > 0
+                                    ? reject(exchange, group, waitMs)
+                                    : chain.filter(exchange.mutate().request(replay(exchange, body)).build())))
+                    .onErrorResume(DataBufferLimitException.class, e -> {
+                        exchange.getResponse().setStatusCode(HttpStatus.PAYLOAD_TOO_LARGE);
+                        return exchange.getResponse().setComplete();
+                    });
+        });
+    }
+
+    private Mono<Long> check(RateLimitRoutes.RouteGroup group, String clientIp, String phoneNumber) {
+        return Mono.fromCallable(() -> {
+            // Cheapest key first; per caller limits go before the shared budget
+            long waitMs = 0;
+            if (group.getIp() != null) {
+                waitMs = routes.acquireIp(group, clientIp);
+            }
+            if (waitMs == 0 && group.getPhone() != null && phoneNumber != null) {
+                waitMs = routes.acquirePhone(group, phoneNumber);
+            }
+            if (waitMs == 0 && group.getGlobal() != null) {
+                waitMs = routes.acquireGlobal(group);
+            }
+            return waitMs;
+        }).subscribeOn(blockingScheduler);
+    }
+
+    private Mono<Void> reject(ServerWebExchange exchange, RateLimitRoutes.RouteGroup group, long waitMs) {
+        long retryAfterSeconds = routes.rejected(group, waitMs);
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        byte[] body = RateLimitRoutes.rejectionBody(retryAfterSeconds).getBytes(StandardCharsets.UTF_8);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+
+    private static Mono<String> authenticatedUser() {
+        return ReactiveSecurityContextHolder.getContext()
+                .map(SecurityContext::getAuthentication)
+                .filter(authentication -> !(authentication instanceof AnonymousAuthenticationToken)
+                        && authentication.isAuthenticated())
+                .map(Authentication::getName);
+    }
+
+    private String clientIp(ServerHttpRequest request) {
+        if (trustForwardedFor) {
+            String forwardedFor = request.getHeaders().getFirst("X-Forwarded-For");
+            if (forwardedFor != null && !forwardedFor.isBlank()) {
+                int comma = forwardedFor.indexOf(',');
+                return (comma < 0 ? forwardedFor : forwardedFor.substring(0, comma)).trim();
+            }
+        }
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        return remoteAddress != null ? remoteAddress.getAddress().getHostAddress() : "unknown";
+    }
+
+    private static byte[] drain(DataBuffer buffer) {
+        try {
+            byte[] bytes = new byte[buffer.readableByteCount()];
+            buffer.read(bytes);
+            return bytes;
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+
+    private static ServerHttpRequest replay(ServerWebExchange exchange, byte[] body) {
+        return new ServerHttpRequestDecorator(exchange.getRequest()) {
+            @Override
+            @NonNull
+            public Flux<DataBuffer> getBody() {
+                return Flux.defer(() -> Flux.just(exchange.getResponse().bufferFactory().wrap(body)));
+            }
+        };
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.gpay.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.AuthenticationWebFilter;
+import org.springframework.security.web.server.authentication.HttpStatusServerEntryPoint;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * Security for the reactive profile, mirroring the servlet {@link SecurityConfig} rules.
+ * An invalid or revoked bearer token leaves the request anonymous, as in the servlet filter,
+ * so public endpoints still answer and protected ones return 401. The merchant API, the
+ * change feed export and bulk QR generation depend on servlet features and are not served in this mode.
+ */
+@Configuration
+@EnableWebFluxSecurity
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveSecurityConfig {
+
+    @Autowired
+    private ReactiveJwtAuthenticationManager jwtAuthenticationManager;
+
+    @Autowired
+    private RateLimitRoutes rateLimitRoutes;
+
+    @Autowired
+    private Scheduler blockingScheduler;
+
+    @Value("${security.rate-limiting.max-body-bytes:4096}")
+    private int rateLimitMaxBodyBytes;
+
+    @Value("${security.rate-limiting.trust-forwarded-for:false}")
+    private boolean trustForwardedFor;
+
+    @Bean
+    public SecurityWebFilterChain reactiveFilterChain(ServerHttpSecurity http) {
+        AuthenticationWebFilter jwtFilter = new AuthenticationWebFilter(jwtAuthenticationManager);
+        jwtFilter.setServerAuthenticationConverter(ReactiveJwtAuthenticationManager::bearerToken);
+        jwtFilter.setSecurityContextRepository(NoOpServerSecurityContextRepository.getInstance());
+        jwtFilter.setAuthenticationFailureHandler((webFilterExchange, exception) ->
+                webFilterExchange.getChain().filter(webFilterExchange.getExchange()));
+
+        ReactiveRateLimitFilter rateLimitFilter = new ReactiveRateLimitFilter(rateLimitRoutes, blockingScheduler,
+                rateLimitMaxBodyBytes, trustForwardedFor);
+
+        return http
+                .csrf(ServerHttpSecurity.CsrfSpec::disable)
+                .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+                .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+                .logout(ServerHttpSecurity.LogoutSpec::disable)
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                .exceptionHandling(exceptions -> exceptions.authenticationEntryPoint(
+                        new HttpStatusServerEntryPoint(HttpStatus.UNAUTHORIZED)))
+                .authorizeExchange(exchanges -> exchanges
+                        .pathMatchers("/api/auth/**", "/api/webhook/**", "/actuator/**").permitAll()
+                        .pathMatchers("/api/transactions/**", "/api/users/**", "/api/transfers/**").permitAll()
+                        .pathMatchers(MerchantApiKeyFilter.MERCHANT_PATH + "**", "/api/export/**", "/api/qr/bulk").denyAll()
+                        .anyExchange().authenticated()
+                )
+                .addFilterAt(jwtFilter, SecurityWebFiltersOrder.AUTHENTICATION)
+                // After JWT so money endpoints are limited per authenticated user
+                .addFilterBefore(rateLimitFilter, SecurityWebFiltersOrder.AUTHORIZATION)
+                .build();
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.gpay.security;
+
+import com.example.gpay.model.RefreshToken;
+import com.example.gpay.model.User;
+import com.example.gpay.utils.HashUtils;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Issues and rotates refresh tokens.
+ * Tokens are 256-bit random values, so a single SHA-256 is enough to store them safely and
+ * a refresh costs one indexed findAndModify instead of a BCrypt password check.
+ */
+@Service
+@RequiredArgsConstructor
+public class RefreshTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final MongoTemplate mongoTemplate;
+    private final TokenRevocationService tokenRevocationService;
+    private final MerchantApiKeyService merchantApiKeyService;
+
+    @Value("${jwt.refresh.expiration-days:30}")
+    private long expirationDays;
+
+    @Value("${jwt.refresh.max-lifetime-days:90}")
+    private long maxLifetimeDays;
+
+    @PostConstruct
+    public void ensureIndexes() {
+        try {
+            IndexOperations indexOps = mongoTemplate.indexOps(RefreshToken.class);
+            indexOps.ensureIndex(new Index().on("expiresAt", Sort.Direction.ASC).expire(Duration.ZERO));
+            indexOps.ensureIndex(new Index().on("familyId", Sort.Direction.ASC));
+            indexOps.ensureIndex(new Index().on("userId", Sort.Direction.ASC));
+        } catch (Exception e) {
+            logger.error("Failed to ensure refresh token indexes: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Start a new token family for a fresh login
+     * @return the raw token, which is never stored
+     */
+    public String issue(User user) {
+        LocalDateTime now = LocalDateTime.now();
+        return store(user.getId(), user.getPhoneNumber(), new ObjectId().toHexString(),
+                now.plusDays(maxLifetimeDays), now);
+    }
+
+    /**
+     * Exchange a refresh token for its successor.
+     * Presenting a token that was already rotated means it leaked, so the whole family is revoked.
+     */
+    public Rotation rotate(String rawToken) {
+        String tokenHash = HashUtils.sha256Hex(rawToken);
+        LocalDateTime now = LocalDateTime.now();
+
+        RefreshToken current = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(tokenHash)
+                        .and("status").is(RefreshToken.STATUS_ACTIVE)
+                        .and("expiresAt").gt(now)),
+                new Update().set("status", RefreshToken.STATUS_ROTATED).set("rotatedAt", now),
+                FindAndModifyOptions.options().returnNew(false),
+                RefreshToken.class);
+
+        if (current == null) {
+            RefreshToken existing = mongoTemplate.findById(tokenHash, RefreshToken.class);
+            if (existing != null && RefreshToken.STATUS_ROTATED.equals(existing.getStatus())) {
+                long revoked = revokeFamily(existing.getFamilyId());
+                // Access tokens minted from the leaked family must stop working too
+                tokenRevocationService.revokeSubject(existing.getPhoneNumber(), "refresh-token-reuse");
+                // So must API keys, which a stolen access token could have created
+                merchantApiKeyService.revokeAll(existing.getUserId(), "refresh-token-reuse");
+                logger.warn("Refresh token reuse detected for {}, revoked {} tokens of family {}",
+                        existing.getPhoneNumber(), revoked, existing.getFamilyId());
+                throw new RuntimeException("Refresh token reuse detected, please log in again");
+            }
+            throw new RuntimeException("Invalid or expired refresh token");
+        }
+
+        if (!current.getFamilyExpiresAt().isAfter(now)) {
+            throw new RuntimeException("Session expired, please log in again");
+        }
+
+        String next = store(current.getUserId(), current.getPhoneNumber(), current.getFamilyId(),
+                current.getFamilyExpiresAt(), now);
+        return new Rotation(current.getUserId(), current.getPhoneNumber(), next);
+    }
+
+    /**
+     * Revoke every token of a login session
+     */
+    public long revokeFamily(String familyId) {
+        return mongoTemplate.updateMulti(
+                Query.query(Criteria.where("familyId").is(familyId)
+                        .and("status").ne(RefreshToken.STATUS_REVOKED)),
+                new Update().set("status", RefreshToken.STATUS_REVOKED),
+                RefreshToken.class).getModifiedCount();
+    }
+
+    /**
+     * Revoke the session a token belongs to, e.g. on logout
+     */
+    public void revoke(String rawToken) {
+        RefreshToken token = mongoTemplate.findById(HashUtils.sha256Hex(rawToken), RefreshToken.class);
+        if (token != null) {
+            revokeFamily(token.getFamilyId());
+        }
+    }
+
+    /**
+     * Revoke every session of a user, e.g. after a password change, and their API keys with them
+     */
+    public long revokeAll(String userId) {
+        merchantApiKeyService.revokeAll(userId, "sessions-revoked");
+        return mongoTemplate.updateMulti(
+                Query.query(Criteria.where("userId").is(userId)
+                        .and("status").ne(RefreshToken.STATUS_REVOKED)),
+                new Update().set("status", RefreshToken.STATUS_REVOKED),
+                RefreshToken.class).getModifiedCount();
+    }
+
+    private String store(String userId, String phoneNumber, String familyId, LocalDateTime familyExpiresAt,
+                         LocalDateTime now) {
+        String rawToken = HashUtils.randomToken(TOKEN_BYTES);
+        LocalDateTime expiresAt = now.plusDays(expirationDays);
+        mongoTemplate.insert(RefreshToken.builder()
+                .tokenHash(HashUtils.sha256Hex(rawToken))
+                .familyId(familyId)
+                .userId(userId)
+                .phoneNumber(phoneNumber)
+                .status(RefreshToken.STATUS_ACTIVE)
+                .createdAt(now)
+                .expiresAt(expiresAt.isBefore(familyExpiresAt) ? expiresAt : familyExpiresAt)
+                .familyExpiresAt(familyExpiresAt)
+                .build());
+        return rawToken;
+    }
+
+    /**
+     * Result of a successful rotation
+     */
+    public record Rotation(String userId, String phoneNumber, String refreshToken) {
+    }
+}
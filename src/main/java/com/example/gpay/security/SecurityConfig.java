@@ -1,32 +1,66 @@
 package com.example.gpay.security;
 
+import com.example.gpay.config.AuditLogFilter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationProvider;
-import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
-import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.context.SecurityContextHolderFilter;
 
+/**
+ * Servlet filter chains; the reactive profile uses {@link ReactiveSecurityConfig} instead
+ */
 @Configuration
 @EnableWebSecurity
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class SecurityConfig {
 
     @Autowired
     private JwtAuthenticationFilter jwtAuthFilter;
 
     @Autowired
-    private UserDetailsService userDetailsService;
+    private RateLimitFilter rateLimitFilter;
+
+    @Autowired
+    private MerchantApiKeyFilter merchantApiKeyFilter;
+
+    @Autowired
+    private AuditLogFilter auditLogFilter;
+
+    @Autowired
+    private AuthenticationProvider authenticationProvider;
+
+    /**
+     * Merchant server-to-server API, authenticated only by signed API key requests
+     */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain merchantFilterChain(HttpSecurity http) throws Exception {
+        http
+                .securityMatcher(MerchantApiKeyFilter.MERCHANT_PATH + "**")
+                .csrf(csrf -> csrf.disable())
+                .authorizeHttpRequests(authz -> authz.anyRequest().hasAuthority(MerchantApiKeyFilter.MERCHANT_AUTHORITY))
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .exceptionHandling(exceptions -> exceptions.authenticationEntryPoint(
+                        new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
+                .addFilterAfter(auditLogFilter, SecurityContextHolderFilter.class)
+                .addFilterBefore(merchantApiKeyFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterAfter(rateLimitFilter, MerchantApiKeyFilter.class);
+
+        return http.build();
+    }
 
     @Bean
+    @Order(2)
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
                 .csrf(csrf -> csrf.disable())
@@ -47,30 +81,21 @@ public class SecurityConfig {
 
                         // Actuator endpoints (optional)
                         .requestMatchers("/actuator/**").permitAll()
+
+                        // Change feed export is restricted to analytics service accounts
+                        .requestMatchers("/api/export/**").hasAuthority("ANALYTICS")
+                        // Bulk sticker printing is restricted to onboarding staff
+                        .requestMatchers("/api/qr/bulk").hasAuthority("ONBOARDING")
                         .anyRequest().authenticated()
                 )
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
-                .authenticationProvider(authenticationProvider())
-                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+                .authenticationProvider(authenticationProvider)
+                // Ahead of every filter that can reject, so 401, 403 and 429 are audited too
+                .addFilterAfter(auditLogFilter, SecurityContextHolderFilter.class)
+                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+                // After JWT so money endpoints are limited per authenticated user
+                .addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class);
 
         return http.build();
     }
-
-    @Bean
-    public AuthenticationProvider authenticationProvider() {
-        DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
-        authProvider.setUserDetailsService(userDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder());
-        return authProvider;
-    }
-
-    @Bean
-    public AuthenticationManager authenticationManager(AuthenticationConfiguration config) throws Exception {
-        return config.getAuthenticationManager();
-    }
-
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
-    }
 }
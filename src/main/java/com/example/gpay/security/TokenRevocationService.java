@@ -0,0 +1,246 @@
+package com.example.gpay.security;
+
+import com.example.gpay.model.RevokedToken;
+import com.example.gpay.utils.BloomFilter;
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Access token revocation.
+ * Revocations are stored in the TTL-indexed {@code revoked_tokens} collection and mirrored into
+ * a per-node Bloom filter, so the common case (token not revoked) is answered from memory and
+ * only possible hits are confirmed against the database. Other nodes' revocations arrive through
+ * the change stream when {@code events.change-streams.enabled} is set, otherwise by polling.
+ */
+@Service
+@RequiredArgsConstructor
+public class TokenRevocationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${jwt.expiration}")
+    private long jwtExpirationMs;
+
+    @Value("${events.change-streams.enabled:false}")
+    private boolean changeStreamsEnabled;
+
+    @Value("${security.revocation.bloom.expected-insertions:100000}")
+    private long expectedInsertions;
+
+    @Value("${security.revocation.bloom.false-positive-rate:0.001}")
+    private double falsePositiveRate;
+
+    @Value("${security.revocation.confirmed-cache-size:10000}")
+    private int confirmedCacheSize;
+
+    private volatile BloomFilter filter;
+    private volatile LocalDateTime lastSync;
+    private final Map<String, LocalDateTime> confirmed = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        try {
+            IndexOperations indexOps = mongoTemplate.indexOps(RevokedToken.class);
+            indexOps.ensureIndex(new Index().on("expiresAt", Sort.Direction.ASC).expire(Duration.ZERO));
+            indexOps.ensureIndex(new Index().on("revokedAt", Sort.Direction.ASC));
+        } catch (Exception e) {
+            logger.error("Failed to ensure revoked token indexes: {}", e.getMessage());
+        }
+        rebuild();
+    }
+
+    /**
+     * Revoke a single access token until it would have expired anyway
+     */
+    public void revokeToken(Claims claims, String reason) {
+        String tokenId = claims.getId();
+        if (tokenId == null) {
+            // Tokens issued before jti was added can only be revoked through their subject
+            revokeSubject(claims.getSubject(), reason);
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        save(RevokedToken.builder()
+                .id(tokenId)
+                .subject(claims.getSubject())
+                .reason(reason)
+                .revokedAt(now)
+                .expiresAt(toLocal(claims.getExpiration()))
+                .build());
+    }
+
+    /**
+     * Revoke every access token of a subject issued before the current second, e.g. after a
+     * compromise. JWT iat has whole-second precision, so a token issued later in the same second
+     * (an immediate re-login) stays valid.
+     */
+    public void revokeSubject(String subject, String reason) {
+        LocalDateTime now = LocalDateTime.now();
+        save(RevokedToken.builder()
+                .id(RevokedToken.SUBJECT_PREFIX + subject)
+                .subject(subject)
+                .reason(reason)
+                .notBefore(now.truncatedTo(ChronoUnit.SECONDS))
+                .revokedAt(now)
+                .expiresAt(now.plus(Duration.ofMillis(jwtExpirationMs)))
+                .build());
+    }
+
+    /**
+     * In-memory check only: false means the token is certainly not revoked, true means
+     * {@link #isRevoked} has to confirm it against the database
+     */
+    public boolean mightBeRevoked(Claims claims) {
+        BloomFilter current = filter;
+        return (claims.getId() != null && current.mightContain(claims.getId()))
+                || current.mightContain(RevokedToken.SUBJECT_PREFIX + claims.getSubject());
+    }
+
+    /**
+     * Whether an otherwise valid token has been revoked
+     */
+    public boolean isRevoked(Claims claims) {
+        String tokenId = claims.getId();
+        String subjectKey = RevokedToken.SUBJECT_PREFIX + claims.getSubject();
+        BloomFilter current = filter;
+
+        boolean tokenHit = tokenId != null && current.mightContain(tokenId);
+        boolean subjectHit = current.mightContain(subjectKey);
+        if (!tokenHit && !subjectHit) {
+            return false;
+        }
+
+        try {
+            if (tokenHit && isConfirmed(tokenId)) {
+                return true;
+            }
+            if (subjectHit) {
+                RevokedToken subjectRevocation = mongoTemplate.findById(subjectKey, RevokedToken.class);
+                if (subjectRevocation != null && claims.getIssuedAt() != null
+                        && toLocal(claims.getIssuedAt()).isBefore(
+                                subjectRevocation.getNotBefore().truncatedTo(ChronoUnit.SECONDS))) {
+                    return true;
+                }
+            }
+            return false;
+        } catch (Exception e) {
+            // Fail closed: a possible hit that cannot be checked is treated as revoked
+            logger.error("Could not check token revocation: {}", e.getMessage());
+            return true;
+        }
+    }
+
+    /**
+     * Apply a revocation made on another node
+     */
+    public void onRevoked(String id) {
+        filter.put(id);
+    }
+
+    /**
+     * Pick up revocations from other nodes when change streams are not available
+     */
+    @Scheduled(fixedDelayString = "${security.revocation.poll-ms:5000}")
+    public void poll() {
+        if (changeStreamsEnabled) {
+            return;
+        }
+        sync(lastSync);
+    }
+
+    /**
+     * Rebuild the filter from the collection so expired revocations stop producing hits
+     */
+    @Scheduled(fixedDelayString = "${security.revocation.rebuild-ms:3600000}",
+            initialDelayString = "${security.revocation.rebuild-ms:3600000}")
+    public void rebuild() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        BloomFilter rebuilt = new BloomFilter(expectedInsertions, falsePositiveRate);
+        int count = 0;
+        try {
+            Query query = new Query(Criteria.where("expiresAt").gt(startedAt));
+            query.fields().include("_id");
+            for (RevokedToken revoked : mongoTemplate.find(query, RevokedToken.class)) {
+                rebuilt.put(revoked.getId());
+                count++;
+            }
+        } catch (Exception e) {
+            logger.error("Failed to load revoked tokens: {}", e.getMessage());
+            if (filter != null) {
+                return;
+            }
+        }
+        filter = rebuilt;
+        confirmed.values().removeIf(expiresAt -> expiresAt.isBefore(startedAt));
+        // Catch revocations written while the filter was loading
+        sync(startedAt);
+        if (count > expectedInsertions) {
+            logger.warn("{} revoked tokens exceed the Bloom filter size of {}, false positives will rise",
+                    count, expectedInsertions);
+        }
+        logger.debug("Rebuilt token revocation filter with {} entries", count);
+    }
+
+    private void sync(LocalDateTime since) {
+        LocalDateTime startedAt = LocalDateTime.now();
+        try {
+            Query query = new Query(Criteria.where("revokedAt").gte(since != null ? since : startedAt));
+            query.fields().include("_id");
+            BloomFilter current = filter;
+            for (RevokedToken revoked : mongoTemplate.find(query, RevokedToken.class)) {
+                current.put(revoked.getId());
+            }
+            lastSync = startedAt;
+        } catch (Exception e) {
+            logger.error("Failed to sync revoked tokens: {}", e.getMessage());
+        }
+    }
+
+    private void save(RevokedToken revoked) {
+        mongoTemplate.save(revoked);
+        filter.put(revoked.getId());
+        logger.info("Revoked {} ({})", revoked.getId(), revoked.getReason());
+    }
+
+    private boolean isConfirmed(String tokenId) {
+        if (confirmed.containsKey(tokenId)) {
+            return true;
+        }
+        RevokedToken revoked = mongoTemplate.findById(tokenId, RevokedToken.class);
+        if (revoked == null) {
+            return false;
+        }
+        if (confirmed.size() >= confirmedCacheSize) {
+            confirmed.clear();
+        }
+        confirmed.put(tokenId, revoked.getExpiresAt());
+        return true;
+    }
+
+    private static LocalDateTime toLocal(Date date) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(date.getTime()), ZoneId.systemDefault());
+    }
+}
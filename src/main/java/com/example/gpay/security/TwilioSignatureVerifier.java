@@ -0,0 +1,47 @@
+package com.example.gpay.security;
+
+import com.twilio.security.RequestValidator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Checks the X-Twilio-Signature header of Twilio webhooks (an HMAC-SHA1 of the callback URL
+ * and the posted form, keyed with the account auth token). The status callback path is public,
+ * so without this anyone could rewrite delivery statuses. Fails closed when no auth token is
+ * configured.
+ */
+@Component
+public class TwilioSignatureVerifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(TwilioSignatureVerifier.class);
+
+    public static final String SIGNATURE_HEADER = "X-Twilio-Signature";
+
+    private final RequestValidator validator;
+    private final String statusCallbackUrl;
+
+    public TwilioSignatureVerifier(@Value("${twilio.auth-token:}") String authToken,
+                                   @Value("${twilio.status-callback-url:}") String statusCallbackUrl) {
+        this.validator = authToken.isBlank() ? null : new RequestValidator(authToken);
+        this.statusCallbackUrl = statusCallbackUrl;
+        if (validator == null) {
+            logger.warn("twilio.auth-token is not set, Twilio webhooks will be rejected");
+        }
+    }
+
+    /**
+     * @param requestUrl URL the request arrived on; the configured callback URL is used instead when
+     *                   set, since that is what Twilio signed and a proxy may have rewritten the other
+     */
+    public boolean isValid(String requestUrl, Map<String, String> params, String signature) {
+        if (validator == null || signature == null || signature.isBlank()) {
+            return false;
+        }
+        String url = statusCallbackUrl.isBlank() ? requestUrl : statusCallbackUrl;
+        return validator.validate(url, params, signature);
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.gpay.services;
+
+import com.example.gpay.model.Transaction;
+import com.example.gpay.model.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+/**
+ * Feeds the event stream from local repository saves.
+ * Only active on single-node deployments; with change streams enabled every node
+ * (including this one) receives the same changes from MongoDB instead.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "events.change-streams.enabled", havingValue = "false", matchIfMissing = true)
+public class AccountEventListener extends AbstractMongoEventListener<Object> {
+
+    private final EventStreamService eventStreamService;
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Object> event) {
+        Object source = event.getSource();
+        if (source instanceof Transaction transaction) {
+            eventStreamService.publishTransaction(transaction);
+        } else if (source instanceof User user) {
+            eventStreamService.publishBalance(user);
+        }
+    }
+}
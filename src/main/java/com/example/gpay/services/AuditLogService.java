@@ -0,0 +1,135 @@
+package com.example.gpay.services;
+
+import com.example.gpay.utils.RingBuffer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Access audit trail for money endpoints.
+ * Request threads only copy a few references into a preallocated ring slot; a background thread
+ * formats the records and writes them to the {@code gpay.audit} logger, one key=value line per
+ * request. When the ring is full records are dropped and counted rather than slowing requests.
+ */
+@Service
+@RequiredArgsConstructor
+public class AuditLogService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditLogService.class);
+    private static final Logger auditLogger = LoggerFactory.getLogger("gpay.audit");
+
+    private static final int DRAIN_BATCH = 256;
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${audit.buffer-size:8192}")
+    private int bufferSize;
+
+    private RingBuffer<AuditRecord> ring;
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile boolean running = true;
+    private Thread writer;
+
+    @PostConstruct
+    public void start() {
+        ring = new RingBuffer<>(bufferSize, AuditRecord::new);
+        Gauge.builder("gpay.audit.dropped", dropped, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("gpay.audit.pending", this, service -> service.ring.size()).register(meterRegistry);
+
+        writer = new Thread(this::drainLoop, "gpay-audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    /**
+     * Queue one request for the audit log; never blocks
+     */
+    public void record(String method, String path, int status, long durationNanos, String principal,
+                       String clientIp, String requestBody, String responseBody) {
+        long sequence = ring.tryClaim();
+        if (sequence < 0) {
+            dropped.incrementAndGet();
+            return;
+        }
+        AuditRecord record = ring.get(sequence);
+        record.timestampMillis = System.currentTimeMillis();
+        record.method = method;
+        record.path = path;
+        record.status = status;
+        record.durationNanos = durationNanos;
+        record.principal = principal;
+        record.clientIp = clientIp;
+        record.requestBody = requestBody;
+        record.responseBody = responseBody;
+        ring.publish(sequence);
+    }
+
+    private void drainLoop() {
+        StringBuilder line = new StringBuilder(512);
+        while (running || ring.size() > 0) {
+            try {
+                int handled = ring.drain(record -> write(record, line), DRAIN_BATCH);
+                if (handled == 0) {
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+                }
+            } catch (Exception e) {
+                logger.error("Audit writer failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void write(AuditRecord record, StringBuilder line) {
+        line.setLength(0);
+        line.append("ts=").append(Instant.ofEpochMilli(record.timestampMillis))
+                .append(" method=").append(record.method)
+                .append(" path=").append(record.path)
+                .append(" status=").append(record.status)
+                .append(" durationMs=").append(record.durationNanos / 1_000_000)
+                .append(" principal=").append(record.principal != null ? record.principal : "-")
+                .append(" ip=").append(record.clientIp);
+        if (record.requestBody != null) {
+            line.append(" request=").append(record.requestBody);
+        }
+        if (record.responseBody != null) {
+            line.append(" response=").append(record.responseBody);
+        }
+        // Release references so the ring does not keep request data alive
+        record.requestBody = null;
+        record.responseBody = null;
+        record.principal = null;
+        auditLogger.info(line.toString());
+    }
+
+    /**
+     * Reusable ring slot
+     */
+    static final class AuditRecord {
+        long timestampMillis;
+        String method;
+        String path;
+        int status;
+        long durationNanos;
+        String principal;
+        String clientIp;
+        String requestBody;
+        String responseBody;
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.gpay.services;
+
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import lombok.RequiredArgsConstructor;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonWriterSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Incremental NDJSON export of the transactions and users collections for analytics consumers.
+ * Reads MongoDB change streams instead of scanning the collections, so report load never
+ * touches the OLTP read path. Requires MongoDB to run as a replica set.
+ */
+@Service
+@RequiredArgsConstructor
+public class ChangeFeedExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChangeFeedExportService.class);
+
+    public static final Set<String> EXPORTABLE_COLLECTIONS = Set.of("transactions", "users");
+
+    private static final JsonWriterSettings JSON_SETTINGS = JsonWriterSettings.builder()
+            .outputMode(JsonMode.RELAXED)
+            .build();
+
+    private static final byte[] NEWLINE = "\n".getBytes(StandardCharsets.UTF_8);
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${export.changes.max-batch-size:1000}")
+    private int maxBatchSize;
+
+    @Value("${export.changes.max-events:50000}")
+    private int maxEvents;
+
+    @Value("${export.changes.max-duration-ms:25000}")
+    private long maxDurationMs;
+
+    @Value("${export.changes.idle-timeout-ms:5000}")
+    private long idleTimeoutMs;
+
+    /**
+     * Stream changes as NDJSON, one change per line, followed by a checkpoint line.
+     * Consumers resume from the last token they persisted. Writes block when the client
+     * reads slowly, and the cursor is only advanced after a line is written, which gives
+     * natural backpressure.
+     */
+    public void exportChanges(List<String> collections, String resumeToken, int batchSize,
+                              OutputStream outputStream) throws IOException {
+        int effectiveBatchSize = Math.max(1, Math.min(batchSize, maxBatchSize));
+
+        ChangeStreamIterable<Document> changeStream = mongoTemplate.getDb()
+                .watch(buildPipeline(collections))
+                .fullDocument(FullDocument.UPDATE_LOOKUP)
+                .batchSize(effectiveBatchSize)
+                .maxAwaitTime(Math.min(idleTimeoutMs, 1000), TimeUnit.MILLISECONDS);
+
+        if (resumeToken != null && !resumeToken.isBlank()) {
+            changeStream = changeStream.resumeAfter(new BsonDocument("_data", new BsonString(resumeToken)));
+        }
+
+        long deadline = System.currentTimeMillis() + maxDurationMs;
+        long lastEventAt = System.currentTimeMillis();
+        int written = 0;
+        int unflushed = 0;
+
+        try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = changeStream.cursor()) {
+            while (written < maxEvents && System.currentTimeMillis() < deadline) {
+                ChangeStreamDocument<Document> change = cursor.tryNext();
+
+                if (change == null) {
+                    if (unflushed > 0) {
+                        outputStream.flush();
+                        unflushed = 0;
+                    }
+                    if (System.currentTimeMillis() - lastEventAt >= idleTimeoutMs) {
+                        break;
+                    }
+                    continue;
+                }
+
+                writeLine(outputStream, toExportLine(change));
+                lastEventAt = System.currentTimeMillis();
+                written++;
+
+                if (++unflushed >= effectiveBatchSize) {
+                    outputStream.flush();
+                    unflushed = 0;
+                }
+            }
+
+            // Post-batch token lets consumers resume even when nothing matched
+            writeLine(outputStream, new Document("checkpoint", tokenValue(cursor.getResumeToken()))
+                    .append("count", written));
+            outputStream.flush();
+        }
+
+        logger.info("Exported {} changes from {}", written, collections);
+    }
+
+    private List<Bson> buildPipeline(List<String> collections) {
+        return List.of(
+                Aggregates.match(Filters.in("ns.coll", collections)),
+                // Credentials never leave the OLTP store
+                Aggregates.project(Projections.exclude(
+                        "fullDocument.password", "fullDocument.pin",
+                        "updateDescription.updatedFields.password", "updateDescription.updatedFields.pin"))
+        );
+    }
+
+    private Document toExportLine(ChangeStreamDocument<Document> change) {
+        Document line = new Document("token", tokenValue(change.getResumeToken()))
+                .append("operation", change.getOperationType() != null ? change.getOperationType().getValue() : null);
+
+        if (change.getNamespace() != null) {
+            line.append("collection", change.getNamespace().getCollectionName());
+        }
+        if (change.getClusterTime() != null) {
+            line.append("clusterTime", change.getClusterTime().getTime());
+        }
+        if (change.getDocumentKey() != null) {
+            line.append("key", change.getDocumentKey());
+        }
+        if (change.getFullDocument() != null) {
+            line.append("document", change.getFullDocument());
+        }
+        if (change.getUpdateDescription() != null && change.getUpdateDescription().getRemovedFields() != null) {
+            line.append("removedFields", change.getUpdateDescription().getRemovedFields());
+        }
+        return line;
+    }
+
+    private String tokenValue(BsonDocument token) {
+        if (token == null) {
+            return null;
+        }
+        BsonValue data = token.get("_data");
+        return data != null && data.isString() ? data.asString().getValue() : token.toJson();
+    }
+
+    private void writeLine(OutputStream outputStream, Document line) throws IOException {
+        outputStream.write(line.toJson(JSON_SETTINGS).getBytes(StandardCharsets.UTF_8));
+        outputStream.write(NEWLINE);
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.gpay.services;
+
+import com.twilio.exception.ApiException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process stand-in for Twilio used by the {@code sms-sink} profile.
+ * Simulates provider latency, failures and 429 throttling, and keeps the most recent
+ * delivered messages so load tests can inspect what would have been sent.
+ */
+@Component
+@Profile("sms-sink")
+public class EmbeddedSmsGateway implements SmsGateway {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmbeddedSmsGateway.class);
+
+    @Value("${sms-sink.latency-ms:250}")
+    private long latencyMs;
+
+    @Value("${sms-sink.latency-jitter-ms:150}")
+    private long latencyJitterMs;
+
+    @Value("${sms-sink.error-rate:0.0}")
+    private double errorRate;
+
+    @Value("${sms-sink.throttle-rate:0.0}")
+    private double throttleRate;
+
+    @Value("${sms-sink.record-limit:10000}")
+    private int recordLimit;
+
+    private final ConcurrentLinkedDeque<SinkMessage> delivered = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger recorded = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong deliveredCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong throttledCount = new AtomicLong();
+
+    @Override
+    public String send(String phoneNumber, String message) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        sleep(latencyMs + (latencyJitterMs > 0 ? random.nextLong(latencyJitterMs + 1) : 0));
+
+        double roll = random.nextDouble();
+        if (roll < throttleRate) {
+            throttledCount.incrementAndGet();
+            throw new ApiException("Too Many Requests", 20429, null, 429, null);
+        }
+        if (roll < throttleRate + errorRate) {
+            failedCount.incrementAndGet();
+            throw new ApiException("Simulated provider error", 30008, null, 500, null);
+        }
+
+        String sid = String.format("SM%032x", sequence.incrementAndGet());
+        delivered.addLast(new SinkMessage(sid, phoneNumber, message, LocalDateTime.now()));
+        deliveredCount.incrementAndGet();
+        if (recorded.incrementAndGet() > recordLimit && delivered.pollFirst() != null) {
+            recorded.decrementAndGet();
+        }
+        logger.debug("SMS sink accepted {} for {}", sid, phoneNumber);
+        return sid;
+    }
+
+    /**
+     * Most recent delivered messages, newest first
+     */
+    public List<SinkMessage> getDelivered(int limit) {
+        List<SinkMessage> messages = new ArrayList<>(Math.min(limit, recordLimit));
+        Iterator<SinkMessage> iterator = delivered.descendingIterator();
+        while (iterator.hasNext() && messages.size() < limit) {
+            messages.add(iterator.next());
+        }
+        return messages;
+    }
+
+    public long getDeliveredCount() {
+        return deliveredCount.get();
+    }
+
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    public long getThrottledCount() {
+        return throttledCount.get();
+    }
+
+    /**
+     * Forget recorded messages and counters
+     */
+    public void reset() {
+        delivered.clear();
+        recorded.set(0);
+        deliveredCount.set(0);
+        failedCount.set(0);
+        throttledCount.set(0);
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("SMS sink interrupted", e);
+        }
+    }
+
+    /**
+     * A message the sink accepted
+     */
+    public record SinkMessage(String sid, String phoneNumber, String message, LocalDateTime deliveredAt) {
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.gpay.services;
+
+import com.example.gpay.dto.AccountEvent;
+import com.example.gpay.model.Transaction;
+import com.example.gpay.model.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process event bus that fans account events out to the users' open SSE streams.
+ * Each user is hashed to one single-threaded dispatch lane, so a user's events reach the
+ * stream in the order they were published (PENDING before COMPLETED).
+ */
+@Service
+public class EventStreamService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventStreamService.class);
+
+    private final Map<String, Set<SseEmitter>> emitters = new ConcurrentHashMap<>();
+    private final long emitterTimeout;
+    private final ThreadPoolExecutor[] dispatchLanes;
+    private final Counter droppedCounter;
+
+    public EventStreamService(@Value("${events.stream.timeout-ms:1800000}") long emitterTimeout,
+                              @Value("${events.stream.dispatch-threads:2}") int dispatchThreads,
+                              @Value("${events.stream.queue-capacity:10000}") int queueCapacity,
+                              MeterRegistry meterRegistry) {
+        this.emitterTimeout = emitterTimeout;
+        this.droppedCounter = meterRegistry.counter("gpay.events.dropped");
+
+        int lanes = Math.max(1, dispatchThreads);
+        int laneCapacity = Math.max(1, queueCapacity / lanes);
+        this.dispatchLanes = new ThreadPoolExecutor[lanes];
+        for (int i = 0; i < lanes; i++) {
+            String threadName = "gpay-events-" + (i + 1);
+            dispatchLanes[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(laneCapacity),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, threadName);
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    new ThreadPoolExecutor.AbortPolicy());
+        }
+    }
+
+    /**
+     * Open a new stream for the given user
+     */
+    public SseEmitter subscribe(String userId) {
+        SseEmitter emitter = new SseEmitter(emitterTimeout);
+        Set<SseEmitter> userEmitters = emitters.computeIfAbsent(userId, key -> new CopyOnWriteArraySet<>());
+        userEmitters.add(emitter);
+
+        Runnable cleanup = () -> removeEmitter(userId, emitter);
+        emitter.onCompletion(cleanup);
+        emitter.onTimeout(cleanup);
+        emitter.onError(error -> cleanup.run());
+
+        logger.debug("Opened event stream for user {} ({} open)", userId, userEmitters.size());
+        return emitter;
+    }
+
+    /**
+     * Publish an account event to the user it belongs to
+     */
+    public void publish(AccountEvent event) {
+        publish(event.getUserId(), event.getType(), event);
+    }
+
+    /**
+     * Publish an arbitrary named event to every open stream of a user
+     */
+    public void publish(String userId, String eventName, Object payload) {
+        if (userId == null || !emitters.containsKey(userId)) {
+            return;
+        }
+        ThreadPoolExecutor lane = dispatchLanes[Math.floorMod(userId.hashCode(), dispatchLanes.length)];
+        try {
+            lane.execute(() -> send(userId, eventName, payload));
+        } catch (RejectedExecutionException e) {
+            // Clients re-sync from the history endpoints, so dropping under overload is safe
+            droppedCounter.increment();
+            logger.warn("Event stream dispatch queue full, dropping {} event for user {}", eventName, userId);
+        }
+    }
+
+    /**
+     * Publish a transaction change to both the owner and, for transfers, the recipient
+     */
+    public void publishTransaction(Transaction transaction) {
+        publish(AccountEvent.transactionUpdated(transaction.getUserId(), transaction));
+        if (transaction.getRecipientId() != null && !transaction.getRecipientId().equals(transaction.getUserId())) {
+            publish(AccountEvent.transactionUpdated(transaction.getRecipientId(), transaction));
+        }
+    }
+
+    /**
+     * Publish a user's current balance
+     */
+    public void publishBalance(User user) {
+        publish(AccountEvent.balanceUpdated(user));
+    }
+
+    public int getOpenStreamCount() {
+        return emitters.values().stream().mapToInt(Set::size).sum();
+    }
+
+    /**
+     * Keep idle connections alive through proxies and detect dead clients
+     */
+    @Scheduled(fixedRateString = "${events.stream.heartbeat-ms:25000}")
+    public void sendHeartbeats() {
+        emitters.forEach((userId, userEmitters) -> userEmitters.forEach(emitter -> {
+            try {
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+            } catch (IOException | IllegalStateException e) {
+                removeEmitter(userId, emitter);
+            }
+        }));
+    }
+
+    private void send(String userId, String eventName, Object payload) {
+        Set<SseEmitter> userEmitters = emitters.get(userId);
+        if (userEmitters == null) {
+            return;
+        }
+
+        for (SseEmitter emitter : userEmitters) {
+            try {
+                emitter.send(SseEmitter.event().name(eventName).data(payload));
+            } catch (IOException | IllegalStateException e) {
+                logger.debug("Dropping closed event stream for user {}: {}", userId, e.getMessage());
+                removeEmitter(userId, emitter);
+            }
+        }
+    }
+
+    private void removeEmitter(String userId, SseEmitter emitter) {
+        emitters.computeIfPresent(userId, (key, userEmitters) -> {
+            userEmitters.remove(emitter);
+            return userEmitters.isEmpty() ? null : userEmitters;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (ThreadPoolExecutor lane : dispatchLanes) {
+            lane.shutdown();
+        }
+        emitters.values().forEach(userEmitters -> userEmitters.forEach(SseEmitter::complete));
+        emitters.clear();
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.gpay.services;
+
+import com.example.gpay.utils.TimingWheel;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Single node OTP store.
+ * The map is bounded and entries are expired by a timing wheel, so housekeeping cost
+ * depends on how many codes expire rather than on how many are pending.
+ */
+@Service
+@ConditionalOnProperty(name = "otp.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryOtpStore implements OtpStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryOtpStore.class);
+
+    @Value("${otp.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${otp.memory.max-entries:100000}")
+    private int maxEntries;
+
+    @Value("${otp.memory.tick-ms:1000}")
+    private long tickMs;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private TimingWheel<String> expiryWheel;
+    private ScheduledExecutorService ticker;
+
+    @PostConstruct
+    public void start() {
+        expiryWheel = new TimingWheel<>(Duration.ofMillis(tickMs), 512);
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "gpay-otp-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::expire, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void save(String phoneNumber, String otp, Duration validity) {
+        if (entries.size() >= maxEntries && !entries.containsKey(phoneNumber)) {
+            logger.warn("OTP store is full ({} pending codes)", entries.size());
+            throw new RuntimeException("Too many pending OTPs, please try again later");
+        }
+        long expiresAt = System.nanoTime() + validity.toNanos();
+        entries.put(phoneNumber, new Entry(otp, expiresAt));
+        expiryWheel.schedule(phoneNumber, expiresAt);
+    }
+
+    @Override
+    public Result verify(String phoneNumber, String otp) {
+        Entry entry = entries.get(phoneNumber);
+        if (entry == null) {
+            return Result.NOT_FOUND;
+        }
+        if (entry.isExpired(System.nanoTime())) {
+            entries.remove(phoneNumber, entry);
+            return Result.EXPIRED;
+        }
+        if (entry.attempts.incrementAndGet() > maxAttempts) {
+            return Result.TOO_MANY_ATTEMPTS;
+        }
+        if (!MessageDigest.isEqual(entry.otp, otp.getBytes(StandardCharsets.UTF_8))) {
+            return Result.INVALID;
+        }
+        // Only one of several concurrent correct submissions may use the code
+        return entries.remove(phoneNumber, entry) ? Result.VALID : Result.NOT_FOUND;
+    }
+
+    private void expire() {
+        try {
+            // A key may have been re-saved since it was scheduled; only drop entries that are really due
+            expiryWheel.advance(phoneNumber -> entries.computeIfPresent(phoneNumber,
+                    (key, entry) -> entry.isExpired(System.nanoTime()) ? null : entry));
+        } catch (Exception e) {
+            logger.error("OTP expiry tick failed: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        ticker.shutdownNow();
+    }
+
+    private static class Entry {
+        private final byte[] otp;
+        private final long expiresAt;
+        private final AtomicInteger attempts = new AtomicInteger();
+
+        Entry(String otp, long expiresAt) {
+            this.otp = otp.getBytes(StandardCharsets.UTF_8);
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(long now) {
+            return now - expiresAt >= 0;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.gpay.services;
+
+import com.example.gpay.utils.SlidingWindowLimiter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Single node rate limit counters.
+ * Limits apply per application instance, so with N replicas behind a load balancer
+ * a caller can get up to N times the configured rate.
+ */
+@Service
+@ConditionalOnProperty(name = "security.rate-limiting.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryRateLimitStore implements RateLimitStore {
+
+    @Value("${security.rate-limiting.memory.stripes:16}")
+    private int stripes;
+
+    @Value("${security.rate-limiting.memory.max-keys:100000}")
+    private int maxKeys;
+
+    private final Map<String, SlidingWindowLimiter> limiters = new ConcurrentHashMap<>();
+
+    @Override
+    public long tryAcquire(String bucket, String key, int limit, Duration window) {
+        SlidingWindowLimiter limiter = limiters.computeIfAbsent(bucket,
+                name -> new SlidingWindowLimiter(limit, window, stripes, maxKeys));
+        return RateLimitStore.waitMillis(limiter.tryAcquire(key));
+    }
+
+    /**
+     * Forget callers that have been quiet for a full window
+     */
+    @Scheduled(fixedDelayString = "${security.rate-limiting.memory.evict-ms:60000}")
+    public void evictIdle() {
+        limiters.values().forEach(SlidingWindowLimiter::evictIdle);
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.gpay.services;
+
+import com.example.gpay.model.InboxMessage;
+import com.example.gpay.repository.InboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * In-app notification channel.
+ * Messages are stored in the user's inbox and, for the push channel, also sent to the
+ * user's open event streams, so delivery costs one insert instead of an SMS round trip.
+ */
+@Service
+@RequiredArgsConstructor
+public class InboxService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InboxService.class);
+
+    public static final String PUSH_EVENT = "NOTIFICATION";
+
+    private final InboxRepository inboxRepository;
+    private final MongoTemplate mongoTemplate;
+    private final EventStreamService eventStreamService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${notification.inbox.retention-days:30}")
+    private long retentionDays;
+
+    @Value("${notification.inbox.max-page-size:100}")
+    private int maxPageSize;
+
+    private Counter deliveredCounter;
+
+    @PostConstruct
+    public void start() {
+        deliveredCounter = meterRegistry.counter("gpay.notifications.inbox.delivered");
+        try {
+            IndexOperations indexOps = mongoTemplate.indexOps(InboxMessage.class);
+            indexOps.ensureIndex(new Index().on("userId", Sort.Direction.ASC)
+                    .on("createdAt", Sort.Direction.DESC));
+            indexOps.ensureIndex(new Index().on("createdAt", Sort.Direction.ASC)
+                    .expire(Duration.ofDays(retentionDays)));
+        } catch (Exception e) {
+            logger.error("Failed to ensure inbox indexes: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Store a notification in the inbox and optionally push it to open streams
+     */
+    public InboxMessage deliver(String userId, String type, String message, boolean push) {
+        InboxMessage inboxMessage = inboxRepository.insert(InboxMessage.builder()
+                .userId(userId)
+                .type(type)
+                .message(message)
+                .read(false)
+                .createdAt(LocalDateTime.now())
+                .build());
+        deliveredCounter.increment();
+        if (push) {
+            eventStreamService.publish(userId, PUSH_EVENT, inboxMessage);
+        }
+        return inboxMessage;
+    }
+
+    /**
+     * Latest inbox messages, newest first
+     */
+    public List<InboxMessage> getInbox(String userId, int page, int size) {
+        int pageSize = Math.max(1, Math.min(size, maxPageSize));
+        return inboxRepository.findByUserIdOrderByCreatedAtDesc(userId, PageRequest.of(Math.max(page, 0), pageSize));
+    }
+
+    public long countUnread(String userId) {
+        return inboxRepository.countByUserIdAndReadFalse(userId);
+    }
+
+    /**
+     * Mark one message as read
+     */
+    public boolean markRead(String userId, String messageId) {
+        return mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(messageId).and("userId").is(userId).and("read").is(false)),
+                new Update().set("read", true).set("readAt", LocalDateTime.now()),
+                InboxMessage.class).getModifiedCount() > 0;
+    }
+
+    /**
+     * Mark every unread message of the user as read
+     */
+    public long markAllRead(String userId) {
+        return mongoTemplate.updateMulti(
+                Query.query(Criteria.where("userId").is(userId).and("read").is(false)),
+                new Update().set("read", true).set("readAt", LocalDateTime.now()),
+                InboxMessage.class).getModifiedCount();
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.gpay.services;
+
+import com.example.gpay.model.OtpCode;
+import com.example.gpay.utils.HashUtils;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OTP store shared by every application node.
+ * Codes live in the TTL-indexed {@code otps} collection as SHA-256 hashes and attempts are
+ * counted with a single findAndModify, so the limit holds across replicas. Phone numbers whose
+ * code is known to be exhausted are remembered in a small near-cache, which keeps brute-force
+ * retries from reaching the database.
+ */
+@Service
+@ConditionalOnProperty(name = "otp.store", havingValue = "mongo")
+@RequiredArgsConstructor
+public class MongoOtpStore implements OtpStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(MongoOtpStore.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${otp.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${otp.mongo.near-cache-size:10000}")
+    private int nearCacheSize;
+
+    @Value("${otp.mongo.near-cache-ttl-ms:10000}")
+    private long nearCacheTtlMs;
+
+    private final Map<String, Long> exhausted = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void ensureIndexes() {
+        try {
+            mongoTemplate.indexOps(OtpCode.class)
+                    .ensureIndex(new Index().on("expiresAt", Sort.Direction.ASC).expire(Duration.ZERO));
+        } catch (Exception e) {
+            logger.error("Failed to ensure OTP indexes: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void save(String phoneNumber, String otp, Duration validity) {
+        LocalDateTime now = LocalDateTime.now();
+        mongoTemplate.save(OtpCode.builder()
+                .phoneNumber(phoneNumber)
+                .codeHash(hash(phoneNumber, otp))
+                .attempts(0)
+                .expiresAt(now.plus(validity))
+                .createdAt(now)
+                .build());
+        exhausted.remove(phoneNumber);
+    }
+
+    @Override
+    public Result verify(String phoneNumber, String otp) {
+        Long blockedUntil = exhausted.get(phoneNumber);
+        if (blockedUntil != null) {
+            if (blockedUntil - System.nanoTime() > 0) {
+                return Result.TOO_MANY_ATTEMPTS;
+            }
+            exhausted.remove(phoneNumber, blockedUntil);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        OtpCode code = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(phoneNumber)
+                        .and("expiresAt").gt(now)
+                        .and("attempts").lt(maxAttempts)),
+                new Update().inc("attempts", 1),
+                FindAndModifyOptions.options().returnNew(true),
+                OtpCode.class);
+
+        if (code == null) {
+            OtpCode existing = mongoTemplate.findById(phoneNumber, OtpCode.class);
+            if (existing == null) {
+                return Result.NOT_FOUND;
+            }
+            if (!existing.getExpiresAt().isAfter(now)) {
+                return Result.EXPIRED;
+            }
+            remember(phoneNumber, existing.getExpiresAt(), now);
+            return Result.TOO_MANY_ATTEMPTS;
+        }
+
+        String submitted = hash(phoneNumber, otp);
+        if (!HashUtils.digestsEqual(code.getCodeHash(), submitted)) {
+            if (code.getAttempts() >= maxAttempts) {
+                remember(phoneNumber, code.getExpiresAt(), now);
+            }
+            return Result.INVALID;
+        }
+
+        // Deleting by hash makes the code single use even if two nodes verify it at once
+        long deleted = mongoTemplate.remove(
+                Query.query(Criteria.where("_id").is(phoneNumber).and("codeHash").is(submitted)),
+                OtpCode.class).getDeletedCount();
+        return deleted > 0 ? Result.VALID : Result.NOT_FOUND;
+    }
+
+    private void remember(String phoneNumber, LocalDateTime expiresAt, LocalDateTime now) {
+        long remainingMs = Math.min(Duration.between(now, expiresAt).toMillis(), nearCacheTtlMs);
+        if (remainingMs <= 0) {
+            return;
+        }
+        if (exhausted.size() >= nearCacheSize) {
+            long nanoNow = System.nanoTime();
+            exhausted.values().removeIf(until -> until - nanoNow <= 0);
+            if (exhausted.size() >= nearCacheSize) {
+                exhausted.clear();
+            }
+        }
+        exhausted.put(phoneNumber, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(remainingMs));
+    }
+
+    /**
+     * The phone number salts the hash so equal codes for different users differ
+     */
+    private static String hash(String phoneNumber, String otp) {
+        return HashUtils.sha256Hex(phoneNumber + ":" + otp);
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.gpay.services;
+
+import com.example.gpay.model.RateLimitWindow;
+import com.example.gpay.utils.SlidingWindowLimiter;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rate limit counters shared by every application node.
+ * Counts live in the TTL-indexed {@code rate_limits} collection, one document per caller and
+ * window, incremented with a single upsert. Requests a node would already reject from its own
+ * traffic are answered locally, and closed windows are cached since their count no longer
+ * changes, so each allowed request costs one database round trip. Requests rejected by the
+ * shared count still count, which keeps a client that ignores Retry-After blocked.
+ * If MongoDB is unreachable the local limit still applies.
+ */
+@Service
+@ConditionalOnProperty(name = "security.rate-limiting.store", havingValue = "mongo")
+@RequiredArgsConstructor
+public class MongoRateLimitStore implements RateLimitStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(MongoRateLimitStore.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${security.rate-limiting.memory.stripes:16}")
+    private int stripes;
+
+    @Value("${security.rate-limiting.memory.max-keys:100000}")
+    private int maxKeys;
+
+    @Value("${security.rate-limiting.mongo.closed-window-cache-size:10000}")
+    private int closedWindowCacheSize;
+
+    private final Map<String, SlidingWindowLimiter> localLimiters = new ConcurrentHashMap<>();
+    private final Map<String, Long> closedWindows = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void ensureIndexes() {
+        try {
+            mongoTemplate.indexOps(RateLimitWindow.class)
+                    .ensureIndex(new Index().on("expiresAt", Sort.Direction.ASC).expire(Duration.ZERO));
+        } catch (Exception e) {
+            logger.error("Failed to ensure rate limit indexes: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public long tryAcquire(String bucket, String key, int limit, Duration window) {
+        SlidingWindowLimiter local = localLimiters.computeIfAbsent(bucket,
+                name -> new SlidingWindowLimiter(limit, window, stripes, maxKeys));
+        long localWait = local.tryAcquire(key);
+        if (localWait > 0) {
+            return RateLimitStore.waitMillis(localWait);
+        }
+
+        long windowMs = window.toMillis();
+        long nowMs = System.currentTimeMillis();
+        long index = nowMs / windowMs;
+        long intoWindow = nowMs - index * windowMs;
+        String prefix = bucket + "|" + key + "|";
+
+        try {
+            RateLimitWindow current = mongoTemplate.findAndModify(
+                    Query.query(Criteria.where("_id").is(prefix + index)),
+                    new Update().inc("count", 1)
+                            .setOnInsert("expiresAt", toLocal((index + 2) * windowMs)),
+                    FindAndModifyOptions.options().upsert(true).returnNew(true),
+                    RateLimitWindow.class);
+            long currentCount = current != null ? current.getCount() : 1;
+            long previousCount = previousCount(prefix + (index - 1));
+
+            double weight = 1.0 - (double) intoWindow / windowMs;
+            if (previousCount * weight + currentCount <= limit) {
+                return 0;
+            }
+            if (currentCount > limit || previousCount == 0) {
+                return windowMs - intoWindow;
+            }
+            double requiredShare = 1.0 - (double) (limit - currentCount) / previousCount;
+            return Math.max(1, Math.min((long) (requiredShare * windowMs) - intoWindow, windowMs - intoWindow));
+        } catch (Exception e) {
+            logger.warn("Shared rate limit unavailable, using the local limit only: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${security.rate-limiting.memory.evict-ms:60000}")
+    public void evictIdle() {
+        localLimiters.values().forEach(SlidingWindowLimiter::evictIdle);
+        closedWindows.clear();
+    }
+
+    private long previousCount(String id) {
+        Long cached = closedWindows.get(id);
+        if (cached != null) {
+            return cached;
+        }
+        RateLimitWindow previous = mongoTemplate.findById(id, RateLimitWindow.class);
+        long count = previous != null ? previous.getCount() : 0;
+        if (closedWindows.size() >= closedWindowCacheSize) {
+            closedWindows.clear();
+        }
+        closedWindows.put(id, count);
+        return count;
+    }
+
+    private static LocalDateTime toLocal(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
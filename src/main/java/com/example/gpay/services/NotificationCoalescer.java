@@ -0,0 +1,280 @@
+package com.example.gpay.services;
+
+import com.example.gpay.dto.NotificationContent;
+import com.example.gpay.model.InboxMessage;
+import com.example.gpay.model.NotificationChannel;
+import com.example.gpay.model.NotificationPriority;
+import com.example.gpay.services.NotificationRecipientResolver.Recipient;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Merges notifications for the same phone number that arrive within a short window into
+ * a single SMS, e.g. "Transfer sent! ... New balance: 900.00 XAF". Later deposit, withdrawal
+ * and balance messages supersede earlier ones of the same kind. OTPs are never delayed.
+ * Messages are rendered here, in the recipient's language, once the window closes, and routed
+ * to the channel the recipient chose for each event type. Only the SMS parts are merged.
+ */
+@Service
+@RequiredArgsConstructor
+public class NotificationCoalescer {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationCoalescer.class);
+
+    private final NotificationDispatcher notificationDispatcher;
+    private final NotificationTemplateEngine templateEngine;
+    private final NotificationRecipientResolver recipientResolver;
+    private final InboxService inboxService;
+
+    @Value("${notification.coalesce.enabled:true}")
+    private boolean enabled;
+
+    @Value("${notification.coalesce.window-ms:1500}")
+    private long windowMs;
+
+    @Value("${notification.coalesce.max-parts:5}")
+    private int maxParts;
+
+    @Value("${notification.coalesce.flush-threads:2}")
+    private int flushThreads;
+
+    private final Map<String, PendingBatch> pending = new ConcurrentHashMap<>();
+    private ScheduledExecutorService flushScheduler;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadCount = new AtomicInteger();
+        flushScheduler = Executors.newScheduledThreadPool(flushThreads, runnable -> {
+            Thread thread = new Thread(runnable, "gpay-sms-coalescer-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Queue a notification part
+     * @return future completed with the id of the SMS or inbox message that carried this part
+     */
+    public CompletableFuture<String> submit(String phoneNumber, NotificationContent content,
+                                            NotificationPriority priority) {
+        if (priority == NotificationPriority.OTP) {
+            String language = recipientResolver.resolve(phoneNumber).language();
+            String message = templateEngine.render(language, content);
+            return notificationDispatcher.submit(phoneNumber, message,
+                    content.isSecret() ? content.toLogString() : message, content.getType(), priority);
+        }
+
+        Part part = new Part(content, priority);
+        if (!enabled) {
+            PendingBatch single = new PendingBatch(phoneNumber);
+            single.add(part);
+            deliver(single);
+            return part.future;
+        }
+
+        PendingBatch[] flushNow = new PendingBatch[1];
+
+        pending.compute(phoneNumber, (key, batch) -> {
+            if (batch == null) {
+                batch = new PendingBatch(phoneNumber);
+                PendingBatch scheduled = batch;
+                flushScheduler.schedule(() -> flush(scheduled), windowMs, TimeUnit.MILLISECONDS);
+            }
+            batch.add(part);
+            if (batch.parts.size() >= maxParts) {
+                flushNow[0] = batch;
+            }
+            return batch;
+        });
+
+        if (flushNow[0] != null) {
+            flush(flushNow[0]);
+        }
+        return part.future;
+    }
+
+    private void flush(PendingBatch batch) {
+        // Only the scheduled task or the size trigger that wins the removal sends the batch
+        if (pending.remove(batch.phoneNumber, batch)) {
+            deliver(batch);
+        }
+    }
+
+    /**
+     * Route every part to the recipient's channel; the SMS parts go out as one message
+     */
+    private void deliver(PendingBatch batch) {
+        try {
+            Recipient recipient = recipientResolver.resolve(batch.phoneNumber);
+            List<Part> smsParts = new ArrayList<>();
+            for (Part part : batch.parts) {
+                NotificationChannel channel = recipient.channelFor(part.type, part.priority);
+                if (channel == NotificationChannel.SMS || !deliverInApp(recipient, part, channel)) {
+                    smsParts.add(part);
+                }
+            }
+
+            // Superseded parts settle with whatever carried the rest of the batch
+            CompletableFuture<String> delivery = smsParts.isEmpty()
+                    ? CompletableFuture.completedFuture(null)
+                    : sendSms(batch.phoneNumber, recipient.language(), smsParts);
+            forward(delivery, batch.allParts);
+        } catch (Exception e) {
+            logger.error("Failed to deliver notifications for {}: {}", batch.phoneNumber, e.getMessage());
+            forward(CompletableFuture.failedFuture(e), batch.allParts);
+        }
+    }
+
+    private boolean deliverInApp(Recipient recipient, Part part, NotificationChannel channel) {
+        try {
+            String message = templateEngine.render(recipient.language(), part.content);
+            InboxMessage delivered = inboxService.deliver(recipient.userId(), part.type, message,
+                    channel == NotificationChannel.PUSH);
+            part.future.complete(delivered.getId());
+            return true;
+        } catch (Exception e) {
+            logger.warn("In-app delivery of {} failed for {}, falling back to SMS: {}",
+                    part.type, recipient.userId(), e.getMessage());
+            return false;
+        }
+    }
+
+    private CompletableFuture<String> sendSms(String phoneNumber, String language, List<Part> parts) {
+        StringBuilder message = templateEngine.buffer();
+
+        if (parts.size() == 1) {
+            Part part = parts.get(0);
+            templateEngine.renderInto(message, language, part.content, false);
+            return notificationDispatcher.submit(phoneNumber, message.toString(), part.type, part.priority);
+        }
+
+        StringBuilder type = new StringBuilder();
+        NotificationPriority priority = NotificationPriority.BALANCE;
+        Part balancePart = null;
+
+        for (Part part : parts) {
+            if (part.priority.ordinal() < priority.ordinal()) {
+                priority = part.priority;
+            }
+            // The balance always closes the composed message
+            if ("BALANCE_UPDATE".equals(part.type)) {
+                balancePart = part;
+                continue;
+            }
+            appendPart(message, type, language, part, false);
+        }
+        if (balancePart != null) {
+            appendPart(message, type, language, balancePart, true);
+        }
+
+        logger.debug("Coalesced {} notifications for {} into one SMS", parts.size(), phoneNumber);
+        return notificationDispatcher.submit(phoneNumber, message.toString(), type.toString(), priority);
+    }
+
+    private void appendPart(StringBuilder message, StringBuilder type, String language, Part part,
+                            boolean compact) {
+        if (message.length() > 0) {
+            message.append(' ');
+            type.append('+');
+        }
+        templateEngine.renderInto(message, language, part.content, compact);
+        type.append(part.type);
+    }
+
+    private void forward(CompletableFuture<String> delivery, List<Part> parts) {
+        delivery.whenComplete((messageId, error) -> {
+            for (Part part : parts) {
+                if (error != null) {
+                    part.future.completeExceptionally(error);
+                } else {
+                    part.future.complete(messageId);
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        flushScheduler.shutdown();
+        // Send whatever is still waiting rather than losing it
+        new ArrayList<>(pending.values()).forEach(this::flush);
+    }
+
+    /**
+     * Notifications waiting for the window to close
+     */
+    private static class PendingBatch {
+        private final String phoneNumber;
+        private final List<Part> parts = new ArrayList<>();
+        private final List<Part> allParts = new ArrayList<>();
+
+        PendingBatch(String phoneNumber) {
+            this.phoneNumber = phoneNumber;
+        }
+
+        void add(Part part) {
+            allParts.add(part);
+            String kind = supersedeKind(part.type);
+            if (kind != null) {
+                Iterator<Part> iterator = parts.iterator();
+                while (iterator.hasNext()) {
+                    if (kind.equals(supersedeKind(iterator.next().type))) {
+                        iterator.remove();
+                    }
+                }
+            }
+            parts.add(part);
+        }
+
+        /**
+         * Messages of the same kind describe the same state, only the latest one matters
+         */
+        private static String supersedeKind(String type) {
+            if (type == null) {
+                return null;
+            }
+            if (type.startsWith("DEPOSIT_")) {
+                return "DEPOSIT";
+            }
+            if (type.startsWith("WITHDRAWAL_")) {
+                return "WITHDRAWAL";
+            }
+            if ("BALANCE_UPDATE".equals(type)) {
+                return type;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * A single notification inside a batch
+     */
+    private static class Part {
+        private final NotificationContent content;
+        private final String type;
+        private final NotificationPriority priority;
+        private final CompletableFuture<String> future = new CompletableFuture<>();
+
+        Part(NotificationContent content, NotificationPriority priority) {
+            this.content = content;
+            this.type = content.getType();
+            this.priority = priority;
+        }
+    }
+}
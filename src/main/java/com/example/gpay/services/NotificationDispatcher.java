@@ -0,0 +1,375 @@
+package com.example.gpay.services;
+
+import com.example.gpay.model.NotificationPriority;
+import com.example.gpay.model.NotificationRecord;
+import com.example.gpay.utils.TokenBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Dedicated SMS sender with one bounded queue per priority lane.
+ * Workers always drain the highest priority lane first, so OTPs are not stuck behind
+ * bursts of transfer and balance messages. Other SMS are throttled by a per-phone and a
+ * global token bucket when they are sent, and deferred while over budget. OTPs have buckets of
+ * their own, checked by {@link #admitOtp} before the code is issued, so a refused OTP is
+ * reported to the caller instead of failing silently later. Failed sends are retried with
+ * exponential backoff.
+ */
+@Service
+@RequiredArgsConstructor
+public class NotificationDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    private final SmsGateway smsGateway;
+    private final NotificationLogWriter notificationLogWriter;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${notification.dispatcher.workers:4}")
+    private int workerCount;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Value("${notification.dispatcher.queue-capacity:500}")
+    private int queueCapacity;
+
+    @Value("${notification.dispatcher.max-defer-ms:600000}")
+    private long maxDeferMs;
+
+    @Value("${notification.dispatcher.max-in-flight:64}")
+    private int maxInFlight;
+
+    @Value("${notification.retry.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${notification.retry.delay:1000}")
+    private long retryDelayMs;
+
+    @Value("${notification.retry.max-delay:30000}")
+    private long maxRetryDelayMs;
+
+    @Value("${sms.rate-limit.per-phone:5}")
+    private int perPhoneLimit;
+
+    @Value("${sms.rate-limit.per-hour:100}")
+    private int globalLimit;
+
+    @Value("${sms.rate-limit.otp.per-phone:5}")
+    private int otpPerPhoneLimit;
+
+    @Value("${sms.rate-limit.otp.per-hour:100}")
+    private int otpGlobalLimit;
+
+    private final Map<NotificationPriority, BlockingQueue<SmsJob>> lanes = new EnumMap<>(NotificationPriority.class);
+    private final Semaphore pendingJobs = new Semaphore(0);
+    private Semaphore inFlight;
+    private final Map<String, TokenBucket> phoneBuckets = new ConcurrentHashMap<>();
+    private final Map<String, TokenBucket> otpPhoneBuckets = new ConcurrentHashMap<>();
+    private final AtomicInteger deferredJobs = new AtomicInteger();
+    private final List<Thread> workers = new ArrayList<>();
+
+    private TokenBucket globalBucket;
+    private TokenBucket otpGlobalBucket;
+    private ScheduledExecutorService retryScheduler;
+    private volatile boolean running;
+
+    private Counter sentCounter;
+    private Counter failedCounter;
+    private Counter retriedCounter;
+    private Counter rateLimitedCounter;
+    private Counter rejectedCounter;
+    private final Map<NotificationPriority, Timer> deliveryLag = new EnumMap<>(NotificationPriority.class);
+
+    @PostConstruct
+    public void start() {
+        for (NotificationPriority priority : NotificationPriority.values()) {
+            BlockingQueue<SmsJob> lane = new ArrayBlockingQueue<>(queueCapacity);
+            lanes.put(priority, lane);
+            Gauge.builder("gpay.notifications.queue.depth", lane, BlockingQueue::size)
+                    .tag("lane", priority.name())
+                    .register(meterRegistry);
+            deliveryLag.put(priority, Timer.builder("gpay.notifications.lag")
+                    .tag("lane", priority.name())
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry));
+        }
+        Gauge.builder("gpay.notifications.deferred", deferredJobs, AtomicInteger::get).register(meterRegistry);
+
+        sentCounter = meterRegistry.counter("gpay.notifications.sent");
+        failedCounter = meterRegistry.counter("gpay.notifications.failed");
+        retriedCounter = meterRegistry.counter("gpay.notifications.retried");
+        rateLimitedCounter = meterRegistry.counter("gpay.notifications.rate-limited");
+        rejectedCounter = meterRegistry.counter("gpay.notifications.rejected");
+
+        globalBucket = new TokenBucket(globalLimit, Duration.ofHours(1));
+        otpGlobalBucket = new TokenBucket(otpGlobalLimit, Duration.ofHours(1));
+        inFlight = new Semaphore(maxInFlight);
+        retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "gpay-sms-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        running = true;
+        for (int i = 1; i <= workerCount; i++) {
+            // Workers spend nearly all their time waiting on the SMS gateway
+            Thread worker = virtualThreads
+                    ? Thread.ofVirtual().name("gpay-sms-" + i).start(this::runWorker)
+                    : Thread.ofPlatform().name("gpay-sms-" + i).daemon(true).start(this::runWorker);
+            workers.add(worker);
+        }
+        logger.info("Notification dispatcher started with {} workers, lane capacity {}", workerCount, queueCapacity);
+    }
+
+    /**
+     * Take one OTP send from the phone's and the global OTP budget
+     * @throws SmsRateLimitException when either is spent
+     */
+    public void admitOtp(String phoneNumber) {
+        long waitNanos = acquireToken(otpPhoneBuckets, otpPerPhoneLimit, otpGlobalBucket, phoneNumber);
+        if (waitNanos > 0) {
+            rateLimitedCounter.increment();
+            throw new SmsRateLimitException("SMS rate limit exceeded for " + phoneNumber,
+                    Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos)));
+        }
+    }
+
+    /**
+     * Queue an SMS for delivery. OTP jobs are not rate limited here, callers admit them
+     * with {@link #admitOtp} first.
+     * @return future completed with the provider message id once the SMS was accepted
+     */
+    public CompletableFuture<String> submit(String phoneNumber, String message, String type,
+                                            NotificationPriority priority) {
+        return submit(phoneNumber, message, message, type, priority);
+    }
+
+    /**
+     * Queue an SMS whose text must not be persisted as is
+     * @param logMessage what the notification log stores instead of the text, e.g. a redacted
+     *                   template summary; null stores no body
+     */
+    public CompletableFuture<String> submit(String phoneNumber, String message, String logMessage, String type,
+                                            NotificationPriority priority) {
+        SmsJob job = new SmsJob(phoneNumber, message, logMessage, type, priority);
+        if (!enqueue(job)) {
+            rejectedCounter.increment();
+            logger.warn("Notification lane {} is full, rejecting {} for {}", priority, type, phoneNumber);
+            fail(job, new RuntimeException("Notification queue is full"));
+        }
+        return job.future;
+    }
+
+    /**
+     * Current depth of every lane, for monitoring
+     */
+    public Map<NotificationPriority, Integer> getQueueDepths() {
+        Map<NotificationPriority, Integer> depths = new EnumMap<>(NotificationPriority.class);
+        lanes.forEach((priority, lane) -> depths.put(priority, lane.size()));
+        return depths;
+    }
+
+    public int getDeferredCount() {
+        return deferredJobs.get();
+    }
+
+    /**
+     * Drop per-phone buckets that have fully refilled; they carry no state
+     */
+    @Scheduled(fixedRate = 600000) // 10 minutes in milliseconds
+    public void evictIdleBuckets() {
+        phoneBuckets.values().removeIf(TokenBucket::isFull);
+        otpPhoneBuckets.values().removeIf(TokenBucket::isFull);
+    }
+
+    private boolean enqueue(SmsJob job) {
+        if (!running || !lanes.get(job.priority).offer(job)) {
+            return false;
+        }
+        pendingJobs.release();
+        return true;
+    }
+
+    private void runWorker() {
+        while (running) {
+            try {
+                pendingJobs.acquire();
+                SmsJob job = pollHighestPriority();
+                if (job != null) {
+                    process(job);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                logger.error("Unexpected notification worker error: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private SmsJob pollHighestPriority() {
+        for (BlockingQueue<SmsJob> lane : lanes.values()) {
+            SmsJob job = lane.poll();
+            if (job != null) {
+                return job;
+            }
+        }
+        return null;
+    }
+
+    private void process(SmsJob job) {
+        // OTPs were admitted against their own budget before they were queued
+        long waitNanos = job.priority == NotificationPriority.OTP
+                ? 0 : acquireToken(phoneBuckets, perPhoneLimit, globalBucket, job.phoneNumber);
+        if (waitNanos > 0) {
+            rateLimitedCounter.increment();
+            long deferredUntil = System.nanoTime() + waitNanos;
+            if (deferredUntil - job.enqueuedAt > TimeUnit.MILLISECONDS.toNanos(maxDeferMs)) {
+                fail(job, new RuntimeException("SMS rate limit exceeded for " + job.phoneNumber));
+            } else {
+                logger.debug("Deferring {} for {} by {} ms", job.type, job.phoneNumber,
+                        TimeUnit.NANOSECONDS.toMillis(waitNanos));
+                schedule(job, waitNanos);
+            }
+            return;
+        }
+
+        // Non-blocking gateways return at once, so the permit bounds requests in flight
+        inFlight.acquireUninterruptibly();
+        CompletableFuture<String> sending;
+        try {
+            sending = smsGateway.sendAsync(job.phoneNumber, job.message);
+        } catch (Exception e) {
+            sending = CompletableFuture.failedFuture(e);
+        }
+        sending.whenComplete((messageId, error) -> {
+            inFlight.release();
+            if (error == null) {
+                onSent(job, messageId);
+            } else {
+                onSendFailed(job, error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error);
+            }
+        });
+    }
+
+    private void onSent(SmsJob job, String messageId) {
+        sentCounter.increment();
+        deliveryLag.get(job.priority).record(System.nanoTime() - job.enqueuedAt, TimeUnit.NANOSECONDS);
+        logger.info("SMS sent successfully to {}", job.phoneNumber);
+        notificationLogWriter.record(job.phoneNumber, job.logMessage, job.type,
+                NotificationRecord.STATUS_SENT, messageId, null);
+        job.future.complete(messageId);
+    }
+
+    private void onSendFailed(SmsJob job, Throwable e) {
+        job.attempts++;
+        if (job.attempts >= maxAttempts) {
+            logger.error("Failed to send SMS to {} after {} attempts: {}",
+                    job.phoneNumber, job.attempts, e.getMessage());
+            fail(job, e);
+        } else {
+            retriedCounter.increment();
+            long delayMs = backoffDelay(job.attempts);
+            logger.warn("SMS to {} failed (attempt {}), retrying in {} ms: {}",
+                    job.phoneNumber, job.attempts, delayMs, e.getMessage());
+            schedule(job, TimeUnit.MILLISECONDS.toNanos(delayMs));
+        }
+    }
+
+    private static long acquireToken(Map<String, TokenBucket> buckets, int perPhone, TokenBucket global,
+                                     String phoneNumber) {
+        long phoneWait = buckets
+                .computeIfAbsent(phoneNumber, key -> new TokenBucket(perPhone, Duration.ofHours(1)))
+                .tryAcquire();
+        if (phoneWait > 0) {
+            return phoneWait;
+        }
+        return global.tryAcquire();
+    }
+
+    private long backoffDelay(int attempt) {
+        long delay = retryDelayMs << Math.min(attempt - 1, 16);
+        long jitter = ThreadLocalRandom.current().nextLong(retryDelayMs / 2 + 1);
+        return Math.min(delay + jitter, maxRetryDelayMs);
+    }
+
+    private void schedule(SmsJob job, long delayNanos) {
+        deferredJobs.incrementAndGet();
+        retryScheduler.schedule(() -> {
+            deferredJobs.decrementAndGet();
+            if (!enqueue(job)) {
+                rejectedCounter.increment();
+                fail(job, new RuntimeException("Notification queue is full"));
+            }
+        }, delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void fail(SmsJob job, Throwable error) {
+        failedCounter.increment();
+        notificationLogWriter.record(job.phoneNumber, job.logMessage, job.type,
+                NotificationRecord.STATUS_FAILED, null, error.getMessage());
+        job.future.completeExceptionally(error);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        workers.forEach(Thread::interrupt);
+        retryScheduler.shutdownNow();
+        int remaining = lanes.values().stream().mapToInt(BlockingQueue::size).sum();
+        if (remaining > 0) {
+            logger.warn("Notification dispatcher stopped with {} queued messages", remaining);
+        }
+    }
+
+    /**
+     * A queued SMS
+     */
+    private static class SmsJob {
+        private final String phoneNumber;
+        private final String message;
+        private final String logMessage;
+        private final String type;
+        private final NotificationPriority priority;
+        private final long enqueuedAt = System.nanoTime();
+        private final CompletableFuture<String> future = new CompletableFuture<>();
+        private int attempts;
+
+        SmsJob(String phoneNumber, String message, String logMessage, String type, NotificationPriority priority) {
+            this.phoneNumber = phoneNumber;
+            this.message = message;
+            this.logMessage = logMessage;
+            this.type = type;
+            this.priority = priority;
+        }
+    }
+}
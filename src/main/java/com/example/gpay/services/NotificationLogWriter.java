@@ -0,0 +1,228 @@
+package com.example.gpay.services;
+
+import com.example.gpay.model.NotificationRecord;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persists notification records off the request path.
+ * Records are buffered in a bounded queue and written every {@code batch-size} records or
+ * {@code flush-interval-ms}, whichever comes first. A provider status callback can arrive before
+ * its record is written, so both sides upsert on the provider message id: the callback's status
+ * is kept and the record fills in the rest when it lands.
+ */
+@Service
+@RequiredArgsConstructor
+public class NotificationLogWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationLogWriter.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${notification.log.enabled:true}")
+    private boolean enabled;
+
+    @Value("${notification.log.batch-size:200}")
+    private int batchSize;
+
+    @Value("${notification.log.flush-interval-ms:1000}")
+    private long flushIntervalMs;
+
+    @Value("${notification.log.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${notification.log.retention-days:90}")
+    private long retentionDays;
+
+    private BlockingQueue<NotificationRecord> queue;
+    private Thread writerThread;
+    private volatile boolean running;
+    private Counter droppedCounter;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        droppedCounter = meterRegistry.counter("gpay.notifications.log.dropped");
+        Gauge.builder("gpay.notifications.log.pending", queue, BlockingQueue::size).register(meterRegistry);
+
+        ensureIndexes();
+
+        running = true;
+        writerThread = new Thread(this::runWriter, "gpay-notification-log");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Queue a record for persistence; never blocks the caller
+     */
+    public void record(String phoneNumber, String message, String type, String status,
+                       String providerMessageId, String errorMessage) {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        NotificationRecord record = NotificationRecord.builder()
+                .phoneNumber(phoneNumber)
+                .message(message)
+                .type(type)
+                .status(status)
+                .providerMessageId(providerMessageId)
+                .errorMessage(errorMessage)
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+
+        if (!queue.offer(record)) {
+            droppedCounter.increment();
+            logger.warn("Notification log queue full, dropping record for {}", phoneNumber);
+        }
+    }
+
+    /**
+     * Apply a delivery status reported by the SMS provider
+     * @return false when the record was not written yet and the status was stored ahead of it
+     */
+    public boolean updateDeliveryStatus(String providerMessageId, String status, String errorMessage) {
+        LocalDateTime now = LocalDateTime.now();
+        Update update = new Update()
+                .set("status", status)
+                .set("updatedAt", now)
+                .setOnInsert("createdAt", now);
+        if (errorMessage != null) {
+            update.set("errorMessage", errorMessage);
+        }
+        return mongoTemplate.upsert(
+                Query.query(Criteria.where("providerMessageId").is(providerMessageId)),
+                update,
+                NotificationRecord.class).getMatchedCount() > 0;
+    }
+
+    private void ensureIndexes() {
+        try {
+            IndexOperations indexOps = mongoTemplate.indexOps(NotificationRecord.class);
+            indexOps.ensureIndex(new Index().on("createdAt", Sort.Direction.ASC)
+                    .expire(Duration.ofDays(retentionDays)));
+            indexOps.ensureIndex(new Index().on("providerMessageId", Sort.Direction.ASC).sparse());
+            indexOps.ensureIndex(new Index().on("phoneNumber", Sort.Direction.ASC)
+                    .on("createdAt", Sort.Direction.DESC));
+        } catch (Exception e) {
+            logger.error("Failed to ensure notification log indexes: {}", e.getMessage());
+        }
+    }
+
+    private void runWriter() {
+        List<NotificationRecord> batch = new ArrayList<>(batchSize);
+        long deadline = 0;
+
+        while (running || !queue.isEmpty()) {
+            try {
+                long timeout = batch.isEmpty() ? flushIntervalMs : Math.max(0, deadline - System.currentTimeMillis());
+                NotificationRecord record = queue.poll(timeout, TimeUnit.MILLISECONDS);
+                if (record != null) {
+                    if (batch.isEmpty()) {
+                        deadline = System.currentTimeMillis() + flushIntervalMs;
+                    }
+                    batch.add(record);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+
+                if (!batch.isEmpty() && (batch.size() >= batchSize || System.currentTimeMillis() >= deadline)) {
+                    write(batch);
+                    batch.clear();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+    }
+
+    private void write(List<NotificationRecord> batch) {
+        try {
+            List<NotificationRecord> inserts = new ArrayList<>(batch.size());
+            BulkOperations upserts = null;
+            for (NotificationRecord record : batch) {
+                if (record.getProviderMessageId() == null) {
+                    inserts.add(record);
+                    continue;
+                }
+                if (upserts == null) {
+                    upserts = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, NotificationRecord.class);
+                }
+                upserts.upsert(Query.query(Criteria.where("providerMessageId").is(record.getProviderMessageId())),
+                        recordUpdate(record));
+            }
+            if (!inserts.isEmpty()) {
+                mongoTemplate.insert(inserts, NotificationRecord.class);
+            }
+            if (upserts != null) {
+                upserts.execute();
+            }
+            logger.debug("Persisted {} notification records", batch.size());
+        } catch (Exception e) {
+            droppedCounter.increment(batch.size());
+            logger.error("Failed to persist {} notification records: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Fields of a record sent to the provider; status and error only when no callback got there first
+     */
+    private static Update recordUpdate(NotificationRecord record) {
+        Update update = new Update()
+                .set("phoneNumber", record.getPhoneNumber())
+                .set("message", record.getMessage())
+                .set("type", record.getType())
+                .set("createdAt", record.getCreatedAt())
+                .setOnInsert("_id", record.getId())
+                .setOnInsert("status", record.getStatus())
+                .setOnInsert("updatedAt", record.getUpdatedAt());
+        if (record.getErrorMessage() != null) {
+            update.setOnInsert("errorMessage", record.getErrorMessage());
+        }
+        return update;
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (writerThread == null) {
+            return;
+        }
+        // The writer notices within one flush interval and drains what is left
+        running = false;
+        writerThread.join(flushIntervalMs + TimeUnit.SECONDS.toMillis(5));
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.gpay.services;
+
+import com.example.gpay.model.NotificationChannel;
+import com.example.gpay.model.NotificationPriority;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Looks up what the notification pipeline needs to know about the owner of a phone number:
+ * user id, language and channel preferences. Results are cached briefly so that a burst of
+ * notifications for the same user costs a single projected query.
+ */
+@Service
+@RequiredArgsConstructor
+public class NotificationRecipientResolver {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationRecipientResolver.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${notification.default-language:en}")
+    private String defaultLanguage;
+
+    @Value("${notification.channels.default:PUSH}")
+    private NotificationChannel defaultChannel;
+
+    @Value("${notification.recipient-cache.size:50000}")
+    private int cacheSize;
+
+    @Value("${notification.recipient-cache.ttl-ms:600000}")
+    private long cacheTtlMs;
+
+    private final Map<String, CachedRecipient> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Recipient details for a phone number; unknown numbers get SMS in the default language
+     */
+    public Recipient resolve(String phoneNumber) {
+        long now = System.currentTimeMillis();
+        CachedRecipient cached = cache.get(phoneNumber);
+        if (cached != null && cached.expiresAt > now) {
+            return cached.recipient;
+        }
+
+        Recipient recipient;
+        try {
+            Query query = Query.query(Criteria.where("phoneNumber").is(phoneNumber));
+            query.fields().include("_id").include("language").include("notificationChannels");
+            Document user = mongoTemplate.findOne(query, Document.class, "users");
+            recipient = user != null ? toRecipient(user) : unknown();
+        } catch (Exception e) {
+            logger.warn("Could not resolve notification recipient {}: {}", phoneNumber, e.getMessage());
+            return unknown();
+        }
+
+        if (cache.size() >= cacheSize) {
+            cache.values().removeIf(entry -> entry.expiresAt <= now);
+            if (cache.size() >= cacheSize) {
+                cache.clear();
+            }
+        }
+        cache.put(phoneNumber, new CachedRecipient(recipient, now + cacheTtlMs));
+        return recipient;
+    }
+
+    /**
+     * Drop cached details after the user changed language or preferences
+     */
+    public void evict(String phoneNumber) {
+        cache.remove(phoneNumber);
+    }
+
+    public NotificationChannel getDefaultChannel() {
+        return defaultChannel;
+    }
+
+    private Recipient toRecipient(Document user) {
+        Map<String, NotificationChannel> channels = new HashMap<>();
+        Document preferences = user.get("notificationChannels", Document.class);
+        if (preferences != null) {
+            preferences.forEach((type, channel) -> {
+                try {
+                    channels.put(type, NotificationChannel.valueOf(String.valueOf(channel)));
+                } catch (IllegalArgumentException e) {
+                    logger.warn("Ignoring unknown notification channel {} for {}", channel, type);
+                }
+            });
+        }
+        Object id = user.get("_id");
+        String language = user.getString("language");
+        return new Recipient(id instanceof ObjectId objectId ? objectId.toHexString() : String.valueOf(id),
+                language != null ? language : defaultLanguage, channels, defaultChannel);
+    }
+
+    private Recipient unknown() {
+        return new Recipient(null, defaultLanguage, Collections.emptyMap(), NotificationChannel.SMS);
+    }
+
+    /**
+     * Notification-relevant view of a user
+     */
+    public record Recipient(String userId, String language, Map<String, NotificationChannel> channels,
+                            NotificationChannel defaultChannel) {
+
+        /**
+         * Channel for an event type, honouring the SMS-only rule for OTPs and critical alerts
+         */
+        public NotificationChannel channelFor(String type, NotificationPriority priority) {
+            if (userId == null || NotificationChannel.isSmsOnly(priority)) {
+                return NotificationChannel.SMS;
+            }
+            return channels.getOrDefault(type, defaultChannel);
+        }
+
+        /**
+         * Effective channel for every known event type, for display
+         */
+        public Map<String, NotificationChannel> effectiveChannels(Iterable<String> types) {
+            Map<String, NotificationChannel> effective = new HashMap<>();
+            for (String type : types) {
+                effective.put(type, channelFor(type, NotificationPriority.forType(type)));
+            }
+            return effective;
+        }
+    }
+
+    private record CachedRecipient(Recipient recipient, long expiresAt) {
+    }
+}
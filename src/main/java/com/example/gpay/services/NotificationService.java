@@ -1,68 +1,105 @@
 package com.example.gpay.services;
 
-import com.twilio.rest.api.v2010.account.Message;
-import com.twilio.type.PhoneNumber;
+import com.example.gpay.dto.NotificationContent;
+import com.example.gpay.model.NotificationPriority;
+import com.example.gpay.model.NotificationRecord;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
-import org.springframework.scheduling.annotation.Async;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.time.LocalDateTime;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Random;
+import java.security.SecureRandom;
+import java.time.Duration;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class NotificationService {
 
     private static final Logger logger = LoggerFactory.getLogger(NotificationService.class);
 
-    @Value("${twilio.phone-number}")
-    private String fromPhoneNumber;
-
     @Value("${twilio.enabled:true}")
     private boolean smsEnabled;
 
-    // In-memory OTP storage (use Redis in production)
-    private final Map<String, OTPData> otpStorage = new ConcurrentHashMap<>();
-    private final Random random = new Random();
-
     // OTP Configuration
-    private static final int OTP_LENGTH = 6;
-    private static final long OTP_EXPIRY_MINUTES = 5;
+    @Value("${otp.length:6}")
+    private int otpLength;
+
+    @Value("${otp.expiry-minutes:5}")
+    private long otpExpiryMinutes;
+
+    private final SecureRandom random = new SecureRandom();
+
+    @Autowired
+    private OtpStore otpStore;
 
     @Autowired
     private RestTemplate restTemplate;
 
+    @Autowired
+    private NotificationDispatcher notificationDispatcher;
+
+    @Autowired
+    private NotificationCoalescer notificationCoalescer;
+
+    @Autowired
+    private NotificationLogWriter notificationLogWriter;
+
+    @Autowired
+    private NotificationTemplateEngine templateEngine;
+
+    @Autowired
+    private NotificationRecipientResolver recipientResolver;
+
     /**
      * Generate and send OTP for login
      */
     public String generateAndSendOTP(String phoneNumber) {
+        return dispatchOTP(phoneNumber).otp();
+    }
+
+    /**
+     * Issues an OTP like {@link #generateAndSendOTP} and also hands back its delivery, which
+     * completes with the provider message id once the SMS is accepted (or null when SMS is disabled)
+     */
+    public OtpDispatch dispatchOTP(String phoneNumber) {
+        if (smsEnabled) {
+            // Refused before a code is stored, so a pending code stays valid and the caller gets a 429
+            notificationDispatcher.admitOtp(phoneNumber);
+        }
         try {
-            // Generate 6-digit OTP
-            String otp = String.format("%06d", random.nextInt(1000000));
+            // Generate numeric OTP
+            char[] digits = new char[otpLength];
+            for (int i = 0; i < digits.length; i++) {
+                digits[i] = (char) ('0' + random.nextInt(10));
+            }
+            String otp = new String(digits);
 
-            // Store OTP with expiry
-            OTPData otpData = new OTPData(otp, LocalDateTime.now().plusMinutes(OTP_EXPIRY_MINUTES));
-            otpStorage.put(phoneNumber, otpData);
+            // Store OTP with expiry, replacing any pending code
+            otpStore.save(phoneNumber, otp, Duration.ofMinutes(otpExpiryMinutes));
 
             // Send OTP via SMS
-            String message = String.format("Your GPay login OTP is: %s. Valid for %d minutes. Do not share this code.",
-                    otp, OTP_EXPIRY_MINUTES);
+            NotificationContent content = NotificationContent.secretTemplate("OTP", "otp", new int[]{0},
+                    otp, otpExpiryMinutes);
+            String message = templateEngine.render(recipientResolver.resolve(phoneNumber).language(), content);
 
+            CompletableFuture<String> delivery;
             if (smsEnabled) {
-                sendSmsNotification(phoneNumber, message);
-                logger.info("OTP sent successfully to {}", phoneNumber);
+                // OTPs use the highest priority lane; queue admission failures surface immediately.
+                // The notification log keeps the template and expiry only, never the code.
+                delivery = notificationDispatcher.submit(
+                        phoneNumber, message, content.toLogString(), "OTP", NotificationPriority.OTP);
+                if (delivery.isCompletedExceptionally()) {
+                    delivery.join();
+                }
+                logger.info("OTP queued for delivery to {}", phoneNumber);
             } else {
                 logger.info("SMS disabled. OTP for {}: {}", phoneNumber, otp);
+                delivery = CompletableFuture.completedFuture(null);
             }
 
-            return otp; // Return OTP only for testing/development
+            return new OtpDispatch(otp, delivery); // Return OTP only for testing/development
         } catch (Exception e) {
             logger.error("Failed to generate and send OTP to {}: {}", phoneNumber, e.getMessage());
             throw new RuntimeException("Failed to send OTP", e);
@@ -74,31 +111,17 @@ public class NotificationService {
      */
     public boolean verifyOTP(String phoneNumber, String providedOtp) {
         try {
-            OTPData otpData = otpStorage.get(phoneNumber);
-
-            if (otpData == null) {
-                logger.warn("No OTP found for phone number: {}", phoneNumber);
-                return false;
-            }
-
-            // Check if OTP is expired
-            if (LocalDateTime.now().isAfter(otpData.getExpiryTime())) {
-                logger.warn("OTP expired for phone number: {}", phoneNumber);
-                otpStorage.remove(phoneNumber); // Clean up expired OTP
-                return false;
+            OtpStore.Result result = otpStore.verify(phoneNumber, providedOtp);
+
+            switch (result) {
+                case VALID -> logger.info("OTP verified successfully for {}", phoneNumber);
+                case NOT_FOUND -> logger.warn("No OTP found for phone number: {}", phoneNumber);
+                case EXPIRED -> logger.warn("OTP expired for phone number: {}", phoneNumber);
+                case TOO_MANY_ATTEMPTS -> logger.warn("Too many OTP attempts for {}", phoneNumber);
+                default -> logger.warn("Invalid OTP provided for {}", phoneNumber);
             }
 
-            // Verify OTP
-            boolean isValid = otpData.getOtp().equals(providedOtp);
-
-            if (isValid) {
-                logger.info("OTP verified successfully for {}", phoneNumber);
-                otpStorage.remove(phoneNumber); // Remove OTP after successful verification
-            } else {
-                logger.warn("Invalid OTP provided for {}", phoneNumber);
-            }
-
-            return isValid;
+            return result == OtpStore.Result.VALID;
         } catch (Exception e) {
             logger.error("Error verifying OTP for {}: {}", phoneNumber, e.getMessage());
             return false;
@@ -106,24 +129,37 @@ public class NotificationService {
     }
 
     /**
-     * Send transfer notification asynchronously
+     * Queue a notification on the SMS dispatcher
      */
-    @Async
     public CompletableFuture<Void> sendTransferNotification(String phoneNumber, String message, String type) {
+        return queueNotification(phoneNumber, NotificationContent.literal(type, message));
+    }
+
+    /**
+     * Queue a notification, letting the coalescer merge it with others for the same phone
+     */
+    private CompletableFuture<Void> queueNotification(String phoneNumber, NotificationContent content) {
+        String type = content.getType();
         try {
             logger.info("Sending {} notification to {}", type, phoneNumber);
 
-            if (smsEnabled) {
-                sendSmsNotification(phoneNumber, message);
-            } else {
+            if (!smsEnabled) {
                 // Log notification instead of sending SMS (for testing)
+                String message = templateEngine.render(recipientResolver.resolve(phoneNumber).language(), content);
                 logger.info("SMS disabled. Notification for {}: {}", phoneNumber, message);
+                storeNotificationRecord(phoneNumber, message, type);
+                return CompletableFuture.completedFuture(null);
             }
 
-            // Store notification in database for user's notification history
-            storeNotificationRecord(phoneNumber, message, type);
-
-            return CompletableFuture.completedFuture(null);
+            return notificationCoalescer.submit(phoneNumber, content, NotificationPriority.forType(type))
+                    .handle((messageId, error) -> {
+                        // Delivery history is recorded by the dispatcher for the SMS actually sent
+                        if (error != null) {
+                            logger.error("Failed to send notification to {}: {}", phoneNumber, error.getMessage());
+                            throw new RuntimeException("SMS sending failed", error);
+                        }
+                        return null;
+                    });
         } catch (Exception e) {
             logger.error("Failed to send notification to {}: {}", phoneNumber, e.getMessage());
             return CompletableFuture.failedFuture(e);
@@ -131,205 +167,102 @@ public class NotificationService {
     }
 
     /**
-     * Send SMS notification via Twilio
-     */
-    private void sendSmsNotification(String phoneNumber, String message) {
-        try {
-            // Ensure phone number has proper format
-            String formattedPhoneNumber = formatPhoneNumber(phoneNumber);
-
-            Message.creator(
-                    new PhoneNumber(formattedPhoneNumber),  // To
-                    new PhoneNumber(fromPhoneNumber),       // From (Twilio number)
-                    message
-            ).create();
-
-            logger.info("SMS sent successfully to {}", phoneNumber);
-        } catch (Exception e) {
-            logger.error("Failed to send SMS to {}: {}", phoneNumber, e.getMessage());
-            throw new RuntimeException("SMS sending failed", e);
-        }
-    }
-
-    /**
-     * Format phone number for Twilio (ensure it starts with country code)
-     */
-    private String formatPhoneNumber(String phoneNumber) {
-        // Remove any spaces, dashes, or parentheses
-        String cleaned = phoneNumber.replaceAll("[\\s\\-\\(\\)]", "");
-
-        // If it doesn't start with +, assume it's a Cameroon number
-        if (!cleaned.startsWith("+")) {
-            if (cleaned.startsWith("237")) {
-                cleaned = "+" + cleaned;
-            } else if (cleaned.startsWith("6")) {
-                cleaned = "+237" + cleaned;
-            } else {
-                cleaned = "+237" + cleaned;
-            }
-        }
-
-        return cleaned;
-    }
-
-    /**
-     * Store notification record in database
+     * Record a notification that was not handed to the SMS provider
      */
     private void storeNotificationRecord(String phoneNumber, String message, String type) {
-        try {
-            // Create notification record
-            NotificationRecord record = new NotificationRecord();
-            record.setPhoneNumber(phoneNumber);
-            record.setMessage(message);
-            record.setType(type);
-            record.setStatus("SENT");
-            record.setCreatedAt(LocalDateTime.now());
-
-            // Save to database (you'll need to create NotificationRepository)
-            // notificationRepository.save(record);
-
-            logger.debug("Notification record stored for {}", phoneNumber);
-        } catch (Exception e) {
-            logger.error("Failed to store notification record: {}", e.getMessage());
-            // Don't fail the notification if storage fails
-        }
+        notificationLogWriter.record(phoneNumber, message, type, NotificationRecord.STATUS_NOT_SENT, null, null);
     }
 
     /**
      * Send deposit notification
      */
-    @Async
     public CompletableFuture<Void> sendDepositNotification(String phoneNumber, Double amount, String status) {
-        String message;
-        if ("COMPLETED".equals(status)) {
-            message = String.format("Deposit successful! Amount: %.2f XAF has been added to your wallet. Thank you for using GPay.", amount);
-        } else if ("FAILED".equals(status)) {
-            message = String.format("Deposit failed! Your deposit of %.2f XAF could not be processed. Please try again or contact support.", amount);
-        } else {
-            message = String.format("Deposit pending! Your deposit of %.2f XAF is being processed. You will be notified once completed.", amount);
-        }
-        return sendTransferNotification(phoneNumber, message, "DEPOSIT_" + status);
+        return queueNotification(phoneNumber,
+                NotificationContent.template("DEPOSIT_" + status, "deposit-" + statusSuffix(status), amount));
     }
 
     /**
      * Send withdrawal notification
      */
-    @Async
     public CompletableFuture<Void> sendWithdrawalNotification(String phoneNumber, Double amount, String status) {
-        String message;
-        if ("COMPLETED".equals(status)) {
-            message = String.format("Withdrawal successful! Amount: %.2f XAF has been withdrawn from your wallet.", amount);
-        } else if ("FAILED".equals(status)) {
-            message = String.format("Withdrawal failed! Your withdrawal of %.2f XAF could not be processed. Please try again or contact support.", amount);
-        } else {
-            message = String.format("Withdrawal pending! Your withdrawal of %.2f XAF is being processed. You will be notified once completed.", amount);
-        }
-        return sendTransferNotification(phoneNumber, message, "WITHDRAWAL_" + status);
+        return queueNotification(phoneNumber,
+                NotificationContent.template("WITHDRAWAL_" + status, "withdrawal-" + statusSuffix(status), amount));
     }
 
     /**
      * Send transfer notification (sender)
      */
-    @Async
     public CompletableFuture<Void> sendTransferSentNotification(String phoneNumber, Double amount, String recipientPhone) {
-        String message = String.format("Transfer sent! You have successfully sent %.2f XAF to %s.", amount, recipientPhone);
-        return sendTransferNotification(phoneNumber, message, "TRANSFER_SENT");
+        return queueNotification(phoneNumber,
+                NotificationContent.template("TRANSFER_SENT", "transfer-sent", amount, recipientPhone));
+    }
+
+    /**
+     * Send transfer notification with its reference (sender)
+     */
+    public CompletableFuture<Void> sendTransferSentNotification(String phoneNumber, Double amount, String recipientPhone,
+                                                                String reference) {
+        return queueNotification(phoneNumber, NotificationContent.template("TRANSFER_SENT",
+                "transfer-sent-reference", amount, recipientPhone, reference));
     }
 
     /**
      * Send transfer notification (recipient)
      */
-    @Async
     public CompletableFuture<Void> sendTransferReceivedNotification(String phoneNumber, Double amount, String senderPhone) {
-        String message = String.format("Money received! You have received %.2f XAF from %s.", amount, senderPhone);
-        return sendTransferNotification(phoneNumber, message, "TRANSFER_RECEIVED");
+        return queueNotification(phoneNumber,
+                NotificationContent.template("TRANSFER_RECEIVED", "transfer-received", amount, senderPhone));
+    }
+
+    /**
+     * Send transfer notification with its reference (recipient)
+     */
+    public CompletableFuture<Void> sendTransferReceivedNotification(String phoneNumber, Double amount, String senderPhone,
+                                                                    String reference) {
+        return queueNotification(phoneNumber, NotificationContent.template("TRANSFER_RECEIVED",
+                "transfer-received-reference", amount, senderPhone, reference));
     }
 
     /**
      * Send balance update notification
      */
-    @Async
     public CompletableFuture<Void> sendBalanceUpdateNotification(String phoneNumber, Double newBalance) {
-        String message = String.format("Your account balance has been updated. New balance: %.2f XAF", newBalance);
-        return sendTransferNotification(phoneNumber, message, "BALANCE_UPDATE");
+        return queueNotification(phoneNumber,
+                NotificationContent.template("BALANCE_UPDATE", "balance-update", "balance-compact", newBalance));
     }
 
     /**
      * Send low balance warning
      */
-    @Async
     public CompletableFuture<Void> sendLowBalanceWarning(String phoneNumber, Double currentBalance) {
-        String message = String.format("Low balance warning! Your current balance is %.2f XAF. Please top up your wallet.", currentBalance);
-        return sendTransferNotification(phoneNumber, message, "LOW_BALANCE");
+        return queueNotification(phoneNumber,
+                NotificationContent.template("LOW_BALANCE", "low-balance", currentBalance));
     }
 
     /**
      * Send transaction failure notification
      */
-    @Async
     public CompletableFuture<Void> sendTransactionFailureNotification(String phoneNumber, String reason) {
-        String message = String.format("Transaction failed: %s. Please try again or contact support.", reason);
-        return sendTransferNotification(phoneNumber, message, "TRANSACTION_FAILED");
+        return queueNotification(phoneNumber,
+                NotificationContent.template("TRANSACTION_FAILED", "transaction-failed", reason));
     }
 
     /**
-     * Clean up expired OTPs (call this periodically)
+     * Template key suffix for a deposit or withdrawal status
      */
-    public void cleanupExpiredOTPs() {
-        LocalDateTime now = LocalDateTime.now();
-        otpStorage.entrySet().removeIf(entry -> now.isAfter(entry.getValue().getExpiryTime()));
-        logger.debug("Cleaned up expired OTPs");
-    }
-
-    /**
-     * Inner class for OTP data
-     */
-    private static class OTPData {
-        private final String otp;
-        private final LocalDateTime expiryTime;
-
-        public OTPData(String otp, LocalDateTime expiryTime) {
-            this.otp = otp;
-            this.expiryTime = expiryTime;
+    private static String statusSuffix(String status) {
+        if ("COMPLETED".equals(status)) {
+            return "success";
         }
-
-        public String getOtp() {
-            return otp;
-        }
-
-        public LocalDateTime getExpiryTime() {
-            return expiryTime;
+        if ("FAILED".equals(status)) {
+            return "failed";
         }
+        return "pending";
     }
 
     /**
-     * Inner class for notification record
+     * An issued OTP and its pending SMS delivery
      */
-    public static class NotificationRecord {
-        private String id;
-        private String phoneNumber;
-        private String message;
-        private String type;
-        private String status;
-        private LocalDateTime createdAt;
-
-        // Getters and setters
-        public String getId() { return id; }
-        public void setId(String id) { this.id = id; }
-
-        public String getPhoneNumber() { return phoneNumber; }
-        public void setPhoneNumber(String phoneNumber) { this.phoneNumber = phoneNumber; }
-
-        public String getMessage() { return message; }
-        public void setMessage(String message) { this.message = message; }
-
-        public String getType() { return type; }
-        public void setType(String type) { this.type = type; }
-
-        public String getStatus() { return status; }
-        public void setStatus(String status) { this.status = status; }
-
-        public LocalDateTime getCreatedAt() { return createdAt; }
-        public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    public record OtpDispatch(String otp, CompletableFuture<String> delivery) {
     }
-}
\ No newline at end of file
+}
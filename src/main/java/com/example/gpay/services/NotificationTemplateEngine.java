@@ -0,0 +1,263 @@
+package com.example.gpay.services;
+
+import com.example.gpay.dto.NotificationContent;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.env.Environment;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Renders notification messages from the {@code notification.templates} configuration.
+ * Templates are compiled once into literal and argument segments, so rendering is a plain
+ * append loop into a per-thread StringBuilder instead of a String.format call.
+ * Localised wording lives under {@code notification.localized-templates.<language>} and
+ * can be overridden at runtime through the {@code notification_templates} collection.
+ */
+@Service
+@RequiredArgsConstructor
+public class NotificationTemplateEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationTemplateEngine.class);
+
+    public static final String OVERRIDES_COLLECTION = "notification_templates";
+
+    private static final int MAX_BUFFER_CAPACITY = 4096;
+    private static final Bindable<Map<String, Map<String, String>>> LOCALIZED_TEMPLATES = Bindable.of(
+            ResolvableType.forClassWithGenerics(Map.class, ResolvableType.forClass(String.class),
+                    ResolvableType.forClassWithGenerics(Map.class, String.class, String.class)));
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    private final Environment environment;
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${notification.default-language:en}")
+    private String defaultLanguage;
+
+    private volatile Map<String, Map<String, CompiledTemplate>> templates = Collections.emptyMap();
+
+    @PostConstruct
+    public void load() {
+        reload();
+        logger.info("Loaded notification templates for languages {}", templates.keySet());
+    }
+
+    /**
+     * Recompile configured templates and apply database overrides
+     */
+    @Scheduled(fixedDelayString = "${notification.template-refresh-ms:60000}",
+            initialDelayString = "${notification.template-refresh-ms:60000}")
+    public void reload() {
+        Binder binder = Binder.get(environment);
+        Map<String, Map<String, String>> sources = new HashMap<>();
+        sources.put(defaultLanguage, new HashMap<>(binder
+                .bind("notification.templates", Bindable.mapOf(String.class, String.class))
+                .orElse(Collections.emptyMap())));
+        binder.bind("notification.localized-templates", LOCALIZED_TEMPLATES)
+                .orElse(Collections.emptyMap())
+                .forEach((language, localized) ->
+                        sources.computeIfAbsent(language, key -> new HashMap<>()).putAll(localized));
+
+        try {
+            for (Document override : mongoTemplate.findAll(Document.class, OVERRIDES_COLLECTION)) {
+                String language = override.getString("language");
+                sources.computeIfAbsent(language != null ? language : defaultLanguage, key -> new HashMap<>())
+                        .put(override.getString("key"), override.getString("text"));
+            }
+        } catch (Exception e) {
+            logger.warn("Could not load notification template overrides: {}", e.getMessage());
+        }
+
+        Map<String, Map<String, CompiledTemplate>> compiled = new HashMap<>();
+        sources.forEach((language, byKey) -> {
+            Map<String, CompiledTemplate> languageTemplates = new HashMap<>();
+            byKey.forEach((key, text) -> {
+                if (key == null || text == null) {
+                    return;
+                }
+                try {
+                    languageTemplates.put(key, CompiledTemplate.compile(text));
+                } catch (IllegalArgumentException e) {
+                    logger.error("Ignoring notification template {}.{}: {}", language, key, e.getMessage());
+                }
+            });
+            compiled.put(language, languageTemplates);
+        });
+        templates = compiled;
+    }
+
+    /**
+     * Render a single notification
+     */
+    public String render(String language, NotificationContent content) {
+        StringBuilder buffer = buffer();
+        renderInto(buffer, language, content, false);
+        return buffer.toString();
+    }
+
+    /**
+     * Append a notification to the given builder
+     * @param compact use the shorter variant when the content has one
+     */
+    public void renderInto(StringBuilder out, String language, NotificationContent content, boolean compact) {
+        if (content.isLiteral()) {
+            out.append(content.getLiteral());
+            return;
+        }
+        String key = compact && content.getCompactTemplateKey() != null
+                ? content.getCompactTemplateKey()
+                : content.getTemplateKey();
+        CompiledTemplate template = lookup(language, key);
+        if (template == null) {
+            throw new RuntimeException("Notification template not found: " + key);
+        }
+        template.renderInto(out, content.getArgs());
+    }
+
+    /**
+     * Thread-local builder, cleared for reuse
+     */
+    public StringBuilder buffer() {
+        StringBuilder buffer = BUFFER.get();
+        if (buffer.capacity() > MAX_BUFFER_CAPACITY) {
+            buffer = new StringBuilder(256);
+            BUFFER.set(buffer);
+        }
+        buffer.setLength(0);
+        return buffer;
+    }
+
+    public boolean supportsLanguage(String language) {
+        return templates.containsKey(language);
+    }
+
+    public String getDefaultLanguage() {
+        return defaultLanguage;
+    }
+
+    private CompiledTemplate lookup(String language, String key) {
+        Map<String, CompiledTemplate> languageTemplates = language != null ? templates.get(language) : null;
+        CompiledTemplate template = languageTemplates != null ? languageTemplates.get(key) : null;
+        if (template == null && !defaultLanguage.equals(language)) {
+            Map<String, CompiledTemplate> fallback = templates.get(defaultLanguage);
+            template = fallback != null ? fallback.get(key) : null;
+        }
+        return template;
+    }
+
+    /**
+     * Amounts are always shown in XAF with two decimals, matching %.2f without the Formatter
+     */
+    static void appendAmount(StringBuilder out, double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            out.append(value);
+            return;
+        }
+        long cents = Math.round(Math.abs(value) * 100);
+        if (value < 0 && cents != 0) {
+            out.append('-');
+        }
+        out.append(cents / 100).append('.');
+        long fraction = cents % 100;
+        if (fraction < 10) {
+            out.append('0');
+        }
+        out.append(fraction);
+    }
+
+    /**
+     * Template split into literal text and typed argument slots.
+     * Supports the specifiers used by the configured templates: %s, %d, %.2f and %%.
+     */
+    static final class CompiledTemplate {
+
+        private static final byte STRING = 0;
+        private static final byte INTEGER = 1;
+        private static final byte AMOUNT = 2;
+
+        private final String[] literals;
+        private final byte[] kinds;
+
+        private CompiledTemplate(String[] literals, byte[] kinds) {
+            this.literals = literals;
+            this.kinds = kinds;
+        }
+
+        static CompiledTemplate compile(String pattern) {
+            List<String> literals = new ArrayList<>();
+            List<Byte> kinds = new ArrayList<>();
+            StringBuilder literal = new StringBuilder();
+
+            int length = pattern.length();
+            for (int i = 0; i < length; i++) {
+                char c = pattern.charAt(i);
+                if (c != '%') {
+                    literal.append(c);
+                    continue;
+                }
+                if (i + 1 >= length) {
+                    throw new IllegalArgumentException("Dangling '%' at end of template");
+                }
+                char next = pattern.charAt(i + 1);
+                byte kind;
+                if (next == '%') {
+                    literal.append('%');
+                    i++;
+                    continue;
+                } else if (next == 's') {
+                    kind = STRING;
+                    i++;
+                } else if (next == 'd') {
+                    kind = INTEGER;
+                    i++;
+                } else if (pattern.startsWith(".2f", i + 1)) {
+                    kind = AMOUNT;
+                    i += 3;
+                } else {
+                    throw new IllegalArgumentException("Unsupported format specifier at position " + i);
+                }
+                literals.add(literal.toString());
+                literal.setLength(0);
+                kinds.add(kind);
+            }
+            literals.add(literal.toString());
+
+            byte[] kindArray = new byte[kinds.size()];
+            for (int i = 0; i < kindArray.length; i++) {
+                kindArray[i] = kinds.get(i);
+            }
+            return new CompiledTemplate(literals.toArray(new String[0]), kindArray);
+        }
+
+        void renderInto(StringBuilder out, Object[] args) {
+            for (int i = 0; i < kinds.length; i++) {
+                out.append(literals[i]);
+                Object arg = i < args.length ? args[i] : null;
+                if (arg == null) {
+                    out.append("null");
+                } else if (kinds[i] == AMOUNT && arg instanceof Number number) {
+                    appendAmount(out, number.doubleValue());
+                } else if (kinds[i] == INTEGER && arg instanceof Number number) {
+                    out.append(number.longValue());
+                } else {
+                    out.append(arg);
+                }
+            }
+            out.append(literals[kinds.length]);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.gpay.services;
+
+import java.time.Duration;
+
+/**
+ * Storage for pending one-time passwords, keyed by phone number.
+ * Verification counts every attempt atomically and consumes the code on success.
+ */
+public interface OtpStore {
+
+    /**
+     * Store a new code for the phone number, replacing any pending one
+     */
+    void save(String phoneNumber, String otp, Duration validity);
+
+    /**
+     * Check a code submitted for the phone number
+     */
+    Result verify(String phoneNumber, String otp);
+
+    enum Result {
+        VALID,
+        INVALID,
+        EXPIRED,
+        NOT_FOUND,
+        TOO_MANY_ATTEMPTS
+    }
+}
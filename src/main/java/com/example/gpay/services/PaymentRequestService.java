@@ -0,0 +1,237 @@
+package com.example.gpay.services;
+
+import com.example.gpay.dto.PaymentRequestCreateRequest;
+import com.example.gpay.dto.PaymentRequestResponse;
+import com.example.gpay.model.PaymentRequest;
+import com.example.gpay.model.PaymentRequestStatus;
+import com.example.gpay.model.Transaction;
+import com.example.gpay.model.TransactionStatus;
+import com.example.gpay.model.User;
+import com.example.gpay.utils.HashUtils;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Merchant payment requests paid by scanning a one-time QR code.
+ * The code carries the merchant id, the amount and a random token. Paying claims the request
+ * with a conditional update from PENDING to PROCESSING, so two payers scanning the same code
+ * cannot both be charged; the claim is released if the transfer fails and completed otherwise,
+ * at which point the merchant's open event streams are told.
+ * The transfer's transaction records the request id, so a request left in PROCESSING by a crash
+ * or a failed completion is resolved by a sweeper from the transaction, or released if there is none.
+ */
+@Service
+@RequiredArgsConstructor
+public class PaymentRequestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentRequestService.class);
+
+    public static final String PAID_EVENT = "PAYMENT_REQUEST_PAID";
+
+    private static final int TOKEN_BYTES = 16;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final MongoTemplate mongoTemplate;
+    private final UserService userService;
+    private final QRPayloadCodec qrPayloadCodec;
+    private final QRCodeService qrCodeService;
+    private final EventStreamService eventStreamService;
+
+    @Value("${payment-requests.default-ttl-seconds:900}")
+    private long defaultTtlSeconds;
+
+    @Value("${payment-requests.max-ttl-seconds:604800}")
+    private long maxTtlSeconds;
+
+    @Value("${payment-requests.retention-days:30}")
+    private long retentionDays;
+
+    @Value("${payment-requests.transfer-timeout-seconds:300}")
+    private long transferTimeoutSeconds;
+
+    @PostConstruct
+    public void ensureIndexes() {
+        try {
+            IndexOperations indexOps = mongoTemplate.indexOps(PaymentRequest.class);
+            indexOps.ensureIndex(new Index().on("purgeAt", Sort.Direction.ASC).expire(Duration.ZERO));
+            indexOps.ensureIndex(new Index().on("tokenHash", Sort.Direction.ASC).unique());
+            indexOps.ensureIndex(new Index().on("merchantId", Sort.Direction.ASC)
+                    .on("createdAt", Sort.Direction.DESC));
+            indexOps.ensureIndex(new Index().on("status", Sort.Direction.ASC).on("claimedAt", Sort.Direction.ASC));
+            mongoTemplate.indexOps(Transaction.class)
+                    .ensureIndex(new Index().on("payment_request_id", Sort.Direction.ASC).sparse());
+        } catch (Exception e) {
+            logger.error("Failed to ensure payment request indexes: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Create a payment request for the merchant and the QR code that pays it
+     */
+    public PaymentRequestResponse create(String merchantPhoneNumber, PaymentRequestCreateRequest request) {
+        User merchant = userService.findByPhoneNumber(merchantPhoneNumber)
+                .orElseThrow(() -> new RuntimeException("User not found with phone: " + merchantPhoneNumber));
+
+        long ttlSeconds = request.getExpiresInSeconds() != null ? request.getExpiresInSeconds() : defaultTtlSeconds;
+        if (ttlSeconds > maxTtlSeconds) {
+            throw new RuntimeException("Payment requests can be valid for at most " + maxTtlSeconds + " seconds");
+        }
+
+        byte[] tokenBytes = new byte[TOKEN_BYTES];
+        RANDOM.nextBytes(tokenBytes);
+        String token = HexFormat.of().formatHex(tokenBytes);
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plusSeconds(ttlSeconds);
+        PaymentRequest paymentRequest = mongoTemplate.insert(PaymentRequest.builder()
+                .merchantId(merchant.getId())
+                .amount(request.getAmount())
+                .description(request.getDescription())
+                .tokenHash(HashUtils.sha256Hex(token))
+                .status(PaymentRequestStatus.PENDING)
+                .createdAt(now)
+                .expiresAt(expiresAt)
+                .purgeAt(expiresAt.plusDays(retentionDays))
+                .build());
+
+        String content = qrPayloadCodec.encode(new QRPayloadCodec.Payload(merchant.getId(), request.getAmount(),
+                expiresAt.atZone(ZoneId.systemDefault()).toEpochSecond(), token));
+        logger.info("Payment request {} created by {} for {}", paymentRequest.getId(),
+                merchant.getPhoneNumber(), request.getAmount());
+
+        PaymentRequestResponse response = PaymentRequestResponse.from(paymentRequest);
+        response.setQrContent(content);
+        response.setQrCodeImage(qrCodeService.renderDataUrl(content));
+        return response;
+    }
+
+    /**
+     * A payment request, visible only to the merchant that created it
+     */
+    public PaymentRequestResponse get(String merchantPhoneNumber, String id) {
+        User merchant = userService.findByPhoneNumber(merchantPhoneNumber)
+                .orElseThrow(() -> new RuntimeException("User not found with phone: " + merchantPhoneNumber));
+        PaymentRequest paymentRequest = mongoTemplate.findOne(
+                Query.query(Criteria.where("_id").is(id).and("merchantId").is(merchant.getId())), PaymentRequest.class);
+        if (paymentRequest == null) {
+            throw new RuntimeException("Payment request not found: " + id);
+        }
+        return PaymentRequestResponse.from(paymentRequest);
+    }
+
+    /**
+     * Reserve the request for one payer
+     * @throws RuntimeException when it is unknown, expired, already paid or being paid
+     */
+    public PaymentRequest claim(String token, String merchantId, String payerPhoneNumber) {
+        Query pending = Query.query(Criteria.where("tokenHash").is(HashUtils.sha256Hex(token))
+                .and("merchantId").is(merchantId)
+                .and("status").is(PaymentRequestStatus.PENDING)
+                .and("expiresAt").gt(LocalDateTime.now()));
+        PaymentRequest claimed = mongoTemplate.findAndModify(pending,
+                new Update().set("status", PaymentRequestStatus.PROCESSING)
+                        .set("payerPhoneNumber", payerPhoneNumber)
+                        .set("claimedAt", LocalDateTime.now()),
+                FindAndModifyOptions.options().returnNew(true), PaymentRequest.class);
+        if (claimed == null) {
+            throw new RuntimeException("Payment request is expired or has already been paid");
+        }
+        return claimed;
+    }
+
+    /**
+     * Put a claimed request back after its transfer failed
+     */
+    public void release(PaymentRequest paymentRequest) {
+        mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(paymentRequest.getId())
+                        .and("status").is(PaymentRequestStatus.PROCESSING)),
+                new Update().set("status", PaymentRequestStatus.PENDING).unset("payerPhoneNumber").unset("claimedAt"),
+                PaymentRequest.class);
+    }
+
+    /**
+     * Mark a request paid by the given transaction and push it to the merchant.
+     * Idempotent, so the payment path and the sweeper can both call it for the same transfer.
+     */
+    public void complete(PaymentRequest paymentRequest, Transaction transaction) {
+        LocalDateTime now = LocalDateTime.now();
+        // PENDING too: the sweeper may have released a claim whose transfer then went through
+        PaymentRequest paid = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(paymentRequest.getId())
+                        .and("status").in(PaymentRequestStatus.PROCESSING, PaymentRequestStatus.PENDING)),
+                new Update().set("status", PaymentRequestStatus.PAID)
+                        .set("paidAt", now)
+                        .set("transactionReference", transaction.getReference())
+                        .set("purgeAt", now.plusDays(retentionDays)),
+                FindAndModifyOptions.options().returnNew(true), PaymentRequest.class);
+        if (paid == null) {
+            PaymentRequest current = mongoTemplate.findById(paymentRequest.getId(), PaymentRequest.class);
+            if (current == null || !transaction.getReference().equals(current.getTransactionReference())) {
+                logger.error("Payment request {} could not be marked paid by transfer {}",
+                        paymentRequest.getId(), transaction.getReference());
+            }
+            return;
+        }
+        logger.info("Payment request {} paid by {} with transaction {}",
+                paid.getId(), paid.getPayerPhoneNumber(), transaction.getReference());
+        eventStreamService.publish(paid.getMerchantId(), PAID_EVENT, PaymentRequestResponse.from(paid));
+    }
+
+    /**
+     * Resolve requests still in PROCESSING after the transfer timeout: paid if their transfer
+     * completed, released otherwise
+     */
+    @Scheduled(fixedDelayString = "${payment-requests.sweep-ms:60000}")
+    public void sweepStaleClaims() {
+        LocalDateTime cutoff = LocalDateTime.now().minusSeconds(transferTimeoutSeconds);
+        List<PaymentRequest> stale;
+        try {
+            // Claims made before claimedAt was recorded fall back to the creation time
+            stale = mongoTemplate.find(Query.query(Criteria.where("status").is(PaymentRequestStatus.PROCESSING)
+                    .orOperator(Criteria.where("claimedAt").lt(cutoff),
+                            Criteria.where("claimedAt").exists(false).and("createdAt").lt(cutoff))), PaymentRequest.class);
+        } catch (Exception e) {
+            logger.warn("Could not look up stale payment request claims: {}", e.getMessage());
+            return;
+        }
+        for (PaymentRequest paymentRequest : stale) {
+            try {
+                Transaction transaction = mongoTemplate.findOne(
+                        Query.query(Criteria.where("paymentRequestId").is(paymentRequest.getId())
+                                .and("status").is(TransactionStatus.COMPLETED)), Transaction.class);
+                if (transaction != null) {
+                    logger.info("Reconciling payment request {} with transfer {}",
+                            paymentRequest.getId(), transaction.getReference());
+                    complete(paymentRequest, transaction);
+                } else {
+                    logger.warn("Releasing payment request {} claimed by {} with no completed transfer",
+                            paymentRequest.getId(), paymentRequest.getPayerPhoneNumber());
+                    release(paymentRequest);
+                }
+            } catch (Exception e) {
+                logger.warn("Could not resolve payment request {}: {}", paymentRequest.getId(), e.getMessage());
+            }
+        }
+    }
+}
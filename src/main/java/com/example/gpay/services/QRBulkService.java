@@ -0,0 +1,224 @@
+package com.example.gpay.services;
+
+import com.example.gpay.dto.QRBulkRequest;
+import com.example.gpay.model.User;
+import com.example.gpay.utils.PhoneNumberUtils;
+import com.google.zxing.qrcode.QRCodeWriter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Bulk QR sticker generation for merchant onboarding.
+ * Users are resolved with one $in query, codes are rendered on a dedicated pool sized to the
+ * cores, and the ZIP is written while later codes are still rendering. At most a fixed window
+ * of rendered images is held in memory, whatever the size of the request.
+ */
+@Service
+@RequiredArgsConstructor
+public class QRBulkService {
+
+    private static final Logger logger = LoggerFactory.getLogger(QRBulkService.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final PhoneNumberUtils phoneNumberUtils;
+    private final QRCodeService qrCodeService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${qr.bulk.parallelism:0}")
+    private int parallelism;
+
+    @Value("${qr.bulk.max-codes:5000}")
+    private int maxCodes;
+
+    @Value("${qr.bulk.max-validity-days:3650}")
+    private int maxValidityDays;
+
+    // ZXing writers and output buffers are reused by each pool thread
+    private final ThreadLocal<QRCodeWriter> writers = ThreadLocal.withInitial(QRCodeWriter::new);
+    private final ThreadLocal<ByteArrayOutputStream> buffers = ThreadLocal.withInitial(() -> new ByteArrayOutputStream(4096));
+
+    private ForkJoinPool renderPool;
+    private int window;
+
+    @PostConstruct
+    public void init() {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        renderPool = new ForkJoinPool(threads);
+        window = threads * 4;
+        logger.info("Bulk QR rendering on {} threads", threads);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        renderPool.shutdownNow();
+    }
+
+    /**
+     * Reject requests that are empty or over the configured size before anything is streamed
+     */
+    public void validate(QRBulkRequest request) {
+        if (request.getPhoneNumbers() == null) {
+            request.setPhoneNumbers(new ArrayList<>());
+        }
+        if (request.getUserIds() == null) {
+            request.setUserIds(new ArrayList<>());
+        }
+        int requested = request.getPhoneNumbers().size() + request.getUserIds().size();
+        if (requested == 0) {
+            throw new RuntimeException("At least one phone number or user id is required");
+        }
+        if (requested > maxCodes) {
+            throw new RuntimeException("At most " + maxCodes + " QR codes can be generated per request");
+        }
+        Integer validityDays = request.getValidityDays();
+        if (validityDays != null && (validityDays < 0 || validityDays > maxValidityDays)) {
+            throw new RuntimeException("validityDays must be between 0 and " + maxValidityDays);
+        }
+    }
+
+    /**
+     * Write one PNG per resolved user, named after the phone number, manifest.txt recording
+     * when the codes were issued and until when they are valid, and missing.txt listing the
+     * requested numbers and ids that matched no user
+     */
+    public void writeZip(QRBulkRequest request, OutputStream outputStream) throws IOException {
+        long started = System.nanoTime();
+        Instant issuedAt = Instant.now();
+        int validityDays = request.getValidityDays() != null ? request.getValidityDays() : 0;
+        long expiresAt = validityDays > 0
+                ? issuedAt.plus(validityDays, ChronoUnit.DAYS).getEpochSecond()
+                : QRPayloadCodec.NO_EXPIRY;
+        Set<String> phoneNumbers = new LinkedHashSet<>();
+        for (String phoneNumber : request.getPhoneNumbers()) {
+            phoneNumbers.add(phoneNumberUtils.getPhoneNumberForLookup(phoneNumber));
+        }
+        Set<String> userIds = new LinkedHashSet<>(request.getUserIds());
+
+        List<User> users = findUsers(phoneNumbers, userIds);
+
+        ZipOutputStream zip = new ZipOutputStream(outputStream);
+        Deque<CompletableFuture<Sticker>> inFlight = new ArrayDeque<>(window);
+        try {
+            for (User user : users) {
+                if (inFlight.size() >= window) {
+                    writeEntry(zip, inFlight.removeFirst().get());
+                }
+                inFlight.addLast(CompletableFuture.supplyAsync(() -> render(user, expiresAt), renderPool));
+            }
+            while (!inFlight.isEmpty()) {
+                writeEntry(zip, inFlight.removeFirst().get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("QR bulk generation interrupted", e);
+        } catch (ExecutionException e) {
+            inFlight.forEach(future -> future.cancel(false));
+            throw new IOException("QR bulk generation failed: " + e.getCause().getMessage(), e.getCause());
+        }
+
+        Set<String> missing = missing(users, phoneNumbers, userIds);
+        zip.putNextEntry(new ZipEntry("manifest.txt"));
+        zip.write(manifest(issuedAt, validityDays, expiresAt, users.size(), missing.size())
+                .getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+        if (!missing.isEmpty()) {
+            zip.putNextEntry(new ZipEntry("missing.txt"));
+            zip.write(String.join("\n", missing).getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+        zip.finish();
+        zip.flush();
+
+        meterRegistry.counter("gpay.qr.bulk.rendered").increment(users.size());
+        logger.info("Bulk QR generation: {} codes, {} not found, {} ms",
+                users.size(), missing.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private List<User> findUsers(Set<String> phoneNumbers, Set<String> userIds) {
+        List<Criteria> criteria = new ArrayList<>(2);
+        if (!phoneNumbers.isEmpty()) {
+            criteria.add(Criteria.where("phoneNumber").in(phoneNumbers));
+        }
+        if (!userIds.isEmpty()) {
+            criteria.add(Criteria.where("_id").in(userIds));
+        }
+        Query query = Query.query(new Criteria().orOperator(criteria));
+        query.fields().include("_id").include("phoneNumber").include("firstName").include("lastName");
+        return mongoTemplate.find(query, User.class);
+    }
+
+    private Sticker render(User user, long expiresAt) {
+        try {
+            byte[] png = qrCodeService.renderPng(user, expiresAt, writers.get(), buffers.get());
+            // Stored rather than deflated: PNG is already compressed
+            CRC32 crc = new CRC32();
+            crc.update(png);
+            return new Sticker(user.getPhoneNumber().replace("+", "") + ".png", png, crc.getValue());
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to render QR code for " + user.getPhoneNumber() + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static void writeEntry(ZipOutputStream zip, Sticker sticker) throws IOException {
+        ZipEntry entry = new ZipEntry(sticker.name());
+        entry.setMethod(ZipEntry.STORED);
+        entry.setSize(sticker.png().length);
+        entry.setCompressedSize(sticker.png().length);
+        entry.setCrc(sticker.crc());
+        zip.putNextEntry(entry);
+        zip.write(sticker.png());
+        zip.closeEntry();
+    }
+
+    private static String manifest(Instant issuedAt, int validityDays, long expiresAt, int codes, int missing) {
+        return "issuedAt: " + issuedAt + "\n"
+                + "validityDays: " + (validityDays > 0 ? validityDays : "none") + "\n"
+                + "expiresAt: " + (expiresAt != QRPayloadCodec.NO_EXPIRY ? Instant.ofEpochSecond(expiresAt) : "never") + "\n"
+                + "codes: " + codes + "\n"
+                + "missing: " + missing + "\n";
+    }
+
+    private static Set<String> missing(List<User> users, Set<String> phoneNumbers, Set<String> userIds) {
+        Set<String> found = new HashSet<>();
+        for (User user : users) {
+            found.add(user.getPhoneNumber());
+            found.add(user.getId());
+        }
+        Set<String> missing = new LinkedHashSet<>();
+        phoneNumbers.stream().filter(phoneNumber -> !found.contains(phoneNumber)).forEach(missing::add);
+        userIds.stream().filter(userId -> !found.contains(userId)).forEach(missing::add);
+        return missing;
+    }
+
+    private record Sticker(String name, byte[] png, long crc) {
+    }
+}
@@ -2,13 +2,18 @@ package com.example.gpay.services;
 
 import com.example.gpay.dto.QRCodeData;
 import com.example.gpay.model.User;
+import com.example.gpay.utils.ETags;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.zxing.BarcodeFormat;
 import com.google.zxing.WriterException;
 import com.google.zxing.client.j2se.MatrixToImageWriter;
 import com.google.zxing.common.BitMatrix;
 import com.google.zxing.qrcode.QRCodeWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,7 +22,12 @@ import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.time.Instant;
 import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 @RequiredArgsConstructor
@@ -26,45 +36,149 @@ public class QRCodeService {
     private static final Logger logger = LoggerFactory.getLogger(QRCodeService.class);
     private static final int QR_CODE_WIDTH = 300;
     private static final int QR_CODE_HEIGHT = 300;
-    private static final String QR_VERSION = "1.0";
+    private static final String QR_VERSION = "2.0";
 
     private final UserService userService;
     private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final QRPayloadCodec qrPayloadCodec;
+
+    @Value("${qr.cache.size:10000}")
+    private int cacheSize;
+
+    @Value("${qr.signing.validity-days:180}")
+    private long validityDays;
+
+    @Value("${qr.recipient-cache.size:50000}")
+    private int recipientCacheSize;
+
+    @Value("${qr.recipient-cache.ttl-ms:60000}")
+    private long recipientCacheTtlMs;
+
+    private Map<String, RenderedQRCode> cache;
+    private final Map<String, CachedRecipient> recipients = new ConcurrentHashMap<>();
+    private Counter hitCounter;
+    private Counter missCounter;
+
+    @PostConstruct
+    public void init() {
+        // Access-ordered LinkedHashMap evicts the least recently served code
+        cache = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, RenderedQRCode> eldest) {
+                return size() > cacheSize;
+            }
+        });
+        hitCounter = meterRegistry.counter("gpay.qr.cache", "result", "hit");
+        missCounter = meterRegistry.counter("gpay.qr.cache", "result", "miss");
+    }
 
     /**
      * Generate QR code for user's payment information
      */
     public String generateUserQRCode(String phoneNumber) {
+        return getUserQRCode(getUserForQRDisplay(phoneNumber)).toDataUrl();
+    }
+
+    /**
+     * The user's rendered QR code, from the cache when the encoded fields have not changed.
+     * Entries are keyed by user id and QR version and carry the tag of the fields they were
+     * rendered from, so a profile change makes the entry stale without an explicit eviction.
+     */
+    public RenderedQRCode getUserQRCode(User user) {
+        String key = user.getId() + ":" + QR_VERSION;
+        long period = currentValidityPeriod();
+        String etag = qrCodeETag(user, period);
+        RenderedQRCode cached = cache.get(key);
+        if (cached != null && cached.getEtag().equals(etag)) {
+            hitCounter.increment();
+            return cached;
+        }
+        missCounter.increment();
+
         try {
-            // Find user by phone number
-            User user = userService.findByPhoneNumber(phoneNumber)
-                    .orElseThrow(() -> new RuntimeException("User not found with phone: " + phoneNumber));
+            long expiresAt = expiresAt(period);
+            String content = signedContent(user, expiresAt);
 
-            // Create QR code data
+            // Display data for the app, the code itself only carries the signed payload
             QRCodeData qrData = QRCodeData.builder()
                     .type("gpay_transfer")
                     .phone(user.getPhoneNumber())
                     .name(user.getFirstName() + " " + user.getLastName())
                     .version(QR_VERSION)
+                    .recipientId(user.getId())
+                    .expiresAt(expiresAt)
                     .build();
+            logger.info("Generating QR code for user: {} with payload: {}", user.getPhoneNumber(), content);
 
-            // Convert to JSON string
-            String qrDataJson = objectMapper.writeValueAsString(qrData);
-            logger.info("Generating QR code for user: {} with data: {}", phoneNumber, qrDataJson);
+            byte[] png = generateQRCodeImage(content, new QRCodeWriter(), new ByteArrayOutputStream());
+            logger.info("QR code image generated successfully, size: {} bytes", png.length);
 
-            // Generate QR code image
-            return generateQRCodeImage(qrDataJson);
+            RenderedQRCode rendered = new RenderedQRCode(etag, qrData, content, png);
+            cache.put(key, rendered);
+            return rendered;
 
         } catch (Exception e) {
-            logger.error("Error generating QR code for user {}: {}", phoneNumber, e.getMessage());
+            logger.error("Error generating QR code for user {}: {}", user.getPhoneNumber(), e.getMessage());
+            throw new RuntimeException("Failed to generate QR code: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Render a code for the user as PNG without going through the cache, for bulk jobs that
+     * would otherwise evict every interactive entry. Printed stickers do not follow the rotation
+     * of served codes, so the caller picks the expiry, {@link QRPayloadCodec#NO_EXPIRY} for none.
+     * The writer and buffer are supplied by the caller so worker threads can reuse them.
+     */
+    public byte[] renderPng(User user, long expiresAt, QRCodeWriter writer, ByteArrayOutputStream buffer)
+            throws WriterException, IOException {
+        return generateQRCodeImage(signedContent(user, expiresAt), writer, buffer);
+    }
+
+    /**
+     * Render arbitrary signed content, such as a payment request, as a PNG data URL
+     */
+    public String renderDataUrl(String content) {
+        try {
+            byte[] png = generateQRCodeImage(content, new QRCodeWriter(), new ByteArrayOutputStream());
+            return "data:image/png;base64," + Base64.getEncoder().encodeToString(png);
+        } catch (WriterException | IOException e) {
             throw new RuntimeException("Failed to generate QR code: " + e.getMessage());
         }
     }
 
     /**
-     * Parse QR code data from scanned content
+     * Codes issued in one half of the validity window all expire at the same instant,
+     * so they can be cached for the rest of that half and still have at least half left
+     */
+    private long expiresAt(long period) {
+        return (period + 2) * validityPeriodSeconds();
+    }
+
+    private String signedContent(User user, long expiresAt) {
+        return qrPayloadCodec.encode(new QRPayloadCodec.Payload(user.getId(), null, expiresAt, null));
+    }
+
+    /**
+     * Parse QR code data from scanned content.
+     * Signed codes are verified locally; legacy JSON codes go through the old parsing path.
      */
     public QRCodeData parseQRCode(String qrContent) {
+        if (QRPayloadCodec.isSigned(qrContent)) {
+            QRPayloadCodec.Payload payload = qrPayloadCodec.decode(qrContent, Instant.now().getEpochSecond());
+            // The code only carries the id; the payer confirms against the current name and phone
+            QRRecipient recipient = resolveRecipient(payload.recipientId());
+            return QRCodeData.builder()
+                    .type("gpay_transfer")
+                    .phone(recipient != null ? recipient.phone() : null)
+                    .name(recipient != null ? recipient.name() : null)
+                    .version(QR_VERSION)
+                    .recipientId(payload.recipientId())
+                    .amount(payload.amount())
+                    .expiresAt(payload.expiresAt() != QRPayloadCodec.NO_EXPIRY ? payload.expiresAt() : null)
+                    .paymentToken(payload.token())
+                    .build();
+        }
         try {
             logger.info("Parsing QR code content: {}", qrContent);
 
@@ -97,7 +211,14 @@ public class QRCodeService {
      */
     public boolean validateQRRecipient(QRCodeData qrData) {
         try {
-            return userService.findByPhoneNumber(qrData.getPhone()).isPresent();
+            // A valid signature only says we issued the code, the account may have been closed since
+            if (qrData.getRecipientId() != null) {
+                QRRecipient recipient = resolveRecipient(qrData.getRecipientId());
+                return recipient != null && recipient.active();
+            }
+            return userService.findByPhoneNumber(qrData.getPhone())
+                    .filter(user -> Boolean.TRUE.equals(user.getIsActive()))
+                    .isPresent();
         } catch (Exception e) {
             logger.error("Error validating QR recipient: {}", e.getMessage());
             return false;
@@ -105,22 +226,96 @@ public class QRCodeService {
     }
 
     /**
-     * Generate QR code image and return as Base64 string
+     * Display details and status of the user a signed code was issued for, null when the user
+     * no longer exists. Cached briefly, so a deactivation takes effect within the cache TTL.
      */
-    private String generateQRCodeImage(String content) throws WriterException, IOException {
-        QRCodeWriter qrCodeWriter = new QRCodeWriter();
+    private QRRecipient resolveRecipient(String userId) {
+        long now = System.currentTimeMillis();
+        CachedRecipient cached = recipients.get(userId);
+        if (cached != null && cached.expiresAt > now) {
+            return cached.recipient;
+        }
+
+        QRRecipient recipient = userService.findById(userId)
+                .map(user -> new QRRecipient(user.getPhoneNumber(), user.getFirstName() + " " + user.getLastName(),
+                        Boolean.TRUE.equals(user.getIsActive())))
+                .orElse(null);
+
+        if (recipients.size() >= recipientCacheSize) {
+            recipients.values().removeIf(entry -> entry.expiresAt <= now);
+            if (recipients.size() >= recipientCacheSize) {
+                recipients.clear();
+            }
+        }
+        recipients.put(userId, new CachedRecipient(recipient, now + recipientCacheTtlMs));
+        return recipient;
+    }
+
+    /**
+     * Generate QR code image as PNG bytes
+     */
+    private byte[] generateQRCodeImage(String content, QRCodeWriter qrCodeWriter, ByteArrayOutputStream outputStream)
+            throws WriterException, IOException {
         BitMatrix bitMatrix = qrCodeWriter.encode(content, BarcodeFormat.QR_CODE, QR_CODE_WIDTH, QR_CODE_HEIGHT);
 
         BufferedImage qrImage = MatrixToImageWriter.toBufferedImage(bitMatrix);
 
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        outputStream.reset();
         ImageIO.write(qrImage, "PNG", outputStream);
+        return outputStream.toByteArray();
+    }
 
-        byte[] imageBytes = outputStream.toByteArray();
-        String base64Image = Base64.getEncoder().encodeToString(imageBytes);
+    /**
+     * Generate QR code as SVG: one unit per module and one path for all dark modules,
+     * so there is no raster step and the image scales to any size
+     */
+    static String generateQRCodeSvg(String content) throws WriterException {
+        // Zero size yields the bare module matrix with its quiet zone
+        BitMatrix modules = new QRCodeWriter().encode(content, BarcodeFormat.QR_CODE, 0, 0);
+        int width = modules.getWidth();
+        int height = modules.getHeight();
 
-        logger.info("QR code image generated successfully, size: {} bytes", imageBytes.length);
-        return "data:image/png;base64," + base64Image;
+        StringBuilder path = new StringBuilder(width * height);
+        for (int y = 0; y < height; y++) {
+            int x = 0;
+            while (x < width) {
+                if (!modules.get(x, y)) {
+                    x++;
+                    continue;
+                }
+                int start = x;
+                while (x < width && modules.get(x, y)) {
+                    x++;
+                }
+                path.append('M').append(start).append(' ').append(y)
+                        .append('h').append(x - start).append("v1h-").append(x - start).append('z');
+            }
+        }
+
+        return "<svg xmlns=\"http://www.w3.org/2000/svg\" viewBox=\"0 0 " + width + " " + height
+                + "\" width=\"" + QR_CODE_WIDTH + "\" height=\"" + QR_CODE_HEIGHT + "\" shape-rendering=\"crispEdges\">"
+                + "<rect width=\"100%\" height=\"100%\" fill=\"#fff\"/>"
+                + "<path fill=\"#000\" d=\"" + path + "\"/></svg>";
+    }
+
+    /**
+     * Entity tag of the user's QR code: the displayed fields, the format version and the validity period
+     */
+    public String getQRCodeETag(User user) {
+        return qrCodeETag(user, currentValidityPeriod());
+    }
+
+    private String qrCodeETag(User user, long period) {
+        return ETags.of("qr", QR_VERSION, user.getId(), user.getPhoneNumber(), user.getFirstName(),
+                user.getLastName(), period);
+    }
+
+    private long validityPeriodSeconds() {
+        return Math.max(1, validityDays * 86400 / 2);
+    }
+
+    private long currentValidityPeriod() {
+        return Instant.now().getEpochSecond() / validityPeriodSeconds();
     }
 
     /**
@@ -130,4 +325,58 @@ public class QRCodeService {
         return userService.findByPhoneNumber(phoneNumber)
                 .orElseThrow(() -> new RuntimeException("User not found with phone: " + phoneNumber));
     }
-}
\ No newline at end of file
+
+    private record QRRecipient(String phone, String name, boolean active) {
+    }
+
+    private record CachedRecipient(QRRecipient recipient, long expiresAt) {
+    }
+
+    /**
+     * A rendered QR code; the SVG form is only built when first asked for
+     */
+    public static final class RenderedQRCode {
+
+        private final String etag;
+        private final QRCodeData data;
+        private final String content;
+        private final byte[] png;
+        private volatile String svg;
+
+        RenderedQRCode(String etag, QRCodeData data, String content, byte[] png) {
+            this.etag = etag;
+            this.data = data;
+            this.content = content;
+            this.png = png;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public QRCodeData getData() {
+            return data;
+        }
+
+        public byte[] getPng() {
+            return png;
+        }
+
+        public String getSvg() {
+            String rendered = svg;
+            if (rendered == null) {
+                try {
+                    rendered = generateQRCodeSvg(content);
+                } catch (WriterException e) {
+                    throw new RuntimeException("Failed to generate QR code: " + e.getMessage());
+                }
+                svg = rendered;
+            }
+            return rendered;
+        }
+
+        public String toDataUrl() {
+            return "data:image/png;base64," + Base64.getEncoder().encodeToString(png);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.gpay.services;
+
+import java.time.Duration;
+
+/**
+ * Sliding window request counters used by the rate limiting filter.
+ * A bucket names one limit (route group and key type) and the key identifies the caller
+ * within it, e.g. a phone number or an IP address.
+ */
+public interface RateLimitStore {
+
+    /**
+     * Count one request against the limit
+     * @return 0 if the request is allowed, otherwise the milliseconds until it would be
+     */
+    long tryAcquire(String bucket, String key, int limit, Duration window);
+
+    /**
+     * Convert a limiter wait to whole milliseconds, rounding up so a sub-millisecond
+     * wait is not read as an admitted request
+     */
+    static long waitMillis(long waitNanos) {
+        return (waitNanos + 999_999) / 1_000_000;
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.gpay.services;
+
+import com.example.gpay.model.Transaction;
+import com.example.gpay.model.TransactionStatus;
+import com.example.gpay.model.TransactionType;
+import com.example.gpay.model.User;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.LocalDateTime;
+
+/**
+ * Account reads and transaction status checks on reactive Mongo, for the reactive profile.
+ * Completing a deposit or withdrawal is settled atomically: the status flip is conditional on
+ * the transaction not being completed yet, and only the request that wins it moves the balance
+ * with $inc, so concurrent status checks cannot credit twice.
+ */
+@Service
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveAccountService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveAccountService.class);
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final UserService userService;
+    private final CampayService campayService;
+    private final NotificationService notificationService;
+    private final EventStreamService eventStreamService;
+    private final Scheduler blockingScheduler;
+
+    public Mono<User> findUser(String phoneNumber) {
+        return reactiveMongoTemplate.findOne(Query.query(userService.phoneLookup(phoneNumber)), User.class)
+                .switchIfEmpty(Mono.defer(() -> Mono.justOrEmpty(userService.legacyPhoneLookup(phoneNumber))
+                        .flatMap(legacy -> reactiveMongoTemplate.findOne(Query.query(legacy), User.class))
+                        .doOnNext(user -> blockingScheduler.schedule(() -> userService.assignPhoneKey(user)))))
+                .switchIfEmpty(Mono.error(new RuntimeException("User not found with phone: " + phoneNumber)));
+    }
+
+    /**
+     * The user's transactions, newest first, streamed as they are read
+     */
+    public Flux<Transaction> getUserTransactions(String phoneNumber) {
+        return findUser(phoneNumber).flatMapMany(user -> reactiveMongoTemplate.find(
+                Query.query(Criteria.where("userId").is(user.getId()))
+                        .with(Sort.by(Sort.Direction.DESC, "createdAt")),
+                Transaction.class));
+    }
+
+    /**
+     * Entity tag of the user's transaction history, computed as in {@link TransactionService#getHistoryETag}
+     */
+    public Mono<String> getHistoryETag(String phoneNumber) {
+        return findUser(phoneNumber).flatMap(user -> reactiveMongoTemplate.aggregate(
+                        Aggregation.newAggregation(Transaction.class,
+                                Aggregation.match(Criteria.where("userId").is(user.getId())),
+                                Aggregation.group().count().as("count").max("updatedAt").as("latest")),
+                        Document.class)
+                .next()
+                .map(version -> TransactionService.historyETag(user.getId(), version))
+                .defaultIfEmpty(TransactionService.historyETag(user.getId(), null)));
+    }
+
+    /**
+     * Check the transaction with Campay and store the new status
+     */
+    public Mono<Transaction> updateTransactionStatus(String reference) {
+        Query query = Query.query(new Criteria().orOperator(
+                Criteria.where("reference").is(reference),
+                Criteria.where("externalReference").is(reference)));
+        return reactiveMongoTemplate.findOne(query, Transaction.class)
+                .switchIfEmpty(Mono.error(new RuntimeException("Transaction not found with reference: " + reference)))
+                .flatMap(transaction -> {
+                    if (transaction.getExternalReference() == null) {
+                        logger.warn("Transaction {} has no external reference", reference);
+                        return Mono.just(transaction);
+                    }
+                    return campayService.getTransactionStatus(transaction.getExternalReference())
+                            .flatMap(response -> applyStatus(transaction,
+                                    TransactionService.mapCampayStatus(response.getStatus())));
+                });
+    }
+
+    private Mono<Transaction> applyStatus(Transaction transaction, TransactionStatus newStatus) {
+        if (newStatus == transaction.getStatus()) {
+            return Mono.just(transaction);
+        }
+        logger.info("Manual transaction {} status update: {} -> {}",
+                transaction.getReference(), transaction.getStatus(), newStatus);
+
+        Query notCompleted = Query.query(Criteria.where("_id").is(transaction.getId())
+                .and("status").ne(TransactionStatus.COMPLETED));
+        Update update = new Update().set("status", newStatus).set("updatedAt", LocalDateTime.now());
+        return reactiveMongoTemplate.findAndModify(notCompleted, update,
+                        FindAndModifyOptions.options().returnNew(true), Transaction.class)
+                .flatMap(updated -> newStatus == TransactionStatus.COMPLETED
+                        ? settle(updated).thenReturn(updated)
+                        : Mono.just(updated))
+                // Already completed by someone else: report the stored state
+                .switchIfEmpty(Mono.defer(() -> reactiveMongoTemplate.findById(transaction.getId(), Transaction.class)))
+                .doOnNext(eventStreamService::publishTransaction);
+    }
+
+    private Mono<Void> settle(Transaction transaction) {
+        double delta = switch (transaction.getType()) {
+            case DEPOSIT -> transaction.getAmount();
+            case WITHDRAWAL -> -transaction.getAmount();
+            default -> 0;
+        };
+        if (delta == 0) {
+            return Mono.empty();
+        }
+        return reactiveMongoTemplate.findAndModify(
+                        Query.query(Criteria.where("_id").is(transaction.getUserId())),
+                        new Update().inc("balance", delta).set("updatedAt", LocalDateTime.now()),
+                        FindAndModifyOptions.options().returnNew(true), User.class)
+                .doOnNext(user -> {
+                    logger.info("Balance updated successfully for transaction: {} - New balance: {}",
+                            transaction.getReference(), user.getBalance());
+                    eventStreamService.publishBalance(user);
+                    // Template rendering and recipient lookup stay off the event loop
+                    blockingScheduler.schedule(() -> notifyCompleted(user, transaction));
+                })
+                .then();
+    }
+
+    private void notifyCompleted(User user, Transaction transaction) {
+        try {
+            if (transaction.getType() == TransactionType.DEPOSIT) {
+                notificationService.sendDepositNotification(user.getPhoneNumber(), transaction.getAmount(), "COMPLETED");
+            } else {
+                notificationService.sendWithdrawalNotification(user.getPhoneNumber(), transaction.getAmount(), "COMPLETED");
+            }
+        } catch (Exception e) {
+            logger.error("Error sending completion notification: {}", e.getMessage());
+        }
+    }
+}
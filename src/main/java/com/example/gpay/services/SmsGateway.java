@@ -0,0 +1,27 @@
+package com.example.gpay.services;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Outbound SMS provider
+ */
+public interface SmsGateway {
+
+    /**
+     * Send a single SMS, blocking until the provider accepted it
+     * @return the provider's message identifier
+     */
+    String send(String phoneNumber, String message);
+
+    /**
+     * Send without holding the calling thread until the provider answers.
+     * Gateways with a blocking client send on the caller and return a completed future.
+     */
+    default CompletableFuture<String> sendAsync(String phoneNumber, String message) {
+        try {
+            return CompletableFuture.completedFuture(send(phoneNumber, message));
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.gpay.services;
+
+/**
+ * An SMS was refused up front because its sender budget is spent, so the caller can answer 429
+ */
+public class SmsRateLimitException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public SmsRateLimitException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -452,14 +452,24 @@ import com.example.gpay.model.TransactionStatus;
 import com.example.gpay.model.TransactionType;
 import com.example.gpay.model.User;
 import com.example.gpay.repository.TransactionRepository;
+import com.example.gpay.utils.ETags;
+import jakarta.annotation.PostConstruct;
+import org.bson.Document;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.scheduling.annotation.Async;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.time.LocalDateTime;
+import java.util.Date;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
@@ -480,6 +490,20 @@ public class TransactionService {
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @PostConstruct
+    public void ensureIndexes() {
+        try {
+            // Serves the history listing and the history version lookup
+            mongoTemplate.indexOps(Transaction.class)
+                    .ensureIndex(new Index().on("userId", Sort.Direction.ASC).on("updatedAt", Sort.Direction.DESC));
+        } catch (Exception e) {
+            logger.error("Failed to ensure transaction indexes: {}", e.getMessage());
+        }
+    }
+
     @Transactional
     public Mono<Transaction> deposit(String phoneNumber, DepositRequest request) {
         try {
@@ -514,7 +538,10 @@ public class TransactionService {
                     user.getPhoneNumber(),
                     "Deposit to wallet",
                     savedTransaction.getReference()
-            ).map(campayResponse -> {
+            )
+            // Repository writes below must not run on the WebClient event loop
+            .publishOn(Schedulers.boundedElastic())
+            .map(campayResponse -> {
                 logger.info("Campay collect response: {}", campayResponse);
 
                 // Update transaction with external reference and status
@@ -593,7 +620,10 @@ public class TransactionService {
                     user.getPhoneNumber(),
                     "Withdrawal from wallet",
                     savedTransaction.getReference()
-            ).map(campayResponse -> {
+            )
+            // Repository writes below must not run on the WebClient event loop
+            .publishOn(Schedulers.boundedElastic())
+            .map(campayResponse -> {
                 logger.info("Campay disburse response: {}", campayResponse);
 
                 // Update transaction with external reference and status
@@ -867,6 +897,29 @@ public class TransactionService {
         }
     }
 
+    /**
+     * Entity tag of the user's transaction history, from the transaction count and the latest
+     * updatedAt; one grouped query on the userId index instead of loading the list
+     */
+    public String getHistoryETag(String phoneNumber) {
+        User user = userService.findByPhoneNumber(phoneNumber)
+                .orElseThrow(() -> new RuntimeException("User not found with phone: " + phoneNumber));
+
+        Aggregation aggregation = Aggregation.newAggregation(Transaction.class,
+                Aggregation.match(Criteria.where("userId").is(user.getId())),
+                Aggregation.group().count().as("count").max("updatedAt").as("latest"));
+        Document version = mongoTemplate.aggregate(aggregation, Document.class).getUniqueMappedResult();
+        return historyETag(user.getId(), version);
+    }
+
+    static String historyETag(String userId, Document version) {
+        if (version == null) {
+            return ETags.of("history", userId, 0);
+        }
+        Date latest = version.getDate("latest");
+        return ETags.of("history", userId, version.get("count"), latest != null ? latest.getTime() : 0);
+    }
+
     /**
      * Manual transaction status update (kept for backward compatibility)
      */
@@ -943,7 +996,7 @@ public class TransactionService {
         }
     }
 
-    private TransactionStatus mapCampayStatus(String campayStatus) {
+    static TransactionStatus mapCampayStatus(String campayStatus) {
         if (campayStatus == null) {
             return TransactionStatus.PENDING;
         }
@@ -38,8 +38,17 @@ public class TransferService {
      */
     @Transactional
     public Transaction processTransfer(String senderPhoneNumber, TransferRequest request) {
+        return processTransfer(senderPhoneNumber, request, true);
+    }
+
+    /**
+     * Process a transfer; requirePin is false only for callers that authenticated the sender
+     * with a signed merchant API key instead of a user session
+     */
+    @Transactional
+    public Transaction processTransfer(String senderPhoneNumber, TransferRequest request, boolean requirePin) {
         logger.info("Processing transfer from {} to {} for amount {}",
-                senderPhoneNumber, request.getRecipientPhoneNumber(), request.getAmount());
+                senderPhoneNumber, recipientLabel(request), request.getAmount());
 
         try {
             // Step 1: Find and validate sender
@@ -47,11 +56,15 @@ public class TransferService {
             logger.info("Sender found: {}", sender.getPhoneNumber());
 
             // Step 2: Find and validate recipient
-            User recipient = findUserByPhoneNumber(request.getRecipientPhoneNumber());
+            User recipient = request.getRecipientId() != null
+                    ? userService.getUserById(request.getRecipientId())
+                    : findUserByPhoneNumber(request.getRecipientPhoneNumber());
             logger.info("Recipient found: {}", recipient.getPhoneNumber());
 
             // Step 3: Validate PIN
-            validateUserPin(sender, request.getPin());
+            if (requirePin) {
+                validateUserPin(sender, request.getPin());
+            }
 
             // Step 4: Check sufficient balance
             validateSufficientBalance(sender, request.getAmount());
@@ -78,11 +91,15 @@ public class TransferService {
 
         } catch (Exception e) {
             logger.error("Transfer failed from {} to {}: {}",
-                    senderPhoneNumber, request.getRecipientPhoneNumber(), e.getMessage());
+                    senderPhoneNumber, recipientLabel(request), e.getMessage());
             throw new RuntimeException("Transfer failed: " + e.getMessage(), e);
         }
     }
 
+    private static String recipientLabel(TransferRequest request) {
+        return request.getRecipientId() != null ? "user " + request.getRecipientId() : request.getRecipientPhoneNumber();
+    }
+
     /**
      * Find user by phone number with proper error handling
      */
@@ -137,6 +154,7 @@ public class TransferService {
         transaction.setStatus(TransactionStatus.PENDING);
         transaction.setRecipientId(recipient.getId());
         transaction.setRecipientPhoneNumber(recipient.getPhoneNumber());
+        transaction.setPaymentRequestId(request.getPaymentRequestId());
         transaction.setReference(generateTransactionReference());
         transaction.setCreatedAt(LocalDateTime.now());
         transaction.setUpdatedAt(LocalDateTime.now());
@@ -175,20 +193,12 @@ public class TransferService {
     private void sendTransferNotifications(User sender, User recipient, Double amount, String reference) {
         try {
             // Notify sender
-            notificationService.sendTransferNotification(
-                    sender.getPhoneNumber(),
-                    String.format("Transfer successful! You sent %.2f to %s. Reference: %s",
-                            amount, recipient.getPhoneNumber(), reference),
-                    "TRANSFER_SENT"
-            );
+            notificationService.sendTransferSentNotification(
+                    sender.getPhoneNumber(), amount, recipient.getPhoneNumber(), reference);
 
             // Notify recipient
-            notificationService.sendTransferNotification(
-                    recipient.getPhoneNumber(),
-                    String.format("Money received! You received %.2f from %s. Reference: %s",
-                            amount, sender.getPhoneNumber(), reference),
-                    "TRANSFER_RECEIVED"
-            );
+            notificationService.sendTransferReceivedNotification(
+                    recipient.getPhoneNumber(), amount, sender.getPhoneNumber(), reference);
 
         } catch (Exception e) {
             logger.warn("Failed to send transfer notifications: {}", e.getMessage());
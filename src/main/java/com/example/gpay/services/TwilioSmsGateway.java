@@ -0,0 +1,64 @@
+package com.example.gpay.services;
+
+import com.example.gpay.utils.PhoneNumberUtils;
+import com.twilio.rest.api.v2010.account.Message;
+import com.twilio.rest.api.v2010.account.MessageCreator;
+import com.twilio.type.PhoneNumber;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+
+@Component
+@Profile("!sms-sink & !reactive")
+public class TwilioSmsGateway implements SmsGateway {
+
+    @Value("${twilio.phone-number}")
+    private String fromPhoneNumber;
+
+    @Value("${twilio.status-callback-url:}")
+    private String statusCallbackUrl;
+
+    @Override
+    public String send(String phoneNumber, String message) {
+        MessageCreator creator = Message.creator(
+                new PhoneNumber(formatPhoneNumber(phoneNumber)),  // To
+                new PhoneNumber(fromPhoneNumber),                 // From (Twilio number)
+                message
+        );
+
+        // Delivery receipts update the notification log through the webhook
+        if (!statusCallbackUrl.isBlank()) {
+            creator.setStatusCallback(URI.create(statusCallbackUrl));
+        }
+
+        return creator.create().getSid();
+    }
+
+    /**
+     * Format phone number for Twilio (ensure it starts with country code)
+     */
+    static String formatPhoneNumber(String phoneNumber) {
+        long key = PhoneNumberUtils.parseKey(phoneNumber);
+        if (key >= 0) {
+            return PhoneNumberUtils.toE164(key);
+        }
+
+        // Not a Cameroon number: remove any spaces, dashes, or parentheses and send as given
+        StringBuilder cleaned = new StringBuilder(phoneNumber.length() + 4);
+        for (int i = 0; i < phoneNumber.length(); i++) {
+            char c = phoneNumber.charAt(i);
+            if (!Character.isWhitespace(c) && c != '-' && c != '(' && c != ')') {
+                cleaned.append(c);
+            }
+        }
+
+        // If it doesn't start with +, assume it's a Cameroon number
+        if (cleaned.isEmpty() || cleaned.charAt(0) != '+') {
+            cleaned.insert(0, cleaned.indexOf("237") == 0 ? "+" : "+237");
+        }
+
+        return cleaned.toString();
+    }
+}
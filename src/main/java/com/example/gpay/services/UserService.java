@@ -1,18 +1,46 @@
 package com.example.gpay.services;
 
 import com.example.gpay.dto.RegisterRequest;
+import com.example.gpay.model.NotificationChannel;
+import com.example.gpay.model.NotificationPriority;
 import com.example.gpay.model.User;
 import com.example.gpay.repository.UserRepository;
+import com.example.gpay.security.MerchantApiKeyService;
+import com.example.gpay.utils.ETags;
 import com.example.gpay.utils.PhoneNumberUtils;
+import com.mongodb.bulk.BulkWriteError;
+import jakarta.annotation.PostConstruct;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
 public class UserService {
 
+    private static final Logger logger = LoggerFactory.getLogger(UserService.class);
+    private static final int DUPLICATE_KEY = 11000;
+    private static final String MIGRATIONS_COLLECTION = "migrations";
+    private static final String PHONE_KEY_MIGRATION = "users.phoneKey";
+
     @Autowired
     private UserRepository userRepository;
 
@@ -22,6 +50,107 @@ public class UserService {
     @Autowired
     private PhoneNumberUtils phoneNumberUtils;
 
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private NotificationTemplateEngine templateEngine;
+
+    @Autowired
+    private NotificationRecipientResolver recipientResolver;
+
+    @Autowired
+    private MerchantApiKeyService merchantApiKeyService;
+
+    @Value("${users.phone-key.backfill-batch-size:1000}")
+    private int backfillBatchSize;
+
+    @PostConstruct
+    public void ensurePhoneKeys() {
+        try {
+            mongoTemplate.indexOps(User.class)
+                    .ensureIndex(new Index().on("phoneKey", Sort.Direction.ASC).unique().sparse());
+        } catch (Exception e) {
+            logger.error("Failed to ensure phone key index: {}", e.getMessage());
+        }
+        // Lookups fall back to the string field on a miss, so startup does not wait for it
+        Thread backfill = new Thread(this::backfillPhoneKeys, "gpay-phone-key-backfill");
+        backfill.setDaemon(true);
+        backfill.start();
+    }
+
+    /**
+     * Set phoneKey on users stored before it existed, in _id order and in batches.
+     * Runs until one node records it as done in the migrations collection. Users inserted
+     * afterwards by nodes still on an older version are keyed when first looked up.
+     */
+    void backfillPhoneKeys() {
+        try {
+            if (mongoTemplate.exists(Query.query(Criteria.where("_id").is(PHONE_KEY_MIGRATION)), MIGRATIONS_COLLECTION)) {
+                logger.debug("Phone key backfill already done");
+                return;
+            }
+            Object lastId = null;
+            long updated = 0;
+            int conflicts = 0;
+            int failures = 0;
+            while (true) {
+                Criteria missing = Criteria.where("phoneKey").exists(false);
+                if (lastId != null) {
+                    missing = missing.and("_id").gt(lastId);
+                }
+                Query query = Query.query(missing).with(Sort.by(Sort.Direction.ASC, "_id")).limit(backfillBatchSize);
+                query.fields().include("_id").include("phoneNumber");
+                List<Document> batch = mongoTemplate.find(query, Document.class, "users");
+                if (batch.isEmpty()) {
+                    break;
+                }
+
+                BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, "users");
+                List<Document> pending = new ArrayList<>(batch.size());
+                for (Document user : batch) {
+                    lastId = user.get("_id");
+                    long key = PhoneNumberUtils.parseKey(user.getString("phoneNumber"));
+                    if (key >= 0) {
+                        bulk.updateOne(Query.query(Criteria.where("_id").is(lastId).and("phoneKey").exists(false)),
+                                new Update().set("phoneKey", key));
+                        pending.add(user);
+                    }
+                }
+                if (pending.isEmpty()) {
+                    continue;
+                }
+                try {
+                    updated += bulk.execute().getModifiedCount();
+                } catch (BulkOperationException e) {
+                    // Unordered, so every other update in the batch was still applied
+                    updated += e.getResult().getModifiedCount();
+                    for (BulkWriteError error : e.getErrors()) {
+                        Document user = pending.get(error.getIndex());
+                        if (error.getCode() == DUPLICATE_KEY) {
+                            conflicts++;
+                            logger.warn("Phone key of user {} ({}) is already taken by another user, left unset",
+                                    user.get("_id"), user.getString("phoneNumber"));
+                        } else {
+                            failures++;
+                            logger.warn("Could not set phone key of user {}: {}", user.get("_id"), error.getMessage());
+                        }
+                    }
+                }
+            }
+            if (failures == 0) {
+                mongoTemplate.upsert(Query.query(Criteria.where("_id").is(PHONE_KEY_MIGRATION)),
+                        new Update().set("completedAt", LocalDateTime.now()).set("updated", updated)
+                                .set("conflicts", conflicts),
+                        MIGRATIONS_COLLECTION);
+            }
+            logger.info("Phone key backfill complete, {} users updated, {} conflicts, {} failures",
+                    updated, conflicts, failures);
+        } catch (Exception e) {
+            logger.error("Phone key backfill failed, lookups keep matching the phone number string: {}", e.getMessage());
+        }
+    }
+
     public User registerUser(RegisterRequest request) {
         // Normalize phone number to include country code
         String normalizedPhoneNumber = phoneNumberUtils.normalizePhoneNumber(request.getPhoneNumber());
@@ -32,7 +161,7 @@ public class UserService {
         }
 
         // Check if phone number already exists
-        if (userRepository.existsByPhoneNumber(normalizedPhoneNumber)) {
+        if (existsByPhoneNumber(normalizedPhoneNumber)) {
             throw new RuntimeException("Phone number already exists");
         }
 
@@ -47,8 +176,15 @@ public class UserService {
             user.setLastName(request.getLastName());
             user.setEmail(request.getEmail());
             user.setPhoneNumber(normalizedPhoneNumber); // Store normalized phone number
+            long phoneKey = PhoneNumberUtils.parseKey(normalizedPhoneNumber);
+            user.setPhoneKey(phoneKey >= 0 ? phoneKey : null);
             user.setPassword(passwordEncoder.encode(request.getPassword()));
             user.setPin(passwordEncoder.encode(request.getPin()));
+            if (request.getLanguage() != null && templateEngine.supportsLanguage(request.getLanguage())) {
+                user.setLanguage(request.getLanguage());
+            } else {
+                user.setLanguage(templateEngine.getDefaultLanguage());
+            }
             user.setCreatedAt(LocalDateTime.now());
             user.setUpdatedAt(LocalDateTime.now());
 
@@ -62,14 +198,82 @@ public class UserService {
     }
 
     public Optional<User> findByPhoneNumber(String phoneNumber) {
-        // Normalize the phone number for lookup
-        String normalizedPhoneNumber = phoneNumberUtils.getPhoneNumberForLookup(phoneNumber);
-        return userRepository.findByPhoneNumber(normalizedPhoneNumber);
+        User user = mongoTemplate.findOne(Query.query(phoneLookup(phoneNumber)), User.class);
+        if (user != null) {
+            return Optional.of(user);
+        }
+        Optional<Criteria> legacy = legacyPhoneLookup(phoneNumber);
+        if (legacy.isEmpty()) {
+            return Optional.empty();
+        }
+        user = mongoTemplate.findOne(Query.query(legacy.get()), User.class);
+        if (user != null) {
+            assignPhoneKey(user);
+        }
+        return Optional.ofNullable(user);
+    }
+
+    /**
+     * Criteria matching the user with this phone number in any accepted input form.
+     * Valid numbers are matched on the numeric phoneKey; callers that miss retry with
+     * {@link #legacyPhoneLookup} for users stored without a key.
+     */
+    public Criteria phoneLookup(String phoneNumber) {
+        long key = PhoneNumberUtils.parseKey(phoneNumber);
+        if (key < 0) {
+            return Criteria.where("phoneNumber").is(phoneNumberUtils.getPhoneNumberForLookup(phoneNumber));
+        }
+        return Criteria.where("phoneKey").is(key);
+    }
+
+    /**
+     * Criteria matching a user with this phone number that has no phoneKey yet: not reached by the
+     * backfill, or inserted by a node still on an older version during a rolling deploy. Empty
+     * when the number has no key, as {@link #phoneLookup} already matched the string then.
+     */
+    public Optional<Criteria> legacyPhoneLookup(String phoneNumber) {
+        long key = PhoneNumberUtils.parseKey(phoneNumber);
+        if (key < 0) {
+            return Optional.empty();
+        }
+        return Optional.of(Criteria.where("phoneNumber").is(PhoneNumberUtils.toE164(key)).and("phoneKey").exists(false));
+    }
+
+    /**
+     * Key a user found through the legacy lookup, so later lookups hit the index directly
+     */
+    public void assignPhoneKey(User user) {
+        long key = PhoneNumberUtils.parseKey(user.getPhoneNumber());
+        if (key < 0) {
+            return;
+        }
+        try {
+            mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(user.getId()).and("phoneKey").exists(false)),
+                    new Update().set("phoneKey", key), User.class);
+            user.setPhoneKey(key);
+        } catch (DuplicateKeyException e) {
+            logger.warn("Phone key of user {} ({}) is already taken by another user, left unset",
+                    user.getId(), user.getPhoneNumber());
+        } catch (Exception e) {
+            logger.warn("Could not set phone key of user {}: {}", user.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Entity tag of the profile view; every user write sets updatedAt, and the balance is
+     * included so two updates within the same millisecond still change the tag
+     */
+    public static String profileETag(User user) {
+        return ETags.of("profile", user.getId(), user.getUpdatedAt(), user.getBalance());
     }
 
 
     public boolean validatePin(User user, String pin) {
-        return passwordEncoder.matches(pin, user.getPin());
+        if (!passwordEncoder.matches(pin, user.getPin())) {
+            return false;
+        }
+        rehashIfNeeded(user, "pin", user.getPin(), pin);
+        return true;
     }
 
     public Optional<User> findById(String userId) {
@@ -97,7 +301,7 @@ public class UserService {
         Optional<User> userOpt = findByPhoneNumber(phoneNumber);
         if (userOpt.isPresent()) {
             User user = userOpt.get();
-            if (passwordEncoder.matches(password, user.getPassword())) {
+            if (validatePassword(user, password)) {
                 return Optional.of(user);
             }
         }
@@ -106,7 +310,31 @@ public class UserService {
 
     // Method to validate password
     public boolean validatePassword(User user, String password) {
-        return passwordEncoder.matches(password, user.getPassword());
+        if (!passwordEncoder.matches(password, user.getPassword())) {
+            return false;
+        }
+        rehashIfNeeded(user, "password", user.getPassword(), password);
+        return true;
+    }
+
+    /**
+     * Re-encode a verified secret whose hash does not match the configured algorithm and cost.
+     * Only that field is written, and only if it still holds the hash that was verified.
+     */
+    private void rehashIfNeeded(User user, String field, String currentHash, String rawSecret) {
+        if (user.getId() == null || !passwordEncoder.upgradeEncoding(currentHash)) {
+            return;
+        }
+        String newHash = passwordEncoder.encode(rawSecret);
+        mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(user.getId()).and(field).is(currentHash)),
+                new Update().set(field, newHash).set("updatedAt", LocalDateTime.now()),
+                User.class);
+        if ("pin".equals(field)) {
+            user.setPin(newHash);
+        } else {
+            user.setPassword(newHash);
+        }
     }
 
     // Method to update user PIN
@@ -116,14 +344,61 @@ public class UserService {
         user.setPin(passwordEncoder.encode(newPin));
         user.setUpdatedAt(LocalDateTime.now());
         userRepository.save(user);
+        // Keys were confirmed with the old PIN
+        merchantApiKeyService.revokeAll(userId, "pin-changed");
+    }
+
+
+    // Method to update the language used for the user's notifications
+    public User updateLanguage(String userId, String language) {
+        if (!templateEngine.supportsLanguage(language)) {
+            throw new RuntimeException("Unsupported language: " + language);
+        }
+        // Targeted update, so a concurrent balance change is not overwritten with a stale copy
+        User saved = updateFields(userId, new Update().set("language", language));
+        recipientResolver.evict(saved.getPhoneNumber());
+        return saved;
     }
 
+    // Method to choose the delivery channel per notification event type
+    public User updateNotificationChannels(String userId, Map<String, NotificationChannel> channels) {
+        Update update = new Update();
+        channels.forEach((type, channel) -> {
+            // Types become field names, so only known ones are accepted
+            if (!NotificationChannel.EVENT_TYPES.contains(type)) {
+                throw new RuntimeException("Unknown notification type: " + type);
+            }
+            if (channel != null && channel != NotificationChannel.SMS
+                    && NotificationChannel.isSmsOnly(NotificationPriority.forType(type))) {
+                throw new RuntimeException(type + " notifications are always delivered by SMS");
+            }
+            if (channel == null) {
+                update.unset("notificationChannels." + type);
+            } else {
+                update.set("notificationChannels." + type, channel);
+            }
+        });
+        User saved = updateFields(userId, update);
+        recipientResolver.evict(saved.getPhoneNumber());
+        return saved;
+    }
 
+    private User updateFields(String userId, Update update) {
+        User saved = mongoTemplate.findAndModify(Query.query(Criteria.where("_id").is(userId)),
+                update.set("updatedAt", LocalDateTime.now()),
+                FindAndModifyOptions.options().returnNew(true), User.class);
+        if (saved == null) {
+            throw new RuntimeException("User not found");
+        }
+        return saved;
+    }
 
     // Method to check if user exists by phone number
     public boolean existsByPhoneNumber(String phoneNumber) {
-        String normalizedPhoneNumber = phoneNumberUtils.getPhoneNumberForLookup(phoneNumber);
-        return userRepository.existsByPhoneNumber(normalizedPhoneNumber);
+        return mongoTemplate.exists(Query.query(phoneLookup(phoneNumber)), User.class)
+                || legacyPhoneLookup(phoneNumber)
+                        .map(legacy -> mongoTemplate.exists(Query.query(legacy), User.class))
+                        .orElse(false);
     }
 
 
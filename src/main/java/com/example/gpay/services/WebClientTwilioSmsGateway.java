@@ -0,0 +1,92 @@
+package com.example.gpay.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Twilio gateway for the reactive profile.
+ * Posts to the Messages REST resource with WebClient instead of the blocking SDK, so a send
+ * holds a pooled connection rather than a thread while Twilio answers.
+ */
+@Component
+@Profile("reactive & !sms-sink")
+public class WebClientTwilioSmsGateway implements SmsGateway {
+
+    private final WebClient webClient;
+    private final String fromPhoneNumber;
+    private final String statusCallbackUrl;
+    private final Duration timeout;
+
+    public WebClientTwilioSmsGateway(@Value("${twilio.account-sid}") String accountSid,
+                                     @Value("${twilio.api-key}") String apiKey,
+                                     @Value("${twilio.api-secret}") String apiSecret,
+                                     @Value("${twilio.phone-number}") String fromPhoneNumber,
+                                     @Value("${twilio.status-callback-url:}") String statusCallbackUrl,
+                                     @Value("${twilio.api-url:https://api.twilio.com}") String apiUrl,
+                                     @Value("${twilio.max-connections:50}") int maxConnections,
+                                     @Value("${twilio.timeout-ms:10000}") long timeoutMs) {
+        this.fromPhoneNumber = fromPhoneNumber;
+        this.statusCallbackUrl = statusCallbackUrl;
+        this.timeout = Duration.ofMillis(timeoutMs);
+
+        HttpClient httpClient = HttpClient.create(ConnectionProvider.builder("twilio-pool")
+                        .maxConnections(maxConnections)
+                        .maxIdleTime(Duration.ofSeconds(30))
+                        .build())
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 5000)
+                .responseTimeout(timeout);
+
+        this.webClient = WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .baseUrl(apiUrl + "/2010-04-01/Accounts/" + accountSid)
+                .defaultHeaders(headers -> headers.setBasicAuth(apiKey, apiSecret))
+                .build();
+    }
+
+    @Override
+    public String send(String phoneNumber, String message) {
+        return sendAsync(phoneNumber, message).join();
+    }
+
+    @Override
+    public CompletableFuture<String> sendAsync(String phoneNumber, String message) {
+        MultiValueMap<String, String> form = new LinkedMultiValueMap<>();
+        form.add("To", TwilioSmsGateway.formatPhoneNumber(phoneNumber));
+        form.add("From", fromPhoneNumber);
+        form.add("Body", message);
+        // Delivery receipts update the notification log through the webhook
+        if (!statusCallbackUrl.isBlank()) {
+            form.add("StatusCallback", statusCallbackUrl);
+        }
+
+        return webClient.post()
+                .uri("/Messages.json")
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                .body(BodyInserters.fromFormData(form))
+                .retrieve()
+                .bodyToMono(JsonNode.class)
+                .timeout(timeout)
+                .map(response -> response.path("sid").asText())
+                .onErrorMap(WebClientResponseException.class, e -> new RuntimeException(
+                        "Twilio rejected SMS with status " + e.getStatusCode().value() + ": "
+                                + e.getResponseBodyAsString()))
+                .switchIfEmpty(Mono.error(new RuntimeException("Empty response from Twilio")))
+                .toFuture();
+    }
+}
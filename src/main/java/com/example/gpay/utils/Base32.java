@@ -0,0 +1,67 @@
+package com.example.gpay.utils;
+
+import java.util.Arrays;
+
+/**
+ * RFC 4648 Base32 without padding.
+ * The alphabet (A-Z, 2-7) is a subset of the QR alphanumeric character set, so encoded
+ * payloads are stored at 5.5 bits per character instead of 8 in byte mode.
+ */
+public final class Base32 {
+
+    private static final char[] ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZ234567".toCharArray();
+    private static final int[] LOOKUP = new int[128];
+
+    static {
+        Arrays.fill(LOOKUP, -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            LOOKUP[ALPHABET[i]] = i;
+        }
+    }
+
+    private Base32() {
+    }
+
+    public static String encode(byte[] data) {
+        StringBuilder out = new StringBuilder((data.length * 8 + 4) / 5);
+        int buffer = 0;
+        int bits = 0;
+        for (byte b : data) {
+            buffer = (buffer << 8) | (b & 0xFF);
+            bits += 8;
+            while (bits >= 5) {
+                out.append(ALPHABET[(buffer >>> (bits - 5)) & 31]);
+                bits -= 5;
+            }
+        }
+        if (bits > 0) {
+            out.append(ALPHABET[(buffer << (5 - bits)) & 31]);
+        }
+        return out.toString();
+    }
+
+    /**
+     * @throws IllegalArgumentException on characters outside the alphabet
+     */
+    public static byte[] decode(CharSequence text, int offset) {
+        int length = text.length() - offset;
+        byte[] out = new byte[length * 5 / 8];
+        int buffer = 0;
+        int bits = 0;
+        int index = 0;
+        for (int i = offset; i < text.length(); i++) {
+            char c = text.charAt(i);
+            int value = c < 128 ? LOOKUP[c] : -1;
+            if (value < 0) {
+                throw new IllegalArgumentException("Invalid Base32 character: " + c);
+            }
+            buffer = (buffer << 5) | value;
+            bits += 5;
+            if (bits >= 8) {
+                out[index++] = (byte) (buffer >>> (bits - 8));
+                bits -= 8;
+            }
+        }
+        return out;
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.gpay.utils;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe Bloom filter over strings.
+ * Answers "definitely absent" or "possibly present"; entries cannot be removed, so owners
+ * rebuild a fresh filter to shed stale entries.
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+
+    /**
+     * @param expectedInsertions number of entries the filter is sized for
+     * @param falsePositiveRate  target false positive probability at that size
+     */
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Invalid Bloom filter sizing");
+        }
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int wordCount = (int) Math.min(Math.max(1, (bits + 63) / 64), Integer.MAX_VALUE);
+        this.words = new AtomicLongArray(wordCount);
+        this.bitCount = (long) wordCount * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+    }
+
+    public void put(String value) {
+        long hash = hash64(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            setBit(index(h1 + i * h2));
+        }
+    }
+
+    public boolean mightContain(String value) {
+        long hash = hash64(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = index(h1 + i * h2);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long index(int combined) {
+        return (combined & 0x7fffffffL) % bitCount;
+    }
+
+    private void setBit(long bit) {
+        int word = (int) (bit >>> 6);
+        long mask = 1L << bit;
+        long current;
+        do {
+            current = words.get(word);
+            if ((current & mask) != 0) {
+                return;
+            }
+        } while (!words.compareAndSet(word, current, current | mask));
+    }
+
+    /**
+     * FNV-1a over the characters followed by the MurmurHash3 finaliser
+     */
+    private static long hash64(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
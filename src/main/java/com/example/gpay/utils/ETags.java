@@ -0,0 +1,56 @@
+package com.example.gpay.utils;
+
+import java.util.StringJoiner;
+
+/**
+ * Weak entity tags for conditional GETs.
+ * Tags are derived from a few version fields (ids, updatedAt, counts) rather than from the
+ * serialised body, so a matching If-None-Match can be answered with 304 before the response
+ * is built. They are weak because the same version is served as JSON or CBOR and possibly
+ * gzip encoded: the bodies are equivalent, not byte-identical. Responses also carry
+ * {@code Vary: Accept} (see JacksonConfig), so caches keep the representations apart.
+ */
+public final class ETags {
+
+    private ETags() {
+    }
+
+    private static final String WEAK_PREFIX = "W/";
+
+    /**
+     * Weak tag over the given version parts, e.g. {@code W/"3f2a..."}
+     */
+    public static String of(Object... parts) {
+        StringJoiner joiner = new StringJoiner("|");
+        for (Object part : parts) {
+            joiner.add(String.valueOf(part));
+        }
+        // Hashed so internal ids and timestamps are not exposed; 128 bits is plenty for a tag
+        return WEAK_PREFIX + "\"" + HashUtils.sha256Hex(joiner.toString()).substring(0, 32) + "\"";
+    }
+
+    /**
+     * Whether an If-None-Match header value matches the current tag.
+     * Accepts "*", comma separated lists and weak forms (W/"..."), which GET compares weakly.
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank() || etag == null) {
+            return false;
+        }
+        String current = opaque(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (opaque(tag).equals(current)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String opaque(String tag) {
+        return tag.startsWith(WEAK_PREFIX) ? tag.substring(WEAK_PREFIX.length()) : tag;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.gpay.utils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.HexFormat;
+
+/**
+ * Hashing helpers for high-entropy secrets (OTPs, refresh tokens, API keys).
+ * A fast digest is enough for random values; passwords keep using the PasswordEncoder.
+ */
+public final class HashUtils {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private HashUtils() {
+    }
+
+    /**
+     * SHA-256 of the UTF-8 bytes, hex encoded
+     */
+    public static String sha256Hex(String value) {
+        return sha256Hex(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * SHA-256 of raw bytes, hex encoded
+     */
+    public static String sha256Hex(byte[] value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * HMAC-SHA256 of the data under the key
+     */
+    public static byte[] hmacSha256(byte[] key, byte[] data) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            return mac.doFinal(data);
+        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
+
+    /**
+     * Constant-time comparison of two hex digests
+     */
+    public static boolean digestsEqual(String expected, String actual) {
+        if (expected == null || actual == null) {
+            return false;
+        }
+        return MessageDigest.isEqual(expected.getBytes(StandardCharsets.US_ASCII),
+                actual.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Check a configured signing secret at startup
+     * @return the secret
+     * @throws IllegalStateException when it is missing, left at the shipped "changeMe" placeholder
+     *                               or shorter than 32 characters
+     */
+    public static String requireSecret(String property, String value) {
+        if (value == null || value.isBlank() || value.startsWith("changeMe")) {
+            throw new IllegalStateException(property + " must be set to a random value of at least 32 characters");
+        }
+        if (value.length() < 32) {
+            throw new IllegalStateException(property + " must be at least 32 characters long");
+        }
+        return value;
+    }
+
+    /**
+     * Random URL-safe token with the given number of bytes of entropy
+     */
+    public static String randomToken(int bytes) {
+        byte[] buffer = new byte[bytes];
+        RANDOM.nextBytes(buffer);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer);
+    }
+}
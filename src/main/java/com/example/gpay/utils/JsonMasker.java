@@ -0,0 +1,64 @@
+package com.example.gpay.utils;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Set;
+
+/**
+ * Copies a JSON document for logging with sensitive fields masked and the output size capped.
+ * Streams tokens instead of binding a tree, and stops copying as soon as the cap is reached.
+ */
+public final class JsonMasker {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final String MASK = "****";
+
+    private JsonMasker() {
+    }
+
+    /**
+     * @param json         raw body
+     * @param maskedFields field names, at any depth, whose values are replaced
+     * @param maxChars     maximum length of the result before it is truncated
+     */
+    public static String mask(byte[] json, Set<String> maskedFields, int maxChars) {
+        if (json == null || json.length == 0) {
+            return null;
+        }
+        StringWriter out = new StringWriter(Math.min(json.length, maxChars) + 16);
+        try (JsonParser parser = JSON_FACTORY.createParser(json);
+             JsonGenerator generator = JSON_FACTORY.createGenerator(out)) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token == JsonToken.FIELD_NAME && maskedFields.contains(parser.getCurrentName())) {
+                    generator.writeFieldName(parser.getCurrentName());
+                    parser.nextToken();
+                    parser.skipChildren();
+                    generator.writeString(MASK);
+                } else {
+                    generator.copyCurrentEvent(parser);
+                }
+                if (out.getBuffer().length() + Math.max(0, generator.getOutputBuffered()) > maxChars) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            // A body cut short by the capture limit keeps what was already masked;
+            // anything else that is not JSON is never logged raw
+            if (out.getBuffer().length() > 0) {
+                return out.getBuffer().substring(0, Math.min(out.getBuffer().length(), maxChars)) + "...(truncated)";
+            }
+            return "[" + json.length + " bytes, unparseable]";
+        }
+        StringBuffer result = out.getBuffer();
+        if (result.length() > maxChars) {
+            return result.substring(0, maxChars) + "...(truncated)";
+        }
+        return result.toString();
+    }
+}
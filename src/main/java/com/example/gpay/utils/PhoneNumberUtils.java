@@ -8,12 +8,73 @@ public class PhoneNumberUtils {
     private static final String CAMEROON_COUNTRY_CODE = "237";
     private static final String CAMEROON_COUNTRY_CODE_WITH_PLUS = "+237";
 
+    private static final long COUNTRY_CODE_KEY = 237_000_000_000L;
+    private static final long LOCAL_NUMBERS = 1_000_000_000L;
+
+    /**
+     * Parse any accepted form of a Cameroon mobile or fixed number ({@code +237XXXXXXXXX},
+     * {@code 237XXXXXXXXX} or the 9 local digits, with spaces, dashes, dots or parentheses in
+     * between) into its E.164 digits as a long, e.g. 237612345678. One pass over the characters,
+     * no regex and no intermediate strings.
+     * @return the key, or -1 when the input is not a valid Cameroon number
+     */
+    public static long parseKey(CharSequence phoneNumber) {
+        if (phoneNumber == null) {
+            return -1;
+        }
+        long value = 0;
+        int digits = 0;
+        boolean seenPlus = false;
+        for (int i = 0, length = phoneNumber.length(); i < length; i++) {
+            char c = phoneNumber.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (++digits > 12) {
+                    return -1;
+                }
+                value = value * 10 + (c - '0');
+            } else if (c == '+') {
+                // Only in front of the country code
+                if (seenPlus || digits > 0) {
+                    return -1;
+                }
+                seenPlus = true;
+            } else if (c != ' ' && c != '-' && c != '(' && c != ')' && c != '.' && c != '\t') {
+                return -1;
+            }
+        }
+
+        long local;
+        if (digits == 9 && !seenPlus) {
+            local = value;
+        } else if (digits == 12 && value / LOCAL_NUMBERS == 237) {
+            local = value % LOCAL_NUMBERS;
+        } else {
+            return -1;
+        }
+        // Mobile numbers start with 6, fixed lines with 2
+        long first = local / 100_000_000L;
+        return first == 2 || first == 6 ? COUNTRY_CODE_KEY + local : -1;
+    }
+
+    /**
+     * Canonical stored form of a key, e.g. +237612345678
+     */
+    public static String toE164(long key) {
+        return "+" + key;
+    }
+
     /**
      * Normalizes a phone number to include the country code
      * @param phoneNumber The input phone number
      * @return Normalized phone number with country code
      */
     public String normalizePhoneNumber(String phoneNumber) {
+        // Every valid form is handled by the parser
+        long key = parseKey(phoneNumber);
+        if (key >= 0) {
+            return toE164(key);
+        }
+
         if (phoneNumber == null || phoneNumber.trim().isEmpty()) {
             return phoneNumber;
         }
@@ -31,11 +92,6 @@ public class PhoneNumberUtils {
             return "+" + phoneNumber;
         }
 
-        // If it's a local number (starts with 2 or 6), add the country code
-        if (phoneNumber.matches("^[26][0-9]{8}$")) {
-            return CAMEROON_COUNTRY_CODE_WITH_PLUS + phoneNumber;
-        }
-
         // Return as is if doesn't match expected patterns
         return phoneNumber;
     }
@@ -72,12 +128,7 @@ public class PhoneNumberUtils {
      * @return true if valid, false otherwise
      */
     public boolean isValidCameroonNumber(String phoneNumber) {
-        if (phoneNumber == null || phoneNumber.trim().isEmpty()) {
-            return false;
-        }
-
-        String normalized = normalizePhoneNumber(phoneNumber);
-        return normalized.matches("^\\+237[26][0-9]{8}$");
+        return parseKey(phoneNumber) >= 0;
     }
 
     /**
@@ -86,10 +137,6 @@ public class PhoneNumberUtils {
      * @return The normalized phone number that should be used for database lookup
      */
     public String getPhoneNumberForLookup(String inputNumber) {
-        if (inputNumber == null || inputNumber.trim().isEmpty()) {
-            return inputNumber;
-        }
-
         // Always normalize to the full format for database lookup
         return normalizePhoneNumber(inputNumber);
     }
@@ -0,0 +1,52 @@
+package com.example.gpay.utils;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded set of recently seen request nonces.
+ * Each nonce is remembered for the replay window and then dropped by a timing wheel, so memory
+ * is proportional to the request rate times the window. When the bound is reached new nonces are
+ * refused rather than evicting live ones, which would reopen the window for a replay.
+ */
+public class ReplayWindow {
+
+    private final long windowNanos;
+    private final int maxEntries;
+    private final Map<String, Long> seen = new ConcurrentHashMap<>();
+    private final TimingWheel<String> expiryWheel;
+
+    public ReplayWindow(Duration window, int maxEntries) {
+        this.windowNanos = window.toNanos();
+        this.maxEntries = maxEntries;
+        this.expiryWheel = new TimingWheel<>(Duration.ofSeconds(1), 512);
+    }
+
+    /**
+     * Record a nonce
+     * @return false if it was already seen inside the window, or the window is full
+     */
+    public boolean tryRecord(String nonce) {
+        if (seen.size() >= maxEntries) {
+            return false;
+        }
+        long expiresAt = System.nanoTime() + windowNanos;
+        if (seen.putIfAbsent(nonce, expiresAt) != null) {
+            return false;
+        }
+        expiryWheel.schedule(nonce, expiresAt);
+        return true;
+    }
+
+    /**
+     * Forget nonces older than the window; must be called from a single thread
+     */
+    public void expire() {
+        expiryWheel.advance(nonce -> seen.remove(nonce));
+    }
+
+    public int size() {
+        return seen.size();
+    }
+}
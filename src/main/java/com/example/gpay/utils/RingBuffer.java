@@ -0,0 +1,85 @@
+package com.example.gpay.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Bounded multi-producer, single-consumer ring of preallocated, reusable slots.
+ * Producers claim a sequence with CAS, fill the slot in place and publish it; the consumer
+ * reads published slots in order. Nothing is allocated per event, and a full ring rejects the
+ * claim instead of blocking the producer.
+ */
+public class RingBuffer<T> {
+
+    private final Object[] slots;
+    private final AtomicLongArray published;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong consumed = new AtomicLong();
+
+    /**
+     * @param capacity number of slots, rounded up to a power of two
+     * @param factory  creates the reusable slot objects
+     */
+    public RingBuffer(int capacity, Supplier<T> factory) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.slots = new Object[size];
+        this.published = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            slots[i] = factory.get();
+            published.set(i, -1);
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * Reserve the next slot
+     * @return its sequence, or -1 if the ring is full
+     */
+    public long tryClaim() {
+        while (true) {
+            long next = claimed.get();
+            if (next - consumed.get() >= slots.length) {
+                return -1;
+            }
+            if (claimed.compareAndSet(next, next + 1)) {
+                return next;
+            }
+        }
+    }
+
+    /**
+     * The slot for a claimed sequence, to be filled before {@link #publish}
+     */
+    @SuppressWarnings("unchecked")
+    public T get(long sequence) {
+        return (T) slots[(int) (sequence & mask)];
+    }
+
+    public void publish(long sequence) {
+        published.set((int) (sequence & mask), sequence);
+    }
+
+    /**
+     * Hand up to max published slots to the handler in order; single consumer thread only
+     * @return the number of slots handled
+     */
+    public int drain(Consumer<T> handler, int max) {
+        long next = consumed.get();
+        int handled = 0;
+        while (handled < max && published.get((int) (next & mask)) == next) {
+            handler.accept(get(next));
+            next++;
+            handled++;
+            // Frees the slot for producers only after the handler is done with it
+            consumed.set(next);
+        }
+        return handled;
+    }
+
+    public int size() {
+        return (int) (claimed.get() - consumed.get());
+    }
+}
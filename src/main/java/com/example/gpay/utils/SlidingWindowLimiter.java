@@ -0,0 +1,137 @@
+package com.example.gpay.utils;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free sliding window rate limiter over many keys.
+ * Each key is one AtomicLong packing the window index with the current and previous window
+ * counts; the allowed rate is estimated as previous * (unelapsed share of the window) + current.
+ * Keys are spread over independent stripes so eviction and map resizing only touch a fraction
+ * of the limiter at a time.
+ */
+public class SlidingWindowLimiter {
+
+    private static final int COUNT_BITS = 16;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    private final int limit;
+    private final long windowNanos;
+    private final LongSupplier nanoClock;
+    private final long origin;
+    private final Map<String, AtomicLong>[] stripes;
+    private final int maxKeysPerStripe;
+
+    /**
+     * @param limit   requests allowed per window, at most 65535
+     * @param window  window length
+     * @param stripes number of independent key maps, rounded up to a power of two
+     * @param maxKeys keys tracked before idle ones are dropped
+     */
+    public SlidingWindowLimiter(int limit, Duration window, int stripes, int maxKeys) {
+        this(limit, window, stripes, maxKeys, System::nanoTime);
+    }
+
+    @SuppressWarnings("unchecked")
+    SlidingWindowLimiter(int limit, Duration window, int stripes, int maxKeys, LongSupplier nanoClock) {
+        if (limit <= 0 || limit > COUNT_MASK) {
+            throw new IllegalArgumentException("Rate limit must be between 1 and " + COUNT_MASK);
+        }
+        this.limit = limit;
+        this.windowNanos = window.toNanos();
+        int stripeCount = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.stripes = new Map[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            this.stripes[i] = new ConcurrentHashMap<>();
+        }
+        this.maxKeysPerStripe = Math.max(16, maxKeys / stripeCount);
+        this.nanoClock = nanoClock;
+        this.origin = nanoClock.getAsLong();
+    }
+
+    /**
+     * Count one request for the key
+     * @return 0 if it is allowed, otherwise the nanoseconds until it would be
+     */
+    public long tryAcquire(String key) {
+        Map<String, AtomicLong> stripe = stripeFor(key);
+        AtomicLong state = stripe.get(key);
+        if (state == null) {
+            if (stripe.size() >= maxKeysPerStripe) {
+                evictIdle(stripe, currentWindow(nanoClock.getAsLong()));
+            }
+            state = stripe.computeIfAbsent(key, k -> new AtomicLong());
+        }
+
+        while (true) {
+            long now = nanoClock.getAsLong();
+            long elapsed = now - origin;
+            long window = elapsed / windowNanos;
+            long intoWindow = elapsed - window * windowNanos;
+
+            long packed = state.get();
+            long stateWindow = packed >>> (2 * COUNT_BITS);
+            long current = (packed >>> COUNT_BITS) & COUNT_MASK;
+            long previous = packed & COUNT_MASK;
+            if (stateWindow != window) {
+                previous = stateWindow == window - 1 ? current : 0;
+                current = 0;
+            }
+
+            double weight = 1.0 - (double) intoWindow / windowNanos;
+            if (previous * weight + current + 1 > limit) {
+                return retryAfter(current, previous, intoWindow);
+            }
+            long next = (window << (2 * COUNT_BITS)) | ((current + 1) << COUNT_BITS) | previous;
+            if (state.compareAndSet(packed, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Drop keys that have been idle for more than a window, they no longer affect decisions
+     */
+    public void evictIdle() {
+        long window = currentWindow(nanoClock.getAsLong());
+        for (Map<String, AtomicLong> stripe : stripes) {
+            evictIdle(stripe, window);
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Map<String, AtomicLong> stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    private long retryAfter(long current, long previous, long intoWindow) {
+        long untilNextWindow = windowNanos - intoWindow;
+        if (current + 1 > limit || previous == 0) {
+            return untilNextWindow;
+        }
+        // The previous window's share decays linearly; wait until it has decayed enough
+        double requiredShare = 1.0 - (double) (limit - current - 1) / previous;
+        // Rounded up, so retrying after exactly this long is allowed
+        long wait = (long) Math.ceil(requiredShare * windowNanos) - intoWindow;
+        return Math.max(1, Math.min(wait, untilNextWindow));
+    }
+
+    private void evictIdle(Map<String, AtomicLong> stripe, long window) {
+        stripe.values().removeIf(state -> (state.get() >>> (2 * COUNT_BITS)) < window - 1);
+    }
+
+    private long currentWindow(long now) {
+        return (now - origin) / windowNanos;
+    }
+
+    private Map<String, AtomicLong> stripeFor(String key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.gpay.utils;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel for cheap bulk expiry.
+ * Scheduling is an O(1) append to the bucket of the deadline's tick; advancing only visits
+ * the buckets whose ticks have passed instead of scanning every live entry. Deadlines beyond
+ * one rotation stay in their bucket until the wheel comes round to their tick.
+ */
+public class TimingWheel<K> {
+
+    private final long tickNanos;
+    private final Queue<Timeout<K>>[] buckets;
+    private final long startNanos = System.nanoTime();
+    private volatile long currentTick;
+
+    /**
+     * @param tick        resolution of the wheel
+     * @param bucketCount number of buckets in one rotation
+     */
+    @SuppressWarnings("unchecked")
+    public TimingWheel(Duration tick, int bucketCount) {
+        if (bucketCount <= 0 || tick.isZero() || tick.isNegative()) {
+            throw new IllegalArgumentException("Timing wheel needs a positive tick and bucket count");
+        }
+        this.tickNanos = tick.toNanos();
+        this.buckets = new Queue[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            buckets[i] = new ConcurrentLinkedQueue<>();
+        }
+    }
+
+    /**
+     * Register a key to be handed back once the deadline (a System.nanoTime value) has passed
+     */
+    public void schedule(K key, long deadlineNanos) {
+        long tick = Math.max(ceilDiv(deadlineNanos - startNanos, tickNanos), currentTick);
+        buckets[(int) (tick % buckets.length)].add(new Timeout<>(key, tick));
+    }
+
+    /**
+     * Expire everything due up to now; must be called from a single thread
+     */
+    public void advance(Consumer<K> onExpired) {
+        long targetTick = (System.nanoTime() - startNanos) / tickNanos;
+        // After a long pause every bucket is due, visit each of them once
+        long from = Math.max(currentTick, targetTick - buckets.length + 1);
+        for (long tick = from; tick <= targetTick; tick++) {
+            Iterator<Timeout<K>> iterator = buckets[(int) (tick % buckets.length)].iterator();
+            while (iterator.hasNext()) {
+                Timeout<K> timeout = iterator.next();
+                if (timeout.tick <= targetTick) {
+                    iterator.remove();
+                    onExpired.accept(timeout.key);
+                }
+            }
+        }
+        currentTick = targetTick + 1;
+    }
+
+    private static long ceilDiv(long value, long divisor) {
+        return value <= 0 ? 0 : (value + divisor - 1) / divisor;
+    }
+
+    private record Timeout<K>(K key, long tick) {
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.gpay.utils;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free token bucket in its GCRA (virtual scheduling) form.
+ * The whole bucket state is a single "theoretical arrival time", updated with CAS.
+ */
+public class TokenBucket {
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final AtomicLong theoreticalArrival;
+    private final LongSupplier nanoClock;
+
+    /**
+     * @param capacity tokens available per period (also the maximum burst)
+     * @param period   time to refill a completely drained bucket
+     */
+    public TokenBucket(long capacity, Duration period) {
+        this(capacity, period, System::nanoTime);
+    }
+
+    TokenBucket(long capacity, Duration period, LongSupplier nanoClock) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Token bucket capacity must be positive");
+        }
+        this.emissionIntervalNanos = Math.max(1, period.toNanos() / capacity);
+        this.burstToleranceNanos = emissionIntervalNanos * (capacity - 1);
+        this.nanoClock = nanoClock;
+        this.theoreticalArrival = new AtomicLong(nanoClock.getAsLong());
+    }
+
+    /**
+     * Try to take one token
+     * @return 0 if a token was taken, otherwise the nanoseconds until one becomes available
+     */
+    public long tryAcquire() {
+        while (true) {
+            long now = nanoClock.getAsLong();
+            long tat = theoreticalArrival.get();
+            long start = tat - now > 0 ? tat : now;
+
+            long wait = start - burstToleranceNanos - now;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(tat, start + emissionIntervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * A full bucket carries no state and can be discarded without changing behaviour
+     */
+    public boolean isFull() {
+        return theoreticalArrival.get() - nanoClock.getAsLong() <= 0;
+    }
+}
@@ -3,7 +3,10 @@ package com.example.gpay;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = {
+        "merchant.api-keys.master-secret=test-merchant-master-secret-0123456789abcdef",
+        "qr.signing.secret=test-qr-signing-secret-0123456789abcdef"
+})
 class GPayApplicationTests {
 
     @Test
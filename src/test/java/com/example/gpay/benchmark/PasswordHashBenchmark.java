@@ -0,0 +1,82 @@
+package com.example.gpay.benchmark;
+
+import com.example.gpay.security.AuthenticationConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Password check cost per hashing setting, measured single threaded so the score reads as
+ * logins per second per core (a password login does exactly one check, a transfer one PIN check).
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.example.gpay.benchmark.PasswordHashBenchmark}, or pass a setting
+ * list as the first argument, e.g. {@code bcrypt:10,bcrypt:12,pbkdf2:310000}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(1)
+@Fork(1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PasswordHashBenchmark {
+
+    private static final String PASSWORD = "correct-horse-battery";
+
+    @Param({"bcrypt:8", "bcrypt:10", "bcrypt:12", "pbkdf2:120000", "pbkdf2:310000", "pbkdf2:600000"})
+    public String setting;
+
+    private PasswordEncoder encoder;
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        String[] parts = setting.split(":");
+        int cost = Integer.parseInt(parts[1]);
+        encoder = "bcrypt".equals(parts[0])
+                ? AuthenticationConfig.createPasswordEncoder("bcrypt", cost, 310000, List.of())
+                : AuthenticationConfig.createPasswordEncoder("pbkdf2", 10, cost, List.of());
+        hash = encoder.encode(PASSWORD);
+    }
+
+    /**
+     * Successful login: the check AuthenticationManager and validatePassword perform
+     */
+    @Benchmark
+    public boolean login() {
+        return encoder.matches(PASSWORD, hash);
+    }
+
+    /**
+     * Failed login costs the same, which is what a password-guessing client spends
+     */
+    @Benchmark
+    public boolean rejectedLogin() {
+        return encoder.matches("wrong-password", hash);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        OptionsBuilder options = new OptionsBuilder();
+        options.include(PasswordHashBenchmark.class.getSimpleName());
+        if (args.length > 0) {
+            options.param("setting", args[0].split(","));
+        }
+        new Runner(options.build()).run();
+    }
+}
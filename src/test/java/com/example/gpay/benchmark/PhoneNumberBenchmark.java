@@ -0,0 +1,113 @@
+package com.example.gpay.benchmark;
+
+import com.example.gpay.utils.PhoneNumberUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Phone number handling done on every authenticated request and SMS send: the regex based
+ * normalisation and validation it replaced against the single-pass parser. Each invocation
+ * handles the same mix of input forms, valid and invalid.
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.example.gpay.benchmark.PhoneNumberBenchmark}, and add
+ * {@code -prof gc} to the runner options to compare allocation per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Threads(1)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PhoneNumberBenchmark {
+
+    private static final String[] INPUTS = {
+            "+237612345678", "237612345678", "612345678", "6 12 34 56 78",
+            "(237) 612-345-678", "+237 2 22 33 44 55", "12345", "+33612345678"
+    };
+
+    private final PhoneNumberUtils phoneNumberUtils = new PhoneNumberUtils();
+
+    @Benchmark
+    public void legacyNormalizeAndValidate(Blackhole blackhole) {
+        for (String input : INPUTS) {
+            String normalized = legacyNormalize(input);
+            blackhole.consume(normalized);
+            blackhole.consume(normalized.matches("^\\+237[26][0-9]{8}$"));
+        }
+    }
+
+    @Benchmark
+    public void normalizeAndValidate(Blackhole blackhole) {
+        for (String input : INPUTS) {
+            blackhole.consume(phoneNumberUtils.normalizePhoneNumber(input));
+            blackhole.consume(phoneNumberUtils.isValidCameroonNumber(input));
+        }
+    }
+
+    /**
+     * The lookup path alone: one long per input, nothing allocated
+     */
+    @Benchmark
+    public void parseKey(Blackhole blackhole) {
+        for (String input : INPUTS) {
+            blackhole.consume(PhoneNumberUtils.parseKey(input));
+        }
+    }
+
+    @Benchmark
+    public void legacySmsFormat(Blackhole blackhole) {
+        for (String input : INPUTS) {
+            String cleaned = input.replaceAll("[\\s\\-\\(\\)]", "");
+            if (!cleaned.startsWith("+")) {
+                cleaned = cleaned.startsWith("237") ? "+" + cleaned : "+237" + cleaned;
+            }
+            blackhole.consume(cleaned);
+        }
+    }
+
+    @Benchmark
+    public void smsFormat(Blackhole blackhole) {
+        for (String input : INPUTS) {
+            long key = PhoneNumberUtils.parseKey(input);
+            blackhole.consume(key >= 0 ? PhoneNumberUtils.toE164(key) : input);
+        }
+    }
+
+    /**
+     * PhoneNumberUtils.normalizePhoneNumber before the parser
+     */
+    private static String legacyNormalize(String phoneNumber) {
+        phoneNumber = phoneNumber.trim();
+        if (phoneNumber.startsWith("+237")) {
+            return phoneNumber;
+        }
+        if (phoneNumber.startsWith("237")) {
+            return "+" + phoneNumber;
+        }
+        if (phoneNumber.matches("^[26][0-9]{8}$")) {
+            return "+237" + phoneNumber;
+        }
+        return phoneNumber;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PhoneNumberBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.gpay.security;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CachedBodyRequestTest {
+
+    private static final byte[] BODY = "{\"phoneNumber\":\"+237612345678\"}".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void replaysBufferedBody() throws IOException {
+        CachedBodyRequest request = CachedBodyRequest.wrap(request(), 1024);
+
+        assertTrue(request.isComplete());
+        assertArrayEquals(BODY, request.getInputStream().readAllBytes());
+    }
+
+    @Test
+    void streamsRemainderBeyondTheBufferedHead() throws IOException {
+        CachedBodyRequest request = CachedBodyRequest.wrap(request(), 8);
+
+        assertEquals(8, request.getHead().length);
+        assertArrayEquals(BODY, request.getInputStream().readAllBytes());
+    }
+
+    @Test
+    void readListenerGetsBufferedBodyAtOnce() throws IOException {
+        CachedBodyRequest request = CachedBodyRequest.wrap(request(), 1024);
+        ServletInputStream input = request.getInputStream();
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        boolean[] allRead = new boolean[1];
+
+        input.setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() throws IOException {
+                byte[] buffer = new byte[16];
+                while (input.isReady() && !input.isFinished()) {
+                    int count = input.read(buffer);
+                    if (count < 0) {
+                        break;
+                    }
+                    read.write(buffer, 0, count);
+                }
+            }
+
+            @Override
+            public void onAllDataRead() {
+                allRead[0] = true;
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                throw new AssertionError(t);
+            }
+        });
+
+        assertTrue(allRead[0]);
+        assertArrayEquals(BODY, read.toByteArray());
+    }
+
+    private static MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/login");
+        request.setContentType("application/json");
+        request.setContent(BODY);
+        return request;
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.gpay.services;
+
+import com.example.gpay.utils.Base32;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QRPayloadCodecTest {
+
+    private static final long NOW = 1_800_000_000L;
+    private static final String OBJECT_ID = "65a1f0c2e4b0a1b2c3d4e5f6";
+    private static final String TOKEN = "00112233445566778899aabbccddeeff";
+
+    private final QRPayloadCodec codec = new QRPayloadCodec("test-qr-signing-secret-0123456789abcdef");
+
+    @Test
+    void roundTripsObjectIdRecipient() {
+        QRPayloadCodec.Payload payload = new QRPayloadCodec.Payload(OBJECT_ID, null, NOW + 60, null);
+        String content = codec.encode(payload);
+
+        assertTrue(QRPayloadCodec.isSigned(content));
+        assertEquals(payload, codec.decode(content, NOW));
+    }
+
+    @Test
+    void roundTripsAmountAndToken() {
+        QRPayloadCodec.Payload payload = new QRPayloadCodec.Payload(OBJECT_ID, 1234.56, NOW + 60, TOKEN);
+
+        assertEquals(payload, codec.decode(codec.encode(payload), NOW));
+    }
+
+    @Test
+    void roundTripsNonObjectIdRecipient() {
+        QRPayloadCodec.Payload payload = new QRPayloadCodec.Payload("legacy-user-7", 0.01, NOW + 60, null);
+
+        assertEquals(payload, codec.decode(codec.encode(payload), NOW));
+    }
+
+    @Test
+    void onlyPrefixedContentIsSigned() {
+        assertFalse(QRPayloadCodec.isSigned(null));
+        assertFalse(QRPayloadCodec.isSigned("{\"type\":\"gpay_transfer\"}"));
+    }
+
+    @Test
+    void rejectsEveryFlippedByte() {
+        String content = codec.encode(new QRPayloadCodec.Payload(OBJECT_ID, 10.0, NOW + 60, TOKEN));
+        byte[] data = Base32.decode(content, QRPayloadCodec.PREFIX.length());
+
+        // Covers the body as well as the signature itself
+        for (int i = 0; i < data.length; i++) {
+            data[i] ^= 0x01;
+            String tampered = QRPayloadCodec.PREFIX + Base32.encode(data);
+            RuntimeException e = assertThrows(RuntimeException.class, () -> codec.decode(tampered, NOW));
+            assertEquals("Invalid QR code: signature mismatch", e.getMessage());
+            data[i] ^= 0x01;
+        }
+    }
+
+    @Test
+    void rejectsCodeSignedWithAnotherSecret() {
+        QRPayloadCodec other = new QRPayloadCodec("another-qr-signing-secret-0123456789abcdef");
+        String content = other.encode(new QRPayloadCodec.Payload(OBJECT_ID, null, NOW + 60, null));
+
+        assertThrows(RuntimeException.class, () -> codec.decode(content, NOW));
+    }
+
+    @Test
+    void rejectsExpiredCode() {
+        String content = codec.encode(new QRPayloadCodec.Payload(OBJECT_ID, null, NOW + 60, null));
+
+        assertEquals(OBJECT_ID, codec.decode(content, NOW + 59).recipientId());
+        RuntimeException e = assertThrows(RuntimeException.class, () -> codec.decode(content, NOW + 60));
+        assertEquals("QR code has expired", e.getMessage());
+    }
+
+    @Test
+    void staticCodeNeverExpires() {
+        String content = codec.encode(new QRPayloadCodec.Payload(OBJECT_ID, null, QRPayloadCodec.NO_EXPIRY, null));
+
+        assertEquals(QRPayloadCodec.NO_EXPIRY, codec.decode(content, Long.MAX_VALUE).expiresAt());
+    }
+
+    @Test
+    void rejectsMalformedContent() {
+        assertThrows(RuntimeException.class, () -> codec.decode("GPAY:", NOW));
+        assertThrows(RuntimeException.class, () -> codec.decode("GPAY:MZXW6YTBOI", NOW));
+        assertThrows(RuntimeException.class, () -> codec.decode("GPAY:not base32!", NOW));
+
+        String content = codec.encode(new QRPayloadCodec.Payload(OBJECT_ID, null, NOW + 60, null));
+        assertThrows(RuntimeException.class, () -> codec.decode(content.toLowerCase(), NOW));
+        assertThrows(RuntimeException.class, () -> codec.decode(content.substring(0, content.length() - 2), NOW));
+    }
+
+    @Test
+    void rejectsInvalidPayloads() {
+        assertThrows(IllegalArgumentException.class,
+                () -> codec.encode(new QRPayloadCodec.Payload(OBJECT_ID, null, NOW + 60, "abcd")));
+        assertThrows(IllegalArgumentException.class,
+                () -> codec.encode(new QRPayloadCodec.Payload("x".repeat(256), null, NOW + 60, null)));
+        assertThrows(IllegalArgumentException.class,
+                () -> codec.encode(new QRPayloadCodec.Payload(OBJECT_ID, null, 1L << 32, null)));
+    }
+
+    @Test
+    void refusesPlaceholderSecret() {
+        assertThrows(IllegalStateException.class, () -> new QRPayloadCodec("changeMe"));
+        assertThrows(IllegalStateException.class, () -> new QRPayloadCodec("short-secret"));
+        assertThrows(IllegalStateException.class, () -> new QRPayloadCodec(null));
+    }
+
+    @Test
+    void decodedPayloadLeavesAbsentFieldsNull() {
+        QRPayloadCodec.Payload decoded = codec.decode(
+                codec.encode(new QRPayloadCodec.Payload(OBJECT_ID, null, NOW + 60, null)), NOW);
+
+        assertNull(decoded.amount());
+        assertNull(decoded.token());
+    }
+}
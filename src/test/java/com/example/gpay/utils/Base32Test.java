@@ -0,0 +1,51 @@
+package com.example.gpay.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class Base32Test {
+
+    @Test
+    void matchesRfc4648VectorsWithoutPadding() {
+        assertEquals("", Base32.encode(bytes("")));
+        assertEquals("MY", Base32.encode(bytes("f")));
+        assertEquals("MZXQ", Base32.encode(bytes("fo")));
+        assertEquals("MZXW6", Base32.encode(bytes("foo")));
+        assertEquals("MZXW6YQ", Base32.encode(bytes("foob")));
+        assertEquals("MZXW6YTB", Base32.encode(bytes("fooba")));
+        assertEquals("MZXW6YTBOI", Base32.encode(bytes("foobar")));
+    }
+
+    @Test
+    void roundTripsEveryLength() {
+        Random random = new Random(42);
+        for (int length = 0; length <= 64; length++) {
+            byte[] data = new byte[length];
+            random.nextBytes(data);
+            assertArrayEquals(data, Base32.decode(Base32.encode(data), 0));
+        }
+    }
+
+    @Test
+    void decodesFromOffset() {
+        assertArrayEquals(bytes("foobar"), Base32.decode("GPAY:MZXW6YTBOI", 5));
+    }
+
+    @Test
+    void rejectsCharactersOutsideAlphabet() {
+        assertThrows(IllegalArgumentException.class, () -> Base32.decode("mzxw6", 0));
+        assertThrows(IllegalArgumentException.class, () -> Base32.decode("MZXW1", 0));
+        assertThrows(IllegalArgumentException.class, () -> Base32.decode("MZXW6YQ=", 0));
+        assertThrows(IllegalArgumentException.class, () -> Base32.decode("MZ\u00c9W6", 0));
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.gpay.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PhoneNumberUtilsTest {
+
+    private static final long KEY = 237_612_345_678L;
+
+    @Test
+    void parsesInternationalForms() {
+        assertEquals(KEY, PhoneNumberUtils.parseKey("+237612345678"));
+        assertEquals(KEY, PhoneNumberUtils.parseKey("237612345678"));
+    }
+
+    @Test
+    void parsesLocalDigits() {
+        assertEquals(KEY, PhoneNumberUtils.parseKey("612345678"));
+        assertEquals(237_222_334_455L, PhoneNumberUtils.parseKey("222334455"));
+    }
+
+    @Test
+    void ignoresSeparators() {
+        assertEquals(KEY, PhoneNumberUtils.parseKey("+237 6 12 34 56 78"));
+        assertEquals(KEY, PhoneNumberUtils.parseKey("612-345-678"));
+        assertEquals(KEY, PhoneNumberUtils.parseKey("(237) 612.345.678"));
+        assertEquals(KEY, PhoneNumberUtils.parseKey("\t6 12 34 56 78 "));
+    }
+
+    @Test
+    void rejectsMisplacedPlus() {
+        assertEquals(-1, PhoneNumberUtils.parseKey("+612345678"));
+        assertEquals(-1, PhoneNumberUtils.parseKey("237+612345678"));
+        assertEquals(-1, PhoneNumberUtils.parseKey("++237612345678"));
+    }
+
+    @Test
+    void rejectsNumbersNotStartingWithTwoOrSix() {
+        assertEquals(-1, PhoneNumberUtils.parseKey("012345678"));
+        assertEquals(-1, PhoneNumberUtils.parseKey("+237012345678"));
+        assertEquals(-1, PhoneNumberUtils.parseKey("512345678"));
+    }
+
+    @Test
+    void rejectsLeadingZero() {
+        assertEquals(-1, PhoneNumberUtils.parseKey("0612345678"));
+        assertEquals(-1, PhoneNumberUtils.parseKey("+2370612345678"));
+        assertEquals(-1, PhoneNumberUtils.parseKey("0237612345678"));
+    }
+
+    @Test
+    void rejectsWrongLengths() {
+        assertEquals(-1, PhoneNumberUtils.parseKey("61234567"));
+        assertEquals(-1, PhoneNumberUtils.parseKey("6123456789"));
+        assertEquals(-1, PhoneNumberUtils.parseKey("+2376123456789"));
+        assertEquals(-1, PhoneNumberUtils.parseKey("99999999999999999999999"));
+        assertEquals(-1, PhoneNumberUtils.parseKey(""));
+        assertEquals(-1, PhoneNumberUtils.parseKey(null));
+    }
+
+    @Test
+    void rejectsOtherCountryCodes() {
+        assertEquals(-1, PhoneNumberUtils.parseKey("+33612345678"));
+        assertEquals(-1, PhoneNumberUtils.parseKey("233612345678"));
+    }
+
+    @Test
+    void rejectsNonDigits() {
+        assertEquals(-1, PhoneNumberUtils.parseKey("61234567a"));
+        assertEquals(-1, PhoneNumberUtils.parseKey("+237/612345678"));
+        assertEquals(-1, PhoneNumberUtils.parseKey("\uff1612345678"));
+    }
+
+    @Test
+    void formatsKeyAsStoredNumber() {
+        assertEquals("+237612345678", PhoneNumberUtils.toE164(KEY));
+        assertEquals("+237612345678", new PhoneNumberUtils().normalizePhoneNumber("6 12 34 56 78"));
+    }
+
+    @Test
+    void validatesThroughParser() {
+        PhoneNumberUtils utils = new PhoneNumberUtils();
+        assertTrue(utils.isValidCameroonNumber("237 612 345 678"));
+        assertFalse(utils.isValidCameroonNumber("12345"));
+    }
+}
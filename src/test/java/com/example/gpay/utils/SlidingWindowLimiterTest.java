@@ -0,0 +1,95 @@
+package com.example.gpay.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SlidingWindowLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong clock = new AtomicLong(1_000 * SECOND);
+
+    // 10 requests per 10 second window
+    private final SlidingWindowLimiter limiter =
+            new SlidingWindowLimiter(10, Duration.ofSeconds(10), 4, 1000, clock::get);
+
+    @Test
+    void allowsLimitThenWaitsForNextWindow() {
+        acquire("a", 10);
+        assertEquals(10 * SECOND, limiter.tryAcquire("a"));
+
+        clock.addAndGet(4 * SECOND);
+        assertEquals(6 * SECOND, limiter.tryAcquire("a"));
+    }
+
+    @Test
+    void previousWindowStillCountsRightAfterRollover() {
+        acquire("a", 10);
+
+        // Window boundary: the previous window still weighs in full
+        clock.addAndGet(10 * SECOND);
+        assertEquals(SECOND, limiter.tryAcquire("a"), 1_000);
+    }
+
+    @Test
+    void previousWindowDecaysLinearly() {
+        acquire("a", 10);
+
+        // Halfway into the next window the previous 10 count as 5
+        clock.addAndGet(15 * SECOND);
+        acquire("a", 5);
+        long wait = limiter.tryAcquire("a");
+        assertEquals(SECOND, wait, 1_000);
+
+        clock.addAndGet(wait);
+        assertEquals(0, limiter.tryAcquire("a"));
+    }
+
+    @Test
+    void windowsOlderThanThePreviousOneAreForgotten() {
+        acquire("a", 10);
+        clock.addAndGet(20 * SECOND);
+        acquire("a", 10);
+    }
+
+    @Test
+    void keysAreLimitedIndependently() {
+        acquire("a", 10);
+        assertTrue(limiter.tryAcquire("a") > 0);
+        acquire("b", 10);
+    }
+
+    @Test
+    void evictsKeysIdleForMoreThanAWindow() {
+        acquire("a", 1);
+        acquire("b", 1);
+        clock.addAndGet(10 * SECOND);
+        limiter.evictIdle();
+        assertEquals(2, limiter.size());
+
+        clock.addAndGet(10 * SECOND);
+        limiter.evictIdle();
+        assertEquals(0, limiter.size());
+    }
+
+    @Test
+    void rejectsLimitsThatDoNotFitTheCounters() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new SlidingWindowLimiter(65536, Duration.ofSeconds(1), 1, 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> new SlidingWindowLimiter(0, Duration.ofSeconds(1), 1, 10));
+    }
+
+    private void acquire(String key, int count) {
+        for (int i = 0; i < count; i++) {
+            assertEquals(0, limiter.tryAcquire(key), "request " + (i + 1) + " for " + key);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.gpay.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong clock = new AtomicLong(1_000 * SECOND);
+
+    // 5 tokens per 5 seconds: one token every second, bursts of up to 5
+    private final TokenBucket bucket = new TokenBucket(5, Duration.ofSeconds(5), clock::get);
+
+    @Test
+    void allowsFullBurstThenReportsWaitForNextToken() {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, bucket.tryAcquire());
+        }
+        assertEquals(SECOND, bucket.tryAcquire());
+    }
+
+    @Test
+    void refillsOneTokenPerEmissionInterval() {
+        drain();
+
+        clock.addAndGet(SECOND * 5 / 2);
+        assertEquals(0, bucket.tryAcquire());
+        assertEquals(0, bucket.tryAcquire());
+        assertEquals(SECOND / 2, bucket.tryAcquire());
+
+        clock.addAndGet(SECOND / 2);
+        assertEquals(0, bucket.tryAcquire());
+    }
+
+    @Test
+    void rejectedAttemptsDoNotConsumeTokens() {
+        drain();
+        for (int i = 0; i < 10; i++) {
+            assertTrue(bucket.tryAcquire() > 0);
+        }
+        clock.addAndGet(SECOND);
+        assertEquals(0, bucket.tryAcquire());
+    }
+
+    @Test
+    void longIdlePeriodRefillsOnlyUpToCapacity() {
+        drain();
+        clock.addAndGet(100 * SECOND);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, bucket.tryAcquire());
+        }
+        assertEquals(SECOND, bucket.tryAcquire());
+    }
+
+    @Test
+    void isFullOnlyOnceCompletelyRefilled() {
+        assertTrue(bucket.isFull());
+        drain();
+        assertFalse(bucket.isFull());
+
+        clock.addAndGet(5 * SECOND - 1);
+        assertFalse(bucket.isFull());
+        clock.addAndGet(1);
+        assertTrue(bucket.isFull());
+    }
+
+    @Test
+    void rejectsNonPositiveCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, Duration.ofSeconds(1)));
+    }
+
+    private void drain() {
+        while (bucket.tryAcquire() == 0) {
+            // take every available token
+        }
+    }
+}